@@ -0,0 +1,98 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.FileLoader;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Helpers for reading the command line arguments of the Road Rage runners.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class Arguments {
+
+    /**
+     * The directory searched for map names that are not paths to a file.
+     */
+    private static final String MAP_DIRECTORY = "maps";
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private Arguments() {
+        super();
+        // do nothing
+    }
+
+    /**
+     * Returns a command line argument, or a default if it was not given.
+     *
+     * @param theArgs the command line arguments.
+     * @param theIndex the position of the argument.
+     * @param theDefault the value to use if the argument was not given.
+     * @return the argument or the default.
+     */
+    static String get(final String[] theArgs, final int theIndex, final String theDefault) {
+        String result = theDefault;
+        if (theIndex < theArgs.length) {
+            result = theArgs[theIndex];
+        }
+        return result;
+    }
+
+    /**
+     * Finds a map file, looking in the maps directory if the name is not a file.
+     *
+     * @param theName the path or name of the map.
+     * @return the map file.
+     */
+    static File findMap(final String theName) {
+        File result = new File(theName);
+        if (!result.isFile()) {
+            result = new File(MAP_DIRECTORY, theName);
+        }
+        return result;
+    }
+
+    /**
+     * Loads a map file for a simulation run. Binary maps are memory-mapped, so that
+     * a large map starts without being read onto the heap and runs of the same map in
+     * other processes share its pages. Text maps are read.
+     *
+     * @param theFile the map file.
+     * @return the map.
+     * @throws IOException if the map cannot be read.
+     */
+    static CityMap loadMap(final File theFile) throws IOException {
+        return loadMap(theFile, 0);
+    }
+
+    /**
+     * Loads a map file for a simulation run, reading the terrain of a binary map a
+     * tile at a time if theTiles is positive and memory-mapping it otherwise. Text
+     * maps are read.
+     *
+     * @param theFile the map file.
+     * @param theTiles the most tiles of a binary map to keep in memory, or 0 to map
+     *        the whole map.
+     * @return the map.
+     * @throws IOException if the map cannot be read.
+     */
+    static CityMap loadMap(final File theFile, final int theTiles) throws IOException {
+        final CityMap result;
+        if (!theFile.getName().endsWith(FileLoader.BINARY_EXTENSION)) {
+            result = FileLoader.readMap(theFile);
+        } else if (theTiles > 0) {
+            result = FileLoader.tileMap(theFile, theTiles);
+        } else {
+            result = FileLoader.mapMap(theFile);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.TiledTerrainGrid;
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.PackedRoadRage;
+import edu.uw.tcss.logic.RoadRage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Runs the Road Rage simulation without a user interface, as fast as possible, and
+ * reports its throughput.
+ *
+ * <p>Usage: {@code HeadlessRoadRage [map] [ticks] [engine] [workers] [seed] [tiles]}
+ * <ul>
+ * <li>map - a city map file, or the name of a file in the maps directory; a binary
+ *     .rrmap map is memory-mapped (default city_map1.txt)</li>
+ * <li>ticks - the number of ticks to run (default 100000)</li>
+ * <li>engine - "object" for RoadRage or "packed" for PackedRoadRage
+ *     (default object)</li>
+ * <li>workers - for the packed engine, the number of workers for double-buffered
+ *     ticks, or 0 for the sequential tick (default 0)</li>
+ * <li>seed - the master seed for the vehicles' random streams (default the map's
+ *     seed, or a new seed each run; "-" also means the default)</li>
+ * <li>tiles - for a binary map, the most tiles of terrain to keep in memory, loading
+ *     the rest from the file as vehicles reach them, or 0 to memory-map the whole map
+ *     (default 0)</li>
+ * </ul>
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class HeadlessRoadRage {
+
+    /**
+     * The map run when none is given.
+     */
+    private static final String DEFAULT_MAP = "city_map1.txt";
+
+    /**
+     * The number of ticks run when none is given.
+     */
+    private static final long DEFAULT_TICKS = 100_000;
+
+    /**
+     * The engine name for RoadRage.
+     */
+    private static final String OBJECT_ENGINE = "object";
+
+    /**
+     * The engine name for PackedRoadRage.
+     */
+    private static final String PACKED_ENGINE = "packed";
+
+    /**
+     * The position of the optional seed argument.
+     */
+    private static final int SEED_ARGUMENT = 4;
+
+    /**
+     * The position of the optional tiles argument.
+     */
+    private static final int TILES_ARGUMENT = 5;
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private HeadlessRoadRage() {
+        super();
+        // do nothing
+    }
+
+    /**
+     * Loads a map, runs the requested number of ticks and prints the throughput.
+     *
+     * @param theArgs Command line arguments: map, ticks, engine, workers, seed and
+     *        tiles.
+     * @throws IOException if the map cannot be read.
+     */
+    public static void main(final String... theArgs) throws IOException {
+        final File mapFile = Arguments.findMap(Arguments.get(theArgs, 0, DEFAULT_MAP));
+        final long ticks =
+            Long.parseLong(Arguments.get(theArgs, 1, String.valueOf(DEFAULT_TICKS)));
+        final String engine = Arguments.get(theArgs, 2, OBJECT_ENGINE);
+        final int workers = Integer.parseInt(Arguments.get(theArgs, 3, "0"));
+        final int tiles = Integer.parseInt(Arguments.get(theArgs, TILES_ARGUMENT, "0"));
+
+        final CityMap map = Arguments.loadMap(mapFile, tiles);
+        try {
+            final AbstractRoadRage roadRage = newRoadRage(map, engine, workers);
+            try {
+                if (theArgs.length > SEED_ARGUMENT && !"-".equals(theArgs[SEED_ARGUMENT])) {
+                    roadRage.setSeed(Long.parseLong(theArgs[SEED_ARGUMENT]));
+                } else {
+                    map.getSeed().ifPresent(roadRage::setSeed);
+                }
+                System.out.printf("%s: %d x %d, %d vehicles, %s engine, %d workers, "
+                                  + "seed %d%n", mapFile, map.getWidth(), map.getHeight(),
+                                  map.getVehicleCount(), engine, workers,
+                                  roadRage.getSeed());
+                run(roadRage, ticks);
+            } finally {
+                if (roadRage instanceof PackedRoadRage) {
+                    ((PackedRoadRage) roadRage).close();
+                }
+            }
+            if (map.getTerrain() instanceof TiledTerrainGrid) {
+                final TiledTerrainGrid grid = (TiledTerrainGrid) map.getTerrain();
+                System.out.printf("%d tile hits, %d misses, %d evictions, %d tiles held%n",
+                                  grid.getHits(), grid.getMisses(), grid.getEvictions(),
+                                  grid.getTileCount());
+            }
+        } finally {
+            if (map.getTerrain() instanceof TiledTerrainGrid) {
+                ((TiledTerrainGrid) map.getTerrain()).close();
+            }
+        }
+    }
+
+    /**
+     * Creates a simulation of a map with the requested engine.
+     *
+     * @param theMap the map.
+     * @param theEngine the name of the engine.
+     * @param theWorkers for the packed engine, the number of workers.
+     * @return the simulation.
+     * @throws IllegalArgumentException if the engine is unknown.
+     */
+    private static AbstractRoadRage newRoadRage(final CityMap theMap, final String theEngine,
+                                                final int theWorkers) {
+        final AbstractRoadRage result;
+        switch (theEngine) {
+            case OBJECT_ENGINE ->
+                result = new RoadRage(theMap.getTerrain(), theMap.createVehicles());
+            case PACKED_ENGINE -> {
+                final PackedRoadRage packed =
+                    new PackedRoadRage(theMap.getTerrain(), theMap.createVehicles());
+                packed.setParallelism(theWorkers);
+                result = packed;
+            }
+            default -> throw new IllegalArgumentException("Unknown engine " + theEngine
+                                                          + ", expected " + OBJECT_ENGINE
+                                                          + " or " + PACKED_ENGINE);
+        }
+        return result;
+    }
+
+    /**
+     * Runs a number of ticks from the start and prints the throughput. The rates are
+     * only printed when some ticks ran in a measurable time.
+     *
+     * @param theRoadRage the simulation.
+     * @param theTicks the number of ticks.
+     */
+    private static void run(final AbstractRoadRage theRoadRage, final long theTicks) {
+        theRoadRage.start();
+        final long begin = System.nanoTime();
+        theRoadRage.advance(theTicks);
+        final double seconds = (System.nanoTime() - begin) / NANOS_PER_SECOND;
+
+        System.out.printf(Locale.ROOT, "%d ticks in %.3f s%n", theTicks, seconds);
+        if (theTicks > 0 && seconds > 0) {
+            System.out.printf(Locale.ROOT, "%.1f ticks/sec%n", theTicks / seconds);
+            System.out.printf(Locale.ROOT, "%.1f vehicle updates/sec%n",
+                              theTicks * (double) theRoadRage.getVehicleCount() / seconds);
+            System.out.printf(Locale.ROOT, "%.1f vehicle moves/sec%n",
+                              theRoadRage.getMoveCount() / seconds);
+        }
+    }
+}
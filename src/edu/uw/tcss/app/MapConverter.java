@@ -0,0 +1,94 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.FileLoader;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Converts a city map between the text format and the binary ".rrmap" format.
+ *
+ * <p>Usage: {@code MapConverter input [output]}
+ * <ul>
+ * <li>input - a city map file, or the name of a file in the maps directory. A file
+ *     ending in ".rrmap" is read as a binary map and any other as a text map.</li>
+ * <li>output - the file to write, in the binary format if its name ends in ".rrmap"
+ *     and in the text format otherwise (default the input with ".txt" and ".rrmap"
+ *     swapped)</li>
+ * </ul>
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class MapConverter {
+
+    /**
+     * The file name extension of text city maps.
+     */
+    private static final String TEXT_EXTENSION = ".txt";
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private MapConverter() {
+        super();
+        // do nothing
+    }
+
+    /**
+     * Reads a map in one format and writes it in the other.
+     *
+     * @param theArgs Command line arguments: input and output.
+     * @throws IOException if the input cannot be read or the output cannot be written.
+     */
+    public static void main(final String... theArgs) throws IOException {
+        if (theArgs.length == 0) {
+            throw new IllegalArgumentException("Usage: MapConverter input [output]");
+        }
+        final File input = Arguments.findMap(theArgs[0]);
+        final File output = new File(Arguments.get(theArgs, 1, convertedName(input)));
+
+        final long begin = System.nanoTime();
+        final CityMap map = FileLoader.readMap(input);
+        final long read = System.nanoTime();
+        FileLoader.writeMap(map, output);
+        final long written = System.nanoTime();
+
+        System.out.printf(Locale.ROOT, "%s (%d bytes) read in %.3f s%n", input,
+                          input.length(), (read - begin) / NANOS_PER_SECOND);
+        System.out.printf(Locale.ROOT, "%s (%d bytes) written in %.3f s%n", output,
+                          output.length(), (written - read) / NANOS_PER_SECOND);
+    }
+
+    /**
+     * Returns the default output file name for an input file.
+     *
+     * @param theInput the input file.
+     * @return the input's path with ".rrmap" in place of ".txt" for a text map, or
+     *         ".txt" in place of ".rrmap" for a binary map.
+     */
+    private static String convertedName(final File theInput) {
+        final String path = theInput.getPath();
+        final String result;
+        if (path.endsWith(FileLoader.BINARY_EXTENSION)) {
+            result = path.substring(0, path.length() - FileLoader.BINARY_EXTENSION.length())
+                     + TEXT_EXTENSION;
+        } else if (path.endsWith(TEXT_EXTENSION)) {
+            result = path.substring(0, path.length() - TEXT_EXTENSION.length())
+                     + FileLoader.BINARY_EXTENSION;
+        } else {
+            result = path + FileLoader.BINARY_EXTENSION;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.logic.BatchStatistics;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.logic.RunStatistics;
+import edu.uw.tcss.model.RandomSource;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent Road Rage simulations of one city map concurrently, each with
+ * its own seed, and prints aggregate collision and survival statistics. The map is
+ * read once and its terrain grid is shared, unmodified, by every run.
+ *
+ * <p>Usage: {@code MonteCarloRoadRage [map] [runs] [ticks] [workers] [seed]}
+ * <ul>
+ * <li>map - a city map file, or the name of a file in the maps directory; a binary
+ *     .rrmap map is memory-mapped (default city_map1.txt)</li>
+ * <li>runs - the number of simulations (default 1000)</li>
+ * <li>ticks - the number of ticks in each simulation (default 1000)</li>
+ * <li>workers - the number of simulations run at once (default the number of
+ *     processors)</li>
+ * <li>seed - the seed from which every run's seed is drawn (default a new seed)</li>
+ * </ul>
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class MonteCarloRoadRage {
+
+    /**
+     * The map run when none is given.
+     */
+    private static final String DEFAULT_MAP = "city_map1.txt";
+
+    /**
+     * The number of runs when none is given.
+     */
+    private static final int DEFAULT_RUNS = 1000;
+
+    /**
+     * The number of ticks per run when none is given.
+     */
+    private static final long DEFAULT_TICKS = 1000;
+
+    /**
+     * The position of the optional workers argument.
+     */
+    private static final int WORKERS_ARGUMENT = 3;
+
+    /**
+     * The position of the optional seed argument.
+     */
+    private static final int SEED_ARGUMENT = 4;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private MonteCarloRoadRage() {
+        super();
+        // do nothing
+    }
+
+    /**
+     * Loads a map, runs the requested simulations and prints their statistics.
+     *
+     * @param theArgs Command line arguments: map, runs, ticks, workers and seed.
+     * @throws IOException if the map cannot be read.
+     * @throws InterruptedException if interrupted while waiting for the runs.
+     * @throws ExecutionException if a run fails.
+     */
+    public static void main(final String... theArgs)
+        throws IOException, InterruptedException, ExecutionException {
+        final File mapFile = Arguments.findMap(Arguments.get(theArgs, 0, DEFAULT_MAP));
+        final int runs =
+            Integer.parseInt(Arguments.get(theArgs, 1, String.valueOf(DEFAULT_RUNS)));
+        final long ticks =
+            Long.parseLong(Arguments.get(theArgs, 2, String.valueOf(DEFAULT_TICKS)));
+        final int workers = Integer.parseInt(Arguments.get(theArgs, WORKERS_ARGUMENT,
+            String.valueOf(Runtime.getRuntime().availableProcessors())));
+        final long seed = Long.parseLong(Arguments.get(theArgs, SEED_ARGUMENT,
+            String.valueOf(RandomSource.newSeed())));
+
+        final CityMap map = Arguments.loadMap(mapFile);
+        System.out.printf("%s: %d runs of %d ticks on %d workers, seed %d%n",
+                          mapFile, runs, ticks, workers, seed);
+        System.out.print(runAll(map, runs, ticks, workers, seed));
+    }
+
+    /**
+     * Runs independent simulations of a map on a pool of workers and merges their
+     * results in run order.
+     *
+     * @param theMap the city map shared by every run.
+     * @param theRuns the number of simulations.
+     * @param theTicks the number of ticks in each simulation.
+     * @param theWorkers the number of simulations run at once.
+     * @param theSeed the seed from which every run's seed is drawn.
+     * @return the aggregate statistics.
+     * @throws InterruptedException if interrupted while waiting for the runs.
+     * @throws ExecutionException if a run fails.
+     */
+    public static BatchStatistics runAll(final CityMap theMap, final int theRuns,
+                                         final long theTicks, final int theWorkers,
+                                         final long theSeed)
+        throws InterruptedException, ExecutionException {
+        final SplittableRandom seeds = new SplittableRandom(theSeed);
+        final ExecutorService pool = Executors.newFixedThreadPool(theWorkers);
+        final BatchStatistics result = new BatchStatistics();
+        try {
+            final List<Future<RunStatistics>> futures = new ArrayList<>(theRuns);
+            for (int run = 0; run < theRuns; run++) {
+                final long runSeed = seeds.nextLong();
+                futures.add(pool.submit(() -> runOne(theMap, theTicks, runSeed)));
+            }
+            for (final Future<RunStatistics> future : futures) {
+                result.add(future.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Runs one simulation of a map from its starting state.
+     *
+     * @param theMap the city map.
+     * @param theTicks the number of ticks to run.
+     * @param theSeed the master seed for the run.
+     * @return the results of the run.
+     */
+    private static RunStatistics runOne(final CityMap theMap, final long theTicks,
+                                        final long theSeed) {
+        final RoadRage roadRage = new RoadRage(theMap.getTerrain(), theMap.createVehicles());
+        roadRage.setSeed(theSeed);
+        roadRage.start();
+        roadRage.advance(theTicks);
+        return new RunStatistics(roadRage, theTicks);
+    }
+}
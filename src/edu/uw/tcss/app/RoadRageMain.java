@@ -9,6 +9,9 @@ import java.awt.EventQueue;
 
 /**
  * Runs the Road Rage program.
+ *
+ * <p>Usage: {@code RoadRageMain [--active]}; with --active the map is drawn on a
+ * canvas with a render thread of its own instead of a Swing panel.
  * 
  * @author Marty Stepp
  * @author Daniel M. Zimmerman
@@ -17,6 +20,11 @@ import java.awt.EventQueue;
  */
 
 public final class RoadRageMain {
+
+    /**
+     * The command line option that selects active rendering.
+     */
+    private static final String ACTIVE_OPTION = "--active";
     
     /**
      * Private constructor to prevent construction of instances.
@@ -29,9 +37,10 @@ public final class RoadRageMain {
     /**
      * Constructs the main GUI window frame.
      * 
-     * @param theArgs Command line arguments (ignored).
+     * @param theArgs Command line arguments.
      */
     public static void main(final String... theArgs) {
-        EventQueue.invokeLater(RoadRageGUI::new);
+        final boolean active = ACTIVE_OPTION.equals(Arguments.get(theArgs, 0, ""));
+        EventQueue.invokeLater(() -> new RoadRageGUI(active));
     }
 }
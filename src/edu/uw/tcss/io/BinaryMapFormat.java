@@ -0,0 +1,489 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.PackedTerrainGrid;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.VehicleType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * The binary city map format, stored in files ending in ".rrmap". A binary map holds
+ * the same things as a text map, laid out so that it can be read with one bulk read
+ * and decoded without parsing, or memory-mapped so that its terrain is read in
+ * place. All numbers are big-endian.
+ *
+ * <pre>
+ * offset  size  contents
+ *      0     4  magic number 0x52524D50 ("RRMP")
+ *      4     2  format version, 1
+ *      6     2  flags: bit 0 is set if the map has a seed
+ *      8     4  number of rows
+ *     12     4  number of columns
+ *     16     4  number of vehicles
+ *     20     4  reserved, 0
+ *     24     8  seed, or 0 if the map has none
+ *     32    32  SHA-256 hash of the text map the file was made from, or zeros
+ *     64        terrain: one 4-bit code per square, row by row, two squares per
+ *               byte with the first in the high bits, padded with zeros to a
+ *               multiple of 4 bytes
+ *      -        vehicles: 12 bytes each, in file order: type letter (1 byte),
+ *               direction letter (1 byte), reserved (2 bytes), x (4), y (4)
+ * </pre>
+ *
+ * <p>The terrain codes are 0 GRASS, 1 STREET, 2 LIGHT, 3 WALL, 4 TRAIL and
+ * 5 CROSSWALK. The letters are those of the text format.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class BinaryMapFormat {
+
+    /**
+     * The number of bytes in the hash of the text map.
+     */
+    static final int HASH_SIZE = 32;
+
+    /**
+     * The number that starts every binary map.
+     */
+    private static final int MAGIC = 0x52524D50;
+
+    /**
+     * The version of the format written.
+     */
+    private static final short VERSION = 1;
+
+    /**
+     * The flag set if the map has a seed.
+     */
+    private static final short HAS_SEED = 1;
+
+    /**
+     * The number of bytes in the header.
+     */
+    private static final int HEADER_SIZE = 64;
+
+    /**
+     * The position in the header of the flags.
+     */
+    private static final int FLAGS_OFFSET = 6;
+
+    /**
+     * The position in the header of the number of rows.
+     */
+    private static final int ROWS_OFFSET = 8;
+
+    /**
+     * The position in the header of the number of columns.
+     */
+    private static final int COLUMNS_OFFSET = 12;
+
+    /**
+     * The position in the header of the number of vehicles.
+     */
+    private static final int COUNT_OFFSET = 16;
+
+    /**
+     * The position in the header of the seed.
+     */
+    private static final int SEED_OFFSET = 24;
+
+    /**
+     * The position in the header of the hash of the text map.
+     */
+    private static final int HASH_OFFSET = 32;
+
+    /**
+     * The position of the terrain section.
+     */
+    static final int TERRAIN_OFFSET = HEADER_SIZE;
+
+    /**
+     * The largest array that can be allocated.
+     */
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    /**
+     * The number of bytes in each vehicle record.
+     */
+    private static final int VEHICLE_SIZE = 12;
+
+    /**
+     * The number of bits in a terrain code.
+     */
+    static final int CODE_BITS = 4;
+
+    /**
+     * The bits of a terrain code.
+     */
+    static final int CODE_MASK = (1 << CODE_BITS) - 1;
+
+    /**
+     * The terrain of each code in use. The codes are part of the format, so they do
+     * not depend on the order of the Terrain values.
+     */
+    private static final Terrain[] TERRAINS = {
+        Terrain.GRASS, Terrain.STREET, Terrain.LIGHT,
+        Terrain.WALL, Terrain.TRAIL, Terrain.CROSSWALK,
+    };
+
+    /**
+     * The terrain of every possible code, or null for codes not in use.
+     */
+    private static final Terrain[] BY_CODE = Arrays.copyOf(TERRAINS, CODE_MASK + 1);
+
+    /**
+     * The code of each terrain, indexed by Terrain ordinal.
+     */
+    private static final byte[] CODES = codes();
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private BinaryMapFormat() {
+        super();
+        // do nothing
+    }
+
+    /**
+     * Encodes a map.
+     *
+     * @param theMap the map.
+     * @param theSourceHash the hash of the text map it was read from, or null.
+     * @return the bytes of the binary map.
+     * @throws IllegalArgumentException if the map is too large to encode in memory.
+     */
+    static byte[] encode(final CityMap theMap, final byte[] theSourceHash) {
+        final TerrainGrid grid = theMap.getTerrain();
+        final int rows = theMap.getHeight();
+        final int columns = theMap.getWidth();
+        final int count = theMap.getVehicleCount();
+        final long size = size(rows, columns, count);
+        if (size > MAX_ARRAY_SIZE) {
+            throw new IllegalArgumentException("The map is too large: " + size + " bytes");
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate((int) size);
+
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        final OptionalLong seed = theMap.getSeed();
+        buffer.putShort(seed.isPresent() ? HAS_SEED : 0);
+        buffer.putInt(rows);
+        buffer.putInt(columns);
+        buffer.putInt(count);
+        buffer.putInt(0);
+        buffer.putLong(seed.orElse(0));
+        if (theSourceHash != null) {
+            buffer.put(theSourceHash, 0, HASH_SIZE);
+        }
+
+        buffer.position(TERRAIN_OFFSET);
+        int pending = 0;
+        boolean high = true;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final int code = CODES[grid.getTerrain(column, row).ordinal()];
+                if (high) {
+                    pending = code << CODE_BITS;
+                } else {
+                    buffer.put((byte) (pending | code));
+                }
+                high = !high;
+            }
+        }
+        if (!high) {
+            buffer.put((byte) pending);
+        }
+
+        buffer.position((int) vehicleOffset(rows, columns));
+        for (int i = 0; i < count; i++) {
+            buffer.put((byte) theMap.getType(i).letter());
+            buffer.put((byte) theMap.getDirection(i).letter());
+            buffer.putShort((short) 0);
+            buffer.putInt(theMap.getX(i));
+            buffer.putInt(theMap.getY(i));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Tests whether a buffer holds a binary map made from a text map with a given
+     * hash.
+     *
+     * @param theBuffer the buffer.
+     * @param theSourceHash the hash of the text map.
+     * @return true if the buffer starts with a binary map header holding the hash,
+     *         false otherwise.
+     */
+    static boolean isMadeFrom(final ByteBuffer theBuffer, final byte[] theSourceHash) {
+        boolean result = theBuffer.limit() >= HEADER_SIZE
+            && theBuffer.getInt(0) == MAGIC && theBuffer.getShort(Integer.BYTES) == VERSION;
+        for (int i = 0; result && i < HASH_SIZE; i++) {
+            result = theBuffer.get(HASH_OFFSET + i) == theSourceHash[i];
+        }
+        return result;
+    }
+
+    /**
+     * Decodes a binary map.
+     *
+     * @param theBuffer the whole binary map.
+     * @return the map.
+     * @throws IOException if the buffer does not hold a valid binary map.
+     */
+    static CityMap decode(final ByteBuffer theBuffer) throws IOException {
+        checkHeader(theBuffer, theBuffer.limit());
+        final int rows = theBuffer.getInt(ROWS_OFFSET);
+        final int columns = theBuffer.getInt(COLUMNS_OFFSET);
+        final ByteBuffer buffer = theBuffer.duplicate();
+        buffer.position(TERRAIN_OFFSET);
+        if ((long) rows * columns > PackedTerrainGrid.MAX_SQUARES) {
+            throw new IOException("A " + rows + " x " + columns
+                                  + " map is too large to read; map it instead");
+        }
+        final byte[] squares = new byte[rows * columns];
+        int square = 0;
+        int packed = 0;
+        boolean high = true;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final int code;
+                if (high) {
+                    packed = buffer.get();
+                    code = packed >> CODE_BITS & CODE_MASK;
+                } else {
+                    code = packed & CODE_MASK;
+                }
+                high = !high;
+                final Terrain terrain = terrain(code);
+                if (terrain == null) {
+                    throw new IOException("Corrupt binary map: terrain code " + code
+                                          + " at row " + row + ", column " + column);
+                }
+                squares[square++] = (byte) terrain.ordinal();
+            }
+        }
+
+        buffer.position((int) vehicleOffset(rows, columns));
+        return readVehicles(new PackedTerrainGrid(columns, rows, squares), theBuffer,
+                            buffer);
+    }
+
+    /**
+     * Reads the header and vehicles of a binary map file into memory and maps its
+     * terrain, which is left in the file. The grid checks each terrain code only
+     * when it is read.
+     *
+     * @param theChannel the file, which may be closed once the map is returned.
+     * @return the map.
+     * @throws IOException if the file does not hold a valid binary map or cannot be
+     *         read.
+     */
+    static CityMap map(final FileChannel theChannel) throws IOException {
+        final ByteBuffer header = readHeader(theChannel);
+        final int rows = header.getInt(ROWS_OFFSET);
+        final int columns = header.getInt(COLUMNS_OFFSET);
+        final TerrainGrid grid = new MappedTerrainGrid(theChannel, columns, rows,
+                                                       terrainSize(rows, columns));
+        return mapVehicles(theChannel, header, grid);
+    }
+
+    /**
+     * Reads the header and vehicles of a binary map file into memory, and leaves its
+     * terrain in the file to be read a tile at a time as it is used. The file stays
+     * open until the grid is closed.
+     *
+     * @param theFile the binary map file.
+     * @param theCapacity the most tiles of terrain to hold in memory at once.
+     * @return the map, whose grid is a TiledTerrainGrid.
+     * @throws IOException if the file does not hold a valid binary map or cannot be
+     *         read.
+     */
+    static CityMap tile(final Path theFile, final int theCapacity) throws IOException {
+        final FileChannel channel = FileChannel.open(theFile, StandardOpenOption.READ);
+        try {
+            final ByteBuffer header = readHeader(channel);
+            final TerrainGrid grid =
+                new TiledTerrainGrid(channel, header.getInt(COLUMNS_OFFSET),
+                                     header.getInt(ROWS_OFFSET), theCapacity);
+            return mapVehicles(channel, header, grid);
+        } catch (final IOException | RuntimeException exception) {
+            channel.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the terrain of a code.
+     *
+     * @param theCode the code, from 0 to 15.
+     * @return the terrain, or null if the code is not in use.
+     */
+    static Terrain terrain(final int theCode) {
+        return BY_CODE[theCode];
+    }
+
+    /**
+     * Checks that a buffer starts with a valid header for a binary map of a given
+     * size.
+     *
+     * @param theHeader the buffer.
+     * @param theSize the size of the whole binary map.
+     * @throws IOException if the header is not valid.
+     */
+    private static void checkHeader(final ByteBuffer theHeader, final long theSize)
+        throws IOException {
+        if (theHeader.limit() < HEADER_SIZE || theHeader.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary Road Rage map");
+        }
+        final short version = theHeader.getShort(Integer.BYTES);
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary map version " + version);
+        }
+        final int rows = theHeader.getInt(ROWS_OFFSET);
+        final int columns = theHeader.getInt(COLUMNS_OFFSET);
+        final int count = theHeader.getInt(COUNT_OFFSET);
+        if (rows <= 0 || columns <= 0 || count < 0 || size(rows, columns, count) != theSize) {
+            throw new IOException("Corrupt binary map: " + rows + " x " + columns + ", "
+                                  + count + " vehicles in " + theSize + " bytes");
+        }
+    }
+
+    /**
+     * Reads and checks the header of a binary map file.
+     *
+     * @param theChannel the file.
+     * @return a buffer holding the header.
+     * @throws IOException if the header is not valid or cannot be read.
+     */
+    private static ByteBuffer readHeader(final FileChannel theChannel) throws IOException {
+        final ByteBuffer result = ByteBuffer.allocate(HEADER_SIZE);
+        int read;
+        do {
+            read = theChannel.read(result, result.position());
+        } while (read > 0 && result.hasRemaining());
+        result.flip();
+        checkHeader(result, theChannel.size());
+        return result;
+    }
+
+    /**
+     * Maps the vehicle table of a binary map file and builds the map.
+     *
+     * @param theChannel the file.
+     * @param theHeader a buffer holding the header of the map.
+     * @param theGrid the terrain grid of the map.
+     * @return the map.
+     * @throws IOException if a vehicle is not valid or the table cannot be read.
+     */
+    private static CityMap mapVehicles(final FileChannel theChannel,
+                                       final ByteBuffer theHeader, final TerrainGrid theGrid)
+        throws IOException {
+        final long vehicles = vehicleOffset(theGrid.getHeight(), theGrid.getWidth());
+        final long size = theChannel.size() - vehicles;
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Too many vehicles to read: "
+                                  + theHeader.getInt(COUNT_OFFSET));
+        }
+        return readVehicles(theGrid, theHeader,
+                            theChannel.map(FileChannel.MapMode.READ_ONLY, vehicles, size));
+    }
+
+    /**
+     * Reads the vehicle table of a binary map and builds the map.
+     *
+     * @param theGrid the terrain grid of the map.
+     * @param theHeader a buffer holding the header of the map.
+     * @param theVehicles a buffer positioned at the start of the vehicle table.
+     * @return the map.
+     * @throws IOException if a vehicle is not valid.
+     */
+    private static CityMap readVehicles(final TerrainGrid theGrid, final ByteBuffer theHeader,
+                                        final ByteBuffer theVehicles) throws IOException {
+        final int rows = theGrid.getHeight();
+        final int columns = theGrid.getWidth();
+        final int count = theHeader.getInt(COUNT_OFFSET);
+        final VehicleType[] types = new VehicleType[count];
+        final int[] xs = new int[count];
+        final int[] ys = new int[count];
+        final Direction[] directions = new Direction[count];
+        for (int i = 0; i < count; i++) {
+            types[i] = VehicleType.valueOf((char) (theVehicles.get() & 0xFF));
+            directions[i] = Direction.valueOf((char) (theVehicles.get() & 0xFF));
+            theVehicles.getShort();
+            xs[i] = theVehicles.getInt();
+            ys[i] = theVehicles.getInt();
+            if (types[i] == null || directions[i] == null
+                || xs[i] < 0 || xs[i] >= columns || ys[i] < 0 || ys[i] >= rows) {
+                throw new IOException("Corrupt binary map: vehicle " + i);
+            }
+        }
+
+        OptionalLong seed = OptionalLong.empty();
+        if ((theHeader.getShort(FLAGS_OFFSET) & HAS_SEED) != 0) {
+            seed = OptionalLong.of(theHeader.getLong(SEED_OFFSET));
+        }
+        return new CityMap(theGrid, types, xs, ys, directions, seed);
+    }
+
+    /**
+     * Returns the position of the vehicle table in a binary map.
+     *
+     * @param theRows the number of rows.
+     * @param theColumns the number of columns.
+     * @return the position in bytes.
+     */
+    private static long vehicleOffset(final int theRows, final int theColumns) {
+        return TERRAIN_OFFSET + terrainSize(theRows, theColumns);
+    }
+
+    /**
+     * Returns the size of the terrain section of a binary map, padding included.
+     *
+     * @param theRows the number of rows.
+     * @param theColumns the number of columns.
+     * @return the size in bytes.
+     */
+    static long terrainSize(final long theRows, final long theColumns) {
+        final long bytes = (theRows * theColumns + 1) / 2;
+        return (bytes + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES;
+    }
+
+    /**
+     * Returns the size of a binary map.
+     *
+     * @param theRows the number of rows.
+     * @param theColumns the number of columns.
+     * @param theCount the number of vehicles.
+     * @return the size in bytes.
+     */
+    private static long size(final long theRows, final long theColumns,
+                             final long theCount) {
+        return TERRAIN_OFFSET + terrainSize(theRows, theColumns) + theCount * VEHICLE_SIZE;
+    }
+
+    /**
+     * Builds the table of the code of each terrain.
+     *
+     * @return the table, indexed by Terrain ordinal.
+     */
+    private static byte[] codes() {
+        final byte[] result = new byte[Terrain.values().length];
+        Arrays.fill(result, (byte) -1);
+        for (int code = 0; code < TERRAINS.length; code++) {
+            result[TERRAINS[code].ordinal()] = (byte) code;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * The contents of a city map file: the terrain grid, the starting state of each
+ * vehicle and, if the file has one, the master seed for the vehicles' random streams.
+ * A CityMap does not change once it is read, so one map can be used to build any
+ * number of simulations.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class CityMap {
+
+    /**
+     * The terrain grid.
+     */
+    private final TerrainGrid myTerrain;
+
+    /**
+     * The type of each vehicle.
+     */
+    private final VehicleType[] myTypes;
+
+    /**
+     * The starting x-coordinate of each vehicle.
+     */
+    private final int[] myX;
+
+    /**
+     * The starting y-coordinate of each vehicle.
+     */
+    private final int[] myY;
+
+    /**
+     * The starting Direction of each vehicle.
+     */
+    private final Direction[] myDirections;
+
+    /**
+     * The master seed given by the file, if any.
+     */
+    private final OptionalLong mySeed;
+
+    /**
+     * Creates a map from a grid and the vehicles placed on it, with no seed.
+     *
+     * @param theGrid the terrain grid.
+     * @param theVehicles the vehicles, in file order.
+     */
+    public CityMap(final Terrain[][] theGrid, final List<Vehicle> theVehicles) {
+        this(theGrid, theVehicles, OptionalLong.empty());
+    }
+
+    /**
+     * Creates a map from a grid and the vehicles placed on it. The grid is packed and
+     * the starting state of each vehicle is recorded.
+     *
+     * @param theGrid the terrain grid.
+     * @param theVehicles the vehicles, in file order.
+     * @param theSeed the master seed given by the file, if any.
+     * @throws IllegalArgumentException if the rows of the grid differ in length or it
+     *         is too large to pack.
+     */
+    public CityMap(final Terrain[][] theGrid, final List<Vehicle> theVehicles,
+                   final OptionalLong theSeed) {
+        super();
+        mySeed = theSeed;
+        myTerrain = TerrainGrid.of(theGrid);
+        final int count = theVehicles.size();
+        myTypes = new VehicleType[count];
+        myX = new int[count];
+        myY = new int[count];
+        myDirections = new Direction[count];
+        for (int i = 0; i < count; i++) {
+            final Vehicle v = theVehicles.get(i);
+            myTypes[i] = VehicleType.of(v);
+            myX[i] = v.getX();
+            myY[i] = v.getY();
+            myDirections[i] = v.getDirection();
+        }
+    }
+
+    /**
+     * Creates a map from a grid and arrays read from a file, which the map takes over
+     * without copying. The vehicle arrays hold one entry per vehicle.
+     *
+     * @param theTerrain the terrain grid.
+     * @param theTypes the type of each vehicle, in file order.
+     * @param theX the starting x-coordinate of each vehicle.
+     * @param theY the starting y-coordinate of each vehicle.
+     * @param theDirections the starting Direction of each vehicle.
+     * @param theSeed the master seed given by the file, if any.
+     */
+    @SuppressWarnings("MethodWithTooManyParameters")
+    CityMap(final TerrainGrid theTerrain, final VehicleType[] theTypes, final int[] theX,
+            final int[] theY, final Direction[] theDirections, final OptionalLong theSeed) {
+        super();
+        myTerrain = theTerrain;
+        myTypes = theTypes;
+        myX = theX;
+        myY = theY;
+        myDirections = theDirections;
+        mySeed = theSeed;
+    }
+
+    /**
+     * Returns the terrain grid, which is shared by every caller. Simulations built
+     * from it read the terrain in place, however the map was loaded.
+     *
+     * @return the terrain grid.
+     */
+    public TerrainGrid getTerrain() {
+        return myTerrain;
+    }
+
+    /**
+     * Returns a copy of the terrain grid as a 2D array.
+     *
+     * @return a new array of the rows of the grid.
+     */
+    public Terrain[][] getGrid() {
+        return myTerrain.toArray();
+    }
+
+    /**
+     * Returns the width of the terrain grid.
+     *
+     * @return the number of columns.
+     */
+    public int getWidth() {
+        return myTerrain.getWidth();
+    }
+
+    /**
+     * Returns the height of the terrain grid.
+     *
+     * @return the number of rows.
+     */
+    public int getHeight() {
+        return myTerrain.getHeight();
+    }
+
+    /**
+     * Returns the number of vehicles on the map.
+     *
+     * @return the number of vehicles.
+     */
+    public int getVehicleCount() {
+        return myTypes.length;
+    }
+
+    /**
+     * Returns the type of a vehicle.
+     *
+     * @param theIndex the index of the vehicle, in file order.
+     * @return the type.
+     */
+    public VehicleType getType(final int theIndex) {
+        return myTypes[theIndex];
+    }
+
+    /**
+     * Returns the starting x-coordinate of a vehicle.
+     *
+     * @param theIndex the index of the vehicle, in file order.
+     * @return the x-coordinate.
+     */
+    public int getX(final int theIndex) {
+        return myX[theIndex];
+    }
+
+    /**
+     * Returns the starting y-coordinate of a vehicle.
+     *
+     * @param theIndex the index of the vehicle, in file order.
+     * @return the y-coordinate.
+     */
+    public int getY(final int theIndex) {
+        return myY[theIndex];
+    }
+
+    /**
+     * Returns the starting Direction of a vehicle.
+     *
+     * @param theIndex the index of the vehicle, in file order.
+     * @return the Direction.
+     */
+    public Direction getDirection(final int theIndex) {
+        return myDirections[theIndex];
+    }
+
+    /**
+     * Returns the master seed for the vehicles' random streams, if the file gave one.
+     *
+     * @return the seed, or an empty OptionalLong.
+     */
+    public OptionalLong getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Creates a fresh set of vehicles in their starting state, in file order.
+     *
+     * @return the new vehicles.
+     */
+    public List<Vehicle> createVehicles() {
+        final List<Vehicle> result = new ArrayList<>(myTypes.length);
+        for (int i = 0; i < myTypes.length; i++) {
+            result.add(myTypes[i].create(myX[i], myY[i], myDirections[i]));
+        }
+        return result;
+    }
+}
@@ -3,22 +3,23 @@
  */
  
 package edu.uw.tcss.io;
-import edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls;
 import edu.uw.tcss.logic.RoadRage;
-import edu.uw.tcss.model.Atv;
-import edu.uw.tcss.model.Bicycle;
-import edu.uw.tcss.model.Car;
-import edu.uw.tcss.model.Direction;
-import edu.uw.tcss.model.Human;
-import edu.uw.tcss.model.Taxi;
-import edu.uw.tcss.model.Terrain;
-import edu.uw.tcss.model.Truck;
-import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.TerrainGrid;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Scanner;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 
@@ -41,6 +42,26 @@ public final class FileLoader {
                     "maps" 
                     + File.separator
                     + "city_map1.txt";
+
+    /**
+     * The file name extension of binary city maps.
+     */
+    public static final String BINARY_EXTENSION = ".rrmap";
+
+    /**
+     * The keyword starting the optional seed line of a text city map.
+     */
+    private static final String SEED_KEYWORD = "SEED";
+
+    /**
+     * The algorithm of the content hash that keys the cache of a text map.
+     */
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    /**
+     * The number of bytes hashed at a time.
+     */
+    private static final int HASH_BUFFER_SIZE = 1 << 16;
     
     /**
      * A private constructor, to prevent external instantiation.
@@ -54,15 +75,10 @@ public final class FileLoader {
      * @param theFrame the Frame containing the panel. Needed for error output. 
      * @return the RoadRagePanel based on the city text file. 
      */
-    public static PropertyChangeEnabledRoadRageControls readCity(final JFrame theFrame) {
-        PropertyChangeEnabledRoadRageControls result = null;
-        try (Scanner input = new Scanner(new File(CITY_FILE))) {
-
-            // First, we read the map description
-            // Then, we read where the initial vehicles are
-           
-            result = new RoadRage(readGrid(input), readVehicles(input));
-
+    public static RoadRage readCity(final JFrame theFrame) {
+        RoadRage result = null;
+        try {
+            result = readCity(new File(CITY_FILE));
         } catch (final IOException ioe) {
             JOptionPane.showMessageDialog(theFrame, "Could not read city map file " + CITY_FILE
                                           + ":\n\n" + ioe.getMessage(), "I/O Error",
@@ -73,81 +89,242 @@ public final class FileLoader {
     
     
     /**
-     * Reads the grid portion of the map file.
+     * Read a city text file and build a RoadRage simulation based on the file, without
+     * any user interface. 
+     * @param theFile the city text file. 
+     * @return the RoadRage simulation based on the city text file. 
+     * @throws IOException if the file cannot be read. 
+     */
+    public static RoadRage readCity(final File theFile) throws IOException {
+        final CityMap map = readMap(theFile);
+        final RoadRage result = new RoadRage(map.getTerrain(), map.createVehicles());
+        map.getSeed().ifPresent(result::setSeed);
+        return result;
+    }
+    
+    /**
+     * Read a city map file into a CityMap, from which any number of simulations 
+     * may be built. A file whose name ends in ".rrmap" is read as a binary map;
+     * any other is read as a text map.
      * 
-     * @param theInput The input scanner.
-     * @return the grid of the terrains.
-     */
-    private static Terrain[][] readGrid(final Scanner theInput) {
-        final int numRows = theInput.nextInt();
-        final int numColumns = theInput.nextInt();
-        theInput.nextLine();
-        final Terrain[][] grid = new Terrain[numRows][numColumns];
-        for (int row = 0; row < numRows; row++) {
-            final String line = theInput.nextLine();
-            for (int column = 0; column < numColumns; column++) {
-                grid[row][column] = Terrain.valueOf(line.charAt(column));
+     * <p>A text map is cached as a binary map in a hidden file next to it, keyed by
+     * a hash of the text map's contents, so a text map that has not changed since
+     * it was last read is not parsed again. If the cache cannot be written, the map
+     * is still read. 
+     * @param theFile the city map file. 
+     * @return the contents of the city map file. 
+     * @throws MapFormatException if a text map is malformed. 
+     * @throws IOException if the file cannot be read or a binary map is invalid. 
+     */
+    public static CityMap readMap(final File theFile) throws IOException {
+        final CityMap result;
+        if (isBinary(theFile)) {
+            // the whole file in one read
+            result = BinaryMapFormat.decode(ByteBuffer.wrap(
+                Files.readAllBytes(theFile.toPath())));
+        } else {
+            result = readTextMap(theFile);
+        }
+        return result;
+    }
+
+    /**
+     * Memory-map a binary city map file into a CityMap. Only the header and the
+     * vehicles are read into memory; the terrain grid reads the mapped file in place,
+     * so a simulation of a very large map can start before its terrain has been read
+     * from disk, and processes mapping the same file share its pages. The file must
+     * not be changed while the map is in use. 
+     * @param theFile the binary city map file. 
+     * @return the contents of the city map file. 
+     * @throws IOException if the file cannot be read or is not a valid binary map. 
+     */
+    public static CityMap mapMap(final File theFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(theFile.toPath(),
+                                                    StandardOpenOption.READ)) {
+            return BinaryMapFormat.map(channel);
+        }
+    }
+
+    /**
+     * Load a binary city map file into a CityMap whose terrain is read from the file
+     * a tile of TiledTerrainGrid.TILE_SIZE squares on a side at a time, as the
+     * simulation first looks at it. At most theCapacity tiles are kept in memory, one
+     * not used recently being dropped to make room, so a map of any size can be run in
+     * a fixed amount of memory. The file stays open, and must not be changed, until
+     * the caller closes the grid. 
+     * @param theFile the binary city map file. 
+     * @param theCapacity the most tiles to keep in memory at once. 
+     * @return the contents of the city map file, with a TiledTerrainGrid that the 
+     *         caller must close. 
+     * @throws IOException if the file cannot be read or is not a valid binary map. 
+     * @throws IllegalArgumentException if theCapacity is less than 1 or more than 
+     *         TiledTerrainGrid.MAX_CAPACITY. 
+     */
+    public static CityMap tileMap(final File theFile, final int theCapacity)
+        throws IOException {
+        return BinaryMapFormat.tile(theFile.toPath(), theCapacity);
+    }
+
+    /**
+     * Write a CityMap to a city map file, as a binary map if the file name ends in
+     * ".rrmap" and as a text map otherwise. 
+     * @param theMap the map. 
+     * @param theFile the city map file, which is replaced if it exists. 
+     * @throws IOException if the file cannot be written. 
+     */
+    public static void writeMap(final CityMap theMap, final File theFile) throws IOException {
+        if (isBinary(theFile)) {
+            Files.write(theFile.toPath(), BinaryMapFormat.encode(theMap, null));
+        } else {
+            try (Writer output = Files.newBufferedWriter(theFile.toPath(),
+                                                         StandardCharsets.US_ASCII)) {
+                writeTextMap(theMap, output);
             }
         }
-        return grid;
     }
 
     /**
-     * Reads the vehicle portion of the map file.
-     * 
-     * @param theInput The input scanner.
-     * @return the list of Vehicles
-     */
-    @SuppressWarnings("OverlyLongMethod")
-    private static List<Vehicle> readVehicles(final Scanner theInput) {
-        final List<Vehicle> vehicles = new ArrayList<>();
-        final int numVehicles = theInput.nextInt();
-        theInput.nextLine();
-        for (int lineCount = 0; lineCount < numVehicles; lineCount++) {
-            final char vehicleType = theInput.next().charAt(0);
-            final int vehicleX = theInput.nextInt();
-            final int vehicleY = theInput.nextInt();
-            final char vehicleDirection = theInput.next().charAt(0);
-
-            switch (vehicleType) {
-                case 'B': // Bicycle
-                    vehicles.add(new Bicycle(vehicleX, vehicleY,
-                                               Direction.valueOf(vehicleDirection)));
-                    break;
-
-                case 'A': //ATV
-                    vehicles.add(new Atv(vehicleX, vehicleY,
-                                           Direction.valueOf(vehicleDirection)));
-                    break;
-
-                case 'H': // Human
-                    vehicles.add(new Human(vehicleX, vehicleY,
-                            Direction.valueOf(vehicleDirection)));
-                    break;
-
-                case 'T': // Truck
-                    vehicles.add(new Truck(vehicleX, vehicleY,
-                                             Direction.valueOf(vehicleDirection)));
-                    break;
-
-                case 'X': // Taxi
-                    vehicles.add(new Taxi(vehicleX, vehicleY,
-                                            Direction.valueOf(vehicleDirection)));
-                    break;
-
-                case 'C': // Car
-                    vehicles.add(new Car(vehicleX, vehicleY,
-                                            Direction.valueOf(vehicleDirection)));
-                    break;
-
-                default:
-                    // this should never happen
-                    assert false;
-                    break;
+     * Returns the file in which a text map is cached as a binary map.
+     * @param theFile the text map file. 
+     * @return the hidden cache file in the same directory. 
+     */
+    public static File cacheOf(final File theFile) {
+        return new File(theFile.getAbsoluteFile().getParentFile(),
+                        "." + theFile.getName() + BINARY_EXTENSION);
+    }
+
+    /**
+     * Tests whether a file is named as a binary map.
+     * @param theFile the file. 
+     * @return true if the name ends in ".rrmap", false otherwise. 
+     */
+    private static boolean isBinary(final File theFile) {
+        return theFile.getName().endsWith(BINARY_EXTENSION);
+    }
+
+    /**
+     * Reads a text map from its cache if the cache was made from the same contents,
+     * and otherwise parses it and caches it. 
+     * @param theFile the text map file. 
+     * @return the contents of the file. 
+     * @throws MapFormatException if the file is malformed. 
+     * @throws IOException if the file cannot be read. 
+     */
+    private static CityMap readTextMap(final File theFile) throws IOException {
+        final File cache = cacheOf(theFile);
+        CityMap result = null;
+        if (cache.isFile()) {
+            try {
+                final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(cache.toPath()));
+                if (BinaryMapFormat.isMadeFrom(buffer, hash(theFile))) {
+                    result = BinaryMapFormat.decode(buffer);
+                }
+            } catch (final IOException exception) {
+                // a damaged cache is replaced below
+                result = null;
+            }
+        }
+        if (result == null) {
+            // hash exactly the bytes parsed, in case the file changes meanwhile
+            final MessageDigest digest = newDigest();
+            try (InputStream input = new DigestInputStream(new FileInputStream(theFile),
+                                                           digest)) {
+                result = new MapParser(input).parse();
+            }
+            writeCache(result, digest.digest(), cache);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the binary cache of a text map, replacing any old cache in one step.
+     * Failures are ignored, since the cache only saves time. 
+     * @param theMap the contents of the text map. 
+     * @param theHash the hash of the text map. 
+     * @param theCache the cache file. 
+     */
+    private static void writeCache(final CityMap theMap, final byte[] theHash,
+                                   final File theCache) {
+        try {
+            final Path temporary = Files.createTempFile(theCache.getParentFile().toPath(),
+                                                        theCache.getName(), ".tmp");
+            try {
+                Files.write(temporary, BinaryMapFormat.encode(theMap, theHash));
+                Files.move(temporary, theCache.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                           StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (final IOException | IllegalArgumentException exception) {
+            // the map has been read; it will be parsed again next time
+            return;
+        }
+    }
+
+    /**
+     * Returns the content hash of a file.
+     * @param theFile the file. 
+     * @return the hash. 
+     * @throws IOException if the file cannot be read. 
+     */
+    private static byte[] hash(final File theFile) throws IOException {
+        final MessageDigest digest = newDigest();
+        try (InputStream input = new FileInputStream(theFile)) {
+            final byte[] buffer = new byte[HASH_BUFFER_SIZE];
+            int count = input.read(buffer);
+            while (count >= 0) {
+                digest.update(buffer, 0, count);
+                count = input.read(buffer);
+            }
+        }
+        return digest.digest();
+    }
+
+    /**
+     * Returns a new MessageDigest for the content hash.
+     * @return the MessageDigest. 
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (final NoSuchAlgorithmException exception) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * Writes a map in the text format. 
+     * @param theMap the map. 
+     * @param theOutput where to write it. 
+     * @throws IOException if the map cannot be written. 
+     */
+    private static void writeTextMap(final CityMap theMap, final Writer theOutput)
+        throws IOException {
+        final TerrainGrid grid = theMap.getTerrain();
+        final StringBuilder line = new StringBuilder();
+        theOutput.write(theMap.getHeight() + " " + theMap.getWidth() + "\n");
+        for (int y = 0; y < grid.getHeight(); y++) {
+            line.setLength(0);
+            for (int x = 0; x < grid.getWidth(); x++) {
+                line.append(grid.getTerrain(x, y).letter());
             }
-            theInput.nextLine();
+            theOutput.append(line).append('\n');
+        }
+        theOutput.write(theMap.getVehicleCount() + "\n");
+        for (int i = 0; i < theMap.getVehicleCount(); i++) {
+            // the terrain under the vehicle is for people reading the file
+            line.setLength(0);
+            line.append(theMap.getType(i).letter()).append(' ').append(theMap.getX(i))
+                .append(' ').append(theMap.getY(i)).append(' ')
+                .append(theMap.getDirection(i).letter()).append(' ')
+                .append(grid.getTerrain(theMap.getX(i), theMap.getY(i)).letter())
+                .append('\n');
+            theOutput.append(line);
+        }
+        if (theMap.getSeed().isPresent()) {
+            theOutput.write(SEED_KEYWORD + " " + theMap.getSeed().getAsLong() + "\n");
         }
-        return vehicles;
     }
     
 }
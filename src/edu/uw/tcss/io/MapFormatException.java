@@ -0,0 +1,66 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import java.io.IOException;
+import java.io.Serial;
+
+/**
+ * Thrown when a city map file is malformed, giving the line and column at which the
+ * problem was found.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class MapFormatException extends IOException {
+
+    /**
+     * The serial version UID.
+     */
+    @Serial
+    private static final long serialVersionUID = 0;
+
+    /**
+     * The line of the file, counting from 1.
+     */
+    private final int myLine;
+
+    /**
+     * The column of the line, counting from 1.
+     */
+    private final int myColumn;
+
+    /**
+     * Creates an exception for a problem at a position in a map file.
+     *
+     * @param theMessage a description of the problem.
+     * @param theLine the line of the file, counting from 1.
+     * @param theColumn the column of the line, counting from 1.
+     */
+    public MapFormatException(final String theMessage, final int theLine,
+                              final int theColumn) {
+        super("line " + theLine + ", column " + theColumn + ": " + theMessage);
+        myLine = theLine;
+        myColumn = theColumn;
+    }
+
+    /**
+     * Returns the line of the file at which the problem was found.
+     *
+     * @return the line, counting from 1.
+     */
+    public int getLine() {
+        return myLine;
+    }
+
+    /**
+     * Returns the column of the line at which the problem was found.
+     *
+     * @return the column, counting from 1.
+     */
+    public int getColumn() {
+        return myColumn;
+    }
+}
@@ -0,0 +1,452 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.PackedTerrainGrid;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.VehicleType;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.OptionalLong;
+
+/**
+ * Reads a city map file byte by byte through a buffer of its own, with no regular
+ * expressions, Strings or boxing per value. Letters are decoded through the lookup
+ * tables of the Terrain, Direction and VehicleType enumerations.
+ *
+ * <p>A map file has a line with the number of rows and columns, one line of terrain
+ * letters per row, a line with the number of vehicles, and one line per vehicle of
+ * its type letter, x-coordinate, y-coordinate and direction letter. Anything after
+ * the direction on a vehicle line is ignored. An optional line of the form
+ * "SEED 12345" may follow the vehicles. Lines may end in "\n" or "\r\n". Anything
+ * else is reported with a MapFormatException giving its line and column.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class MapParser {
+
+    /**
+     * The number of bytes read from the input at a time.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The value returned at the end of the input.
+     */
+    private static final int END = -1;
+
+    /**
+     * The most vehicles room is made for before any are read, so that a bad vehicle
+     * count cannot exhaust memory.
+     */
+    private static final int INITIAL_VEHICLE_CAPACITY = 1 << 16;
+
+    /**
+     * The keyword starting the optional seed line.
+     */
+    private static final String SEED_KEYWORD = "SEED";
+
+    /**
+     * The input.
+     */
+    private final InputStream myInput;
+
+    /**
+     * The bytes read from the input.
+     */
+    private final byte[] myBuffer;
+
+    /**
+     * The position in myBuffer of the next byte.
+     */
+    private int myPosition;
+
+    /**
+     * The number of bytes in myBuffer.
+     */
+    private int myLimit;
+
+    /**
+     * The number of bytes of the input before those in myBuffer.
+     */
+    private long myBufferStart;
+
+    /**
+     * The line of the next byte, counting from 1.
+     */
+    private int myLine;
+
+    /**
+     * The position in the input of the first byte of the current line.
+     */
+    private long myLineStart;
+
+    /**
+     * Creates a parser of a map file.
+     *
+     * @param theInput the input, which the parser reads but does not close.
+     */
+    MapParser(final InputStream theInput) {
+        super();
+        myInput = theInput;
+        myBuffer = new byte[BUFFER_SIZE];
+        myLine = 1;
+    }
+
+    /**
+     * Reads the whole map.
+     *
+     * @return the map.
+     * @throws MapFormatException if the map is malformed.
+     * @throws IOException if the input cannot be read.
+     */
+    CityMap parse() throws IOException {
+        // First, we read the map description
+        // Then, we read where the initial vehicles are
+        // Last, we read the optional seed line
+        final TerrainGrid grid = readGrid();
+        final int count = readCount("vehicle count");
+        endLine();
+
+        VehicleType[] types = new VehicleType[Math.min(count, INITIAL_VEHICLE_CAPACITY)];
+        int[] xs = new int[types.length];
+        int[] ys = new int[types.length];
+        Direction[] directions = new Direction[types.length];
+        for (int i = 0; i < count; i++) {
+            if (i == types.length) {
+                final int capacity = (int) Math.min(count, 2L * types.length);
+                types = Arrays.copyOf(types, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                directions = Arrays.copyOf(directions, capacity);
+            }
+            types[i] = readVehicleType();
+            xs[i] = readCoordinate("x-coordinate", grid.getWidth());
+            ys[i] = readCoordinate("y-coordinate", grid.getHeight());
+            directions[i] = readDirection();
+            skipLine();
+        }
+        return new CityMap(grid, types, xs, ys, directions, readSeed());
+    }
+
+    /**
+     * Reads the size line and the grid of terrain letters.
+     *
+     * @return the grid.
+     * @throws IOException if the grid is malformed or cannot be read.
+     */
+    private TerrainGrid readGrid() throws IOException {
+        final int rows = readCount("number of rows");
+        final int columns = readCount("number of columns");
+        endLine();
+        if (rows == 0 || columns == 0) {
+            throw error("the map must have at least one row and one column");
+        }
+        if ((long) rows * columns > PackedTerrainGrid.MAX_SQUARES) {
+            throw error("the map has more than " + PackedTerrainGrid.MAX_SQUARES
+                        + " squares");
+        }
+        final byte[] squares = new byte[rows * columns];
+        int square = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                final int letter = peek();
+                final Terrain terrain = Terrain.valueOf((char) Math.max(0, letter));
+                if (terrain.letter() != letter) {
+                    throw error("expected a terrain letter but found " + describe(letter));
+                }
+                squares[square++] = (byte) terrain.ordinal();
+                myPosition++;
+            }
+            endLine();
+        }
+        return new PackedTerrainGrid(columns, rows, squares);
+    }
+
+    /**
+     * Reads the type letter at the start of a vehicle line.
+     *
+     * @return the type.
+     * @throws IOException if there is no type letter or it cannot be read.
+     */
+    private VehicleType readVehicleType() throws IOException {
+        skipSpaces();
+        final int letter = peek();
+        final VehicleType result = VehicleType.valueOf((char) Math.max(0, letter));
+        if (result == null) {
+            throw error("expected a vehicle letter but found " + describe(letter));
+        }
+        myPosition++;
+        return result;
+    }
+
+    /**
+     * Reads a direction letter.
+     *
+     * @return the direction.
+     * @throws IOException if there is no direction letter or it cannot be read.
+     */
+    private Direction readDirection() throws IOException {
+        skipSpaces();
+        final int letter = peek();
+        final Direction result = Direction.valueOf((char) Math.max(0, letter));
+        if (result == null) {
+            throw error("expected a direction letter but found " + describe(letter));
+        }
+        myPosition++;
+        return result;
+    }
+
+    /**
+     * Reads a coordinate and checks that it is on the map.
+     *
+     * @param theName what the coordinate is, for error messages.
+     * @param theSize the number of squares in the coordinate's direction.
+     * @return the coordinate.
+     * @throws IOException if there is no valid coordinate or it cannot be read.
+     */
+    private int readCoordinate(final String theName, final int theSize) throws IOException {
+        skipSpaces();
+        final int line = myLine;
+        final int column = column();
+        final long result = readLong(theName);
+        if (result >= theSize) {
+            throw new MapFormatException(theName + " " + result + " is off the map",
+                                         line, column);
+        }
+        return (int) result;
+    }
+
+    /**
+     * Reads a count, which must fit in an int.
+     *
+     * @param theName what the count is, for error messages.
+     * @return the count.
+     * @throws IOException if there is no valid count or it cannot be read.
+     */
+    private int readCount(final String theName) throws IOException {
+        skipSpaces();
+        final int line = myLine;
+        final int column = column();
+        final long result = readLong(theName);
+        if (result > Integer.MAX_VALUE) {
+            throw new MapFormatException(theName + " " + result + " is too large",
+                                         line, column);
+        }
+        return (int) result;
+    }
+
+    /**
+     * Reads the optional seed line and checks that nothing but blank lines follows.
+     *
+     * @return the seed, or an empty OptionalLong if the file has no seed line.
+     * @throws IOException if what follows the vehicles is malformed or cannot be read.
+     */
+    private OptionalLong readSeed() throws IOException {
+        OptionalLong result = OptionalLong.empty();
+        skipBlankLines();
+        if (peek() != END) {
+            for (int i = 0; i < SEED_KEYWORD.length(); i++) {
+                if (peek() != SEED_KEYWORD.charAt(i)) {
+                    throw error("expected " + SEED_KEYWORD + " or the end of the file but"
+                                + " found " + describe(peek()));
+                }
+                myPosition++;
+            }
+            if (!isSpace(peek())) {
+                throw error("expected a space after " + SEED_KEYWORD);
+            }
+            skipSpaces();
+            final boolean negative = peek() == '-';
+            if (negative) {
+                myPosition++;
+            }
+            final long seed = readLong("seed");
+            result = OptionalLong.of(negative ? -seed : seed);
+            endLine();
+            skipBlankLines();
+            if (peek() != END) {
+                throw error("expected the end of the file but found " + describe(peek()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads a non-negative decimal number, after any spaces.
+     *
+     * @param theName what the number is, for error messages.
+     * @return the number.
+     * @throws IOException if there is no number, it is too large, or it cannot be
+     *         read.
+     */
+    private long readLong(final String theName) throws IOException {
+        skipSpaces();
+        int digit = peek() - '0';
+        if (digit < 0 || digit > 9) {
+            throw error("expected the " + theName + " but found " + describe(peek()));
+        }
+        final int line = myLine;
+        final int column = column();
+        long result = 0;
+        do {
+            if (result > (Long.MAX_VALUE - digit) / 10) {
+                throw new MapFormatException(theName + " is too large", line, column);
+            }
+            result = result * 10 + digit;
+            myPosition++;
+            digit = peek() - '0';
+        } while (digit >= 0 && digit <= 9);
+        return result;
+    }
+
+    /**
+     * Skips spaces and tabs.
+     *
+     * @throws IOException if the input cannot be read.
+     */
+    private void skipSpaces() throws IOException {
+        while (isSpace(peek())) {
+            myPosition++;
+        }
+    }
+
+    /**
+     * Skips lines holding nothing but spaces and tabs.
+     *
+     * @throws IOException if the input cannot be read.
+     */
+    private void skipBlankLines() throws IOException {
+        skipSpaces();
+        while (peek() == '\r' || peek() == '\n') {
+            endLine();
+            skipSpaces();
+        }
+    }
+
+    /**
+     * Skips the rest of the current line, and its line ending.
+     *
+     * @throws IOException if the input cannot be read.
+     */
+    private void skipLine() throws IOException {
+        int next = peek();
+        while (next != '\n' && next != END) {
+            myPosition++;
+            next = peek();
+        }
+        if (next == '\n') {
+            nextLine();
+        }
+    }
+
+    /**
+     * Skips spaces and tabs, then the line ending, which must come next.
+     *
+     * @throws IOException if something else comes next or the input cannot be read.
+     */
+    private void endLine() throws IOException {
+        skipSpaces();
+        if (peek() == '\r') {
+            myPosition++;
+        }
+        final int next = peek();
+        if (next == '\n') {
+            nextLine();
+        } else if (next != END) {
+            throw error("expected the end of the line but found " + describe(next));
+        }
+    }
+
+    /**
+     * Moves past a newline to the start of the next line.
+     */
+    private void nextLine() {
+        myPosition++;
+        myLine++;
+        myLineStart = myBufferStart + myPosition;
+    }
+
+    /**
+     * Returns the next byte without moving past it, reading more of the input if
+     * the buffer is used up.
+     *
+     * @return the byte from 0 to 255, or END at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    private int peek() throws IOException {
+        int result = END;
+        if (myPosition < myLimit || fill()) {
+            result = myBuffer[myPosition] & 0xFF;
+        }
+        return result;
+    }
+
+    /**
+     * Reads the next block of the input into the buffer.
+     *
+     * @return true if any bytes were read, false at the end of the input.
+     * @throws IOException if the input cannot be read.
+     */
+    private boolean fill() throws IOException {
+        myBufferStart += myLimit;
+        myPosition = 0;
+        myLimit = Math.max(0, myInput.read(myBuffer));
+        return myLimit > 0;
+    }
+
+    /**
+     * Returns the column of the next byte.
+     *
+     * @return the column, counting from 1.
+     */
+    private int column() {
+        return (int) (myBufferStart + myPosition - myLineStart) + 1;
+    }
+
+    /**
+     * Creates an exception for a problem at the next byte.
+     *
+     * @param theMessage a description of the problem.
+     * @return the exception.
+     */
+    private MapFormatException error(final String theMessage) {
+        return new MapFormatException(theMessage, myLine, column());
+    }
+
+    /**
+     * Tests whether a byte is a space or a tab.
+     *
+     * @param theByte the byte.
+     * @return true if it is a space or a tab, false otherwise.
+     */
+    private static boolean isSpace(final int theByte) {
+        return theByte == ' ' || theByte == '\t';
+    }
+
+    /**
+     * Describes a byte for an error message.
+     *
+     * @param theByte the byte, or END.
+     * @return the description.
+     */
+    private static String describe(final int theByte) {
+        final String result;
+        if (theByte == END) {
+            result = "the end of the file";
+        } else if (theByte == '\r' || theByte == '\n') {
+            result = "the end of the line";
+        } else if (theByte > ' ' && theByte < 0x7F) {
+            result = "'" + (char) theByte + "'";
+        } else {
+            result = String.format("byte 0x%02X", theByte);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+
+/**
+ * A read-only TerrainGrid over the terrain section of a memory-mapped binary map.
+ * Squares are decoded from the mapped bytes each time they are read, so the grid
+ * takes no heap beyond a few buffers, pages of the file are only read from disk
+ * when first touched, and every process mapping the same file shares one copy in
+ * the page cache.
+ *
+ * <p>A mapping cannot be larger than 2 GB, so the terrain is mapped in segments of
+ * 1 GB. Each code is checked when it is read rather than when the file is mapped.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class MappedTerrainGrid implements TerrainGrid {
+
+    /**
+     * The number of bits in the offset of a byte within a segment.
+     */
+    private static final int SEGMENT_BITS = 30;
+
+    /**
+     * The number of bytes in every segment but the last.
+     */
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    /**
+     * The bits of the offset of a byte within a segment.
+     */
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    /**
+     * The mapped terrain section, in segments of SEGMENT_SIZE bytes.
+     */
+    private final MappedByteBuffer[] mySegments;
+
+    /**
+     * The number of columns.
+     */
+    private final int myWidth;
+
+    /**
+     * The number of rows.
+     */
+    private final int myHeight;
+
+    /**
+     * Maps the terrain section of a binary map file.
+     *
+     * @param theChannel the file, which may be closed once the grid is created.
+     * @param theWidth the number of columns.
+     * @param theHeight the number of rows.
+     * @param theSize the size of the terrain section in bytes.
+     * @throws IOException if the file cannot be mapped.
+     */
+    MappedTerrainGrid(final FileChannel theChannel, final int theWidth, final int theHeight,
+                      final long theSize) throws IOException {
+        super();
+        myWidth = theWidth;
+        myHeight = theHeight;
+        mySegments = new MappedByteBuffer[(int) ((theSize + SEGMENT_MASK) >>> SEGMENT_BITS)];
+        for (int i = 0; i < mySegments.length; i++) {
+            final long start = i * SEGMENT_SIZE;
+            mySegments[i] = theChannel.map(FileChannel.MapMode.READ_ONLY,
+                                           BinaryMapFormat.TERRAIN_OFFSET + start,
+                                           Math.min(SEGMENT_SIZE, theSize - start));
+        }
+    }
+
+    @Override
+    public int getWidth() {
+        return myWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return myHeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the square holds a code that is not in use.
+     */
+    @Override
+    public Terrain getTerrain(final int theX, final int theY) {
+        Objects.checkIndex(theX, myWidth);
+        Objects.checkIndex(theY, myHeight);
+        final long square = (long) theY * myWidth + theX;
+        final long offset = square >>> 1;
+        final int packed =
+            mySegments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK));
+        int code = packed;
+        if ((square & 1) == 0) {
+            code = packed >> BinaryMapFormat.CODE_BITS;
+        }
+        code &= BinaryMapFormat.CODE_MASK;
+        final Terrain result = BinaryMapFormat.terrain(code);
+        if (result == null) {
+            throw new IllegalStateException("Corrupt binary map: terrain code " + code
+                                            + " at row " + theY + ", column " + theX);
+        }
+        return result;
+    }
+}
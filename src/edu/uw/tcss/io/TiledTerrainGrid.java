@@ -0,0 +1,445 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.io;
+
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A read-only TerrainGrid over the terrain of a binary map file that is loaded a tile
+ * at a time. The grid is split into tiles of TILE_SIZE by TILE_SIZE squares, and a
+ * tile is read from the file the first time one of its squares is read, such as when
+ * a vehicle next to it looks up its neighbors. At most a fixed number of tiles are
+ * held in memory; when another is needed, a tile that has not been used recently is
+ * dropped and read again from the file if it is needed later. A map far larger than
+ * memory can therefore be run, as long as the vehicles stay in a small part of it.
+ *
+ * <p>Tiles in memory are found in an open-addressing table keyed by tile row and
+ * column, which readers search without a lock, so any number of threads may read the
+ * grid at once. Only loading a tile takes a lock. Because a hit cannot reorder a list
+ * without a lock, the tile to drop is chosen by the clock algorithm, the usual
+ * approximation of least recently used: a hit marks its tile, and the clock hand
+ * passes over marked tiles, clearing the mark, until it finds one not used since it
+ * last passed.
+ *
+ * <p>The grid counts every square read as a hit if its tile was in memory and a miss
+ * if it was loaded, and counts the tiles evicted. The grid reads the file through one
+ * FileChannel, which its owner closes with close once the map is no longer used. The
+ * file must not be changed while the grid is in use.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class TiledTerrainGrid implements TerrainGrid, Closeable {
+
+    /**
+     * The number of bits in a coordinate within a tile.
+     */
+    private static final int TILE_BITS = 6;
+
+    /**
+     * The number of squares along each side of a tile.
+     */
+    public static final int TILE_SIZE = 1 << TILE_BITS;
+
+    /**
+     * The most tiles a grid can hold in memory.
+     */
+    public static final int MAX_CAPACITY = 1 << 28;
+
+    /**
+     * The bits of a coordinate within a tile.
+     */
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    /**
+     * The multiplier that spreads tile keys over the table (Fibonacci hashing).
+     */
+    private static final long HASH_MULTIPLIER = 0x9E37_79B9_7F4A_7C15L;
+
+    /**
+     * The Terrain values, indexed by ordinal.
+     */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /**
+     * The binary map file.
+     */
+    private final FileChannel myChannel;
+
+    /**
+     * The number of columns.
+     */
+    private final int myWidth;
+
+    /**
+     * The number of rows.
+     */
+    private final int myHeight;
+
+    /**
+     * The tiles in memory, by open addressing with linear probing on their keys. The
+     * table is at least twice the capacity, so it always has empty slots. Read
+     * without a lock; written only while holding the lock.
+     */
+    private final AtomicReferenceArray<Tile> myTable;
+
+    /**
+     * The number of bits the hash of a key is shifted right to index myTable.
+     */
+    private final int myShift;
+
+    /**
+     * The tiles in memory in the order the clock hand visits them. Guarded by this.
+     */
+    private final Tile[] myClock;
+
+    /**
+     * The bytes of one row of a tile, read from the file. Guarded by this.
+     */
+    private final ByteBuffer myBuffer;
+
+    /**
+     * The number of squares read from tiles in memory.
+     */
+    private final LongAdder myHits;
+
+    /**
+     * The number of tiles in memory. Guarded by this.
+     */
+    private int mySize;
+
+    /**
+     * The index in myClock of the next tile the clock hand looks at. Guarded by this.
+     */
+    private int myHand;
+
+    /**
+     * The number of squares read by loading their tile. Guarded by this.
+     */
+    private long myMisses;
+
+    /**
+     * The number of tiles dropped from memory. Guarded by this.
+     */
+    private long myEvictions;
+
+    /**
+     * Creates a grid over the terrain of a binary map file, with no tiles in memory.
+     * The grid takes over the channel and closes it when the grid is closed.
+     *
+     * @param theChannel the binary map file, open for reading.
+     * @param theWidth the number of columns.
+     * @param theHeight the number of rows.
+     * @param theCapacity the most tiles to hold in memory at once.
+     * @throws IllegalArgumentException if theCapacity is less than 1 or more than
+     *         MAX_CAPACITY.
+     */
+    TiledTerrainGrid(final FileChannel theChannel, final int theWidth, final int theHeight,
+                     final int theCapacity) {
+        super();
+        if (theCapacity < 1 || theCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Cannot hold " + theCapacity + " tiles");
+        }
+        myChannel = theChannel;
+        myWidth = theWidth;
+        myHeight = theHeight;
+        // a power of two of at least twice the capacity
+        final int bits = Integer.SIZE - Integer.numberOfLeadingZeros(theCapacity) + 1;
+        myTable = new AtomicReferenceArray<>(1 << bits);
+        myShift = Long.SIZE - bits;
+        myClock = new Tile[theCapacity];
+        myBuffer = ByteBuffer.allocate(TILE_SIZE / 2 + 1);
+        myHits = new LongAdder();
+    }
+
+    @Override
+    public int getWidth() {
+        return myWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return myHeight;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if the tile of the square cannot be read.
+     * @throws IllegalStateException if the square holds a code that is not in use.
+     */
+    @Override
+    public Terrain getTerrain(final int theX, final int theY) {
+        Objects.checkIndex(theX, myWidth);
+        Objects.checkIndex(theY, myHeight);
+        final long key = (long) (theY >>> TILE_BITS) << Integer.SIZE | theX >>> TILE_BITS;
+        Tile tile = find(key);
+        if (tile == null) {
+            tile = fetch(key);
+        } else {
+            tile.touch();
+            myHits.increment();
+        }
+        return TERRAINS[tile.mySquares[(theY & TILE_MASK) << TILE_BITS | theX & TILE_MASK]];
+    }
+
+    /**
+     * Closes the map file. Squares whose tile is in memory can still be read, but
+     * reading any other square throws an UncheckedIOException.
+     *
+     * @throws IOException if the file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        myChannel.close();
+    }
+
+    /**
+     * Returns the number of squares read from tiles already in memory.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return myHits.sum();
+    }
+
+    /**
+     * Returns the number of squares whose tile had to be loaded from the file.
+     *
+     * @return the number of misses, which is the number of tiles loaded.
+     */
+    public synchronized long getMisses() {
+        return myMisses;
+    }
+
+    /**
+     * Returns the number of tiles dropped from memory to make room for others.
+     *
+     * @return the number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return myEvictions;
+    }
+
+    /**
+     * Returns the number of tiles in memory.
+     *
+     * @return the number of tiles, at most the capacity.
+     */
+    public synchronized int getTileCount() {
+        return mySize;
+    }
+
+    /**
+     * Finds a tile in memory without taking the lock. A tile being moved by another
+     * thread may be missed, so null only means that the caller must look again while
+     * holding the lock.
+     *
+     * @param theKey the tile row and column.
+     * @return the tile, or null.
+     */
+    private Tile find(final long theKey) {
+        final int mask = myTable.length() - 1;
+        Tile result = null;
+        for (int i = slot(theKey); result == null; i = i + 1 & mask) {
+            final Tile tile = myTable.get(i);
+            if (tile == null) {
+                break;
+            }
+            if (tile.myKey == theKey) {
+                result = tile;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds a tile while holding the lock, loading it if it is not in memory and
+     * counting the hit or miss.
+     *
+     * @param theKey the tile row and column.
+     * @return the tile.
+     */
+    private synchronized Tile fetch(final long theKey) {
+        Tile result = find(theKey);
+        if (result == null) {
+            myMisses++;
+            result = new Tile(theKey, load((int) theKey, (int) (theKey >>> Integer.SIZE)));
+            if (mySize == myClock.length) {
+                evict();
+            } else {
+                mySize++;
+            }
+            myClock[myHand] = result;
+            myHand = (myHand + 1) % myClock.length;
+            final int mask = myTable.length() - 1;
+            int i = slot(theKey);
+            while (myTable.get(i) != null) {
+                i = i + 1 & mask;
+            }
+            myTable.set(i, result);
+        } else {
+            result.touch();
+            myHits.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Drops the first tile the clock hand finds unused since it last passed, leaving
+     * the hand on its place in myClock. Called only while holding the lock with
+     * every place in myClock filled.
+     */
+    private void evict() {
+        Tile victim = myClock[myHand];
+        while (victim.myUsed) {
+            victim.myUsed = false;
+            myHand = (myHand + 1) % myClock.length;
+            victim = myClock[myHand];
+        }
+        myEvictions++;
+
+        // remove the victim from the table, shifting back the tiles probed past it
+        final int mask = myTable.length() - 1;
+        int gap = slot(victim.myKey);
+        while (myTable.get(gap) != victim) {
+            gap = gap + 1 & mask;
+        }
+        for (int i = gap + 1 & mask; myTable.get(i) != null; i = i + 1 & mask) {
+            final Tile tile = myTable.get(i);
+            if ((i - slot(tile.myKey) & mask) >= (i - gap & mask)) {
+                myTable.set(gap, tile);
+                gap = i;
+            }
+        }
+        myTable.set(gap, null);
+    }
+
+    /**
+     * Returns the slot of myTable where the search for a tile starts.
+     *
+     * @param theKey the tile row and column.
+     * @return the index in myTable.
+     */
+    private int slot(final long theKey) {
+        return (int) (theKey * HASH_MULTIPLIER >>> myShift);
+    }
+
+    /**
+     * Reads a tile from the file, one row of squares at a time. Called only while
+     * holding the lock.
+     *
+     * @param theColumn the column of the tile.
+     * @param theRow the row of the tile.
+     * @return the Terrain ordinals of the tile.
+     * @throws UncheckedIOException if the file cannot be read.
+     */
+    private byte[] load(final int theColumn, final int theRow) {
+        final byte[] result = new byte[TILE_SIZE * TILE_SIZE];
+        final int left = theColumn << TILE_BITS;
+        final int top = theRow << TILE_BITS;
+        final int columns = Math.min(TILE_SIZE, myWidth - left);
+        final int rows = Math.min(TILE_SIZE, myHeight - top);
+        try {
+            for (int y = 0; y < rows; y++) {
+                final long first = (long) (top + y) * myWidth + left;
+                readBytes(first, columns);
+                for (int x = 0; x < columns; x++) {
+                    final long square = first + x;
+                    int code = myBuffer.get((int) ((square >>> 1) - (first >>> 1)));
+                    if ((square & 1) == 0) {
+                        code >>= BinaryMapFormat.CODE_BITS;
+                    }
+                    code &= BinaryMapFormat.CODE_MASK;
+                    final Terrain terrain = BinaryMapFormat.terrain(code);
+                    if (terrain == null) {
+                        throw new IllegalStateException("Corrupt binary map: terrain code "
+                                                        + code + " at row " + (top + y)
+                                                        + ", column " + (left + x));
+                    }
+                    result[y << TILE_BITS | x] = (byte) terrain.ordinal();
+                }
+            }
+        } catch (final IOException exception) {
+            throw new UncheckedIOException("Cannot read a tile of the map", exception);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the bytes holding a run of squares into myBuffer.
+     *
+     * @param theFirst the row-major index of the first square.
+     * @param theCount the number of squares.
+     * @throws IOException if the file cannot be read or ends too soon.
+     */
+    private void readBytes(final long theFirst, final int theCount) throws IOException {
+        final long start = theFirst >>> 1;
+        final long end = (theFirst + theCount - 1 >>> 1) + 1;
+        myBuffer.clear().limit((int) (end - start));
+        while (myBuffer.hasRemaining()) {
+            final int read = myChannel.read(myBuffer, BinaryMapFormat.TERRAIN_OFFSET
+                                                      + start + myBuffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of the map file");
+            }
+        }
+    }
+
+    /**
+     * A tile in memory.
+     */
+    private static final class Tile {
+
+        /**
+         * The tile row and column.
+         */
+        private final long myKey;
+
+        /**
+         * The Terrain ordinal of each square, in row-major order.
+         */
+        private final byte[] mySquares;
+
+        /**
+         * Whether the tile has been used since the clock hand last passed it. Set
+         * without the lock, so a mark may be lost to a race; that only makes the tile
+         * more likely to be dropped.
+         */
+        private boolean myUsed;
+
+        /**
+         * Creates a tile, marked as used.
+         *
+         * @param theKey the tile row and column.
+         * @param theSquares the Terrain ordinal of each square.
+         */
+        Tile(final long theKey, final byte[] theSquares) {
+            super();
+            myKey = theKey;
+            mySquares = theSquares;
+            myUsed = true;
+        }
+
+        /**
+         * Marks the tile as used, writing the mark only if it is not already set so
+         * that threads reading the same tile do not write to it.
+         */
+        void touch() {
+            if (!myUsed) {
+                myUsed = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,648 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.logic.VehicleDelta.Change;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.RandomSource;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * The parts of the RoadRage simulation shared by every engine: the terrain grid, the
+ * clock, the lights and the listeners. Subclasses decide how the vehicles are stored
+ * and moved each tick.
+ *
+ * <p>Listeners are informed through typed SimulationListener callbacks. Property
+ * Change Listeners are served by an adapter registered as the first
+ * SimulationListener, so they keep receiving the same properties.
+ *
+ * @author Charles Bryan
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public abstract class AbstractRoadRage implements PropertyChangeEnabledRoadRageControls {
+
+    /**
+     * The number of clock ticks between light changes.
+     */
+    private static final int LIGHT_CHANGE_TICKS = 15;
+
+    /**
+     * The terrain grid for the simulation.
+     */
+    private final TerrainGrid myGrid;
+
+    /**
+     * The current timestep of the simulation.
+     */
+    private long myTimestep;
+
+    /**
+     * The current status of lights.
+     */
+    private Light myLight;
+
+    /**
+     * The master seed for the vehicles' random streams.
+     */
+    private long mySeed;
+
+    /**
+     * The number of squares moved by all vehicles since the last reset.
+     */
+    private long myMoveCount;
+
+    /**
+     * The number of times two vehicles have met on a square since the last reset.
+     */
+    private long myCollisionCount;
+
+    /**
+     * The number of vehicles killed in collisions since the last reset.
+     */
+    private long myDeathCount;
+
+    /**
+     * Manager for Property Change Listeners.
+     */
+    private final PropertyChangeSupport myPcs;
+
+    /**
+     * The reusable view of the terrain around the vehicle being moved.
+     */
+    private final NeighborMap myNeighbors;
+
+    /**
+     * The changes made to vehicles during the current tick.
+     */
+    private final DeltaRecorder myDeltas;
+
+    /**
+     * The typed listeners, replaced as a whole whenever one is added or removed. The
+     * first is the adapter for the Property Change Listeners.
+     */
+    private volatile SimulationListener[] myListeners;
+
+    /**
+     * The adapter for the Property Change Listeners, the first of myListeners.
+     */
+    private final PropertyChangeAdapter myAdapter;
+
+    /**
+     * The view of the live simulation passed to onTick.
+     */
+    private final TickView myView;
+
+    /**
+     * Sets the initial state shared by every engine.
+     *
+     * @param theGrid the grid of Terrain that defines the map, which is read in place
+     */
+    protected AbstractRoadRage(final TerrainGrid theGrid) {
+        super();
+        myGrid = theGrid;
+        myPcs = new PropertyChangeSupport(this);
+        myNeighbors = new NeighborMap(myGrid);
+        myDeltas = new DeltaRecorder();
+        myAdapter = new PropertyChangeAdapter(myPcs, this);
+        myListeners = new SimulationListener[] {myAdapter};
+        myView = new LiveView();
+        mySeed = RandomSource.newSeed();
+    }
+
+    @Override
+    public void advance() {
+        final SimulationListener[] listeners = myListeners;
+        final Light oldLight = myLight;
+        myDeltas.begin(wantDeltas(listeners));
+        tick();
+        if (myLight != oldLight) {
+            fireLight(listeners);
+        }
+        fireTick(listeners);
+        if (myDeltas.isEnabled()) {
+            fireDelta(listeners, myDeltas.toDelta(myTimestep, publishedVehicles()));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>No listener is told about the ticks in between. When the last tick is done,
+     * listeners are told the new Light if it changed, the new time step and vehicles,
+     * a refresh VehicleDelta, and then, if any listener wants one, a RunStatistics
+     * summary of the simulation since the last reset.
+     */
+    @Override
+    public void advance(final long theTicks) {
+        if (theTicks < 0) {
+            throw new IllegalArgumentException("Cannot advance " + theTicks + " ticks");
+        }
+        final SimulationListener[] listeners = myListeners;
+        final Light oldLight = myLight;
+        myDeltas.begin(false);
+        for (long count = 0; count < theTicks; count++) {
+            tick();
+        }
+        if (myLight != oldLight) {
+            fireLight(listeners);
+        }
+        fireTick(listeners);
+        fireRefresh(listeners);
+        fireSummary(listeners);
+    }
+
+    @Override
+    public void start() {
+        reset();
+    }
+
+    @Override
+    public void reset() {
+        resetVehicles();
+        reseedVehicles();
+        myMoveCount = 0;
+        myCollisionCount = 0;
+        myDeathCount = 0;
+        myLight = Light.GREEN;
+        myTimestep = 0;
+        final SimulationListener[] listeners = myListeners;
+        for (final SimulationListener listener : listeners) {
+            listener.onGrid(myGrid);
+        }
+        fireLight(listeners);
+        fireTick(listeners);
+        fireRefresh(listeners);
+    }
+
+    @Override
+    public int getHeight() {
+        return myGrid.getHeight();
+    }
+
+    @Override
+    public int getWidth() {
+        return myGrid.getWidth();
+    }
+
+    /**
+     * Access the master seed for the vehicles' random streams. Without a call to 
+     * setSeed this is a different seed for every simulation, and can be passed to 
+     * setSeed to replay the run.
+     *
+     * @return the master seed
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Set the master seed for the vehicles' random streams and give every vehicle a
+     * fresh stream split from it, in vehicle order. Vehicles are also given fresh 
+     * streams from the same seed at every reset, so two simulations of the same map 
+     * with the same seed make the same random choices.
+     *
+     * @param theSeed the master seed
+     */
+    public void setSeed(final long theSeed) {
+        mySeed = theSeed;
+        reseedVehicles();
+    }
+
+    /**
+     * Access the number of vehicles in the simulation.
+     *
+     * @return the number of vehicles
+     */
+    public int getVehicleCount() {
+        return getVehicles().size();
+    }
+
+    /**
+     * Access the name of each vehicle in the simulation, given by its toString, in
+     * index order. A view can take the names once, before the simulation is handed to
+     * another thread, to label the vehicles of every TickView.
+     *
+     * @return the names of the vehicles
+     */
+    public List<String> getVehicleNames() {
+        final List<Vehicle> vehicles = getVehicles();
+        final String[] result = new String[vehicles.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = vehicles.get(i).toString();
+        }
+        return List.of(result);
+    }
+
+    /**
+     * Access the number of squares moved by all vehicles since the last reset.
+     *
+     * @return the number of vehicle moves
+     */
+    public long getMoveCount() {
+        return myMoveCount;
+    }
+
+
+    /**
+     * Access a view of the live state of the simulation, the same view passed to
+     * onTick. The view is not thread safe, and must only be read by the thread running
+     * the simulation, between ticks.
+     *
+     * @return the live view
+     */
+    public TickView getTickView() {
+        return myView;
+    }
+
+    /**
+     * Add a SimulationListener. The same listener may be added more than once, and
+     * will be called as many times as it is added. If the listener is null no action
+     * is taken.
+     *
+     * @param theListener The SimulationListener to be added
+     */
+    public synchronized void addSimulationListener(final SimulationListener theListener) {
+        if (theListener != null) {
+            final SimulationListener[] listeners =
+                Arrays.copyOf(myListeners, myListeners.length + 1);
+            listeners[listeners.length - 1] = theListener;
+            myListeners = listeners;
+        }
+    }
+
+    /**
+     * Remove one registration of a SimulationListener. If the listener is null or was
+     * never added no action is taken.
+     *
+     * @param theListener The SimulationListener to be removed
+     */
+    public synchronized void removeSimulationListener(final SimulationListener theListener) {
+        final SimulationListener[] listeners = myListeners;
+        // the Property Change adapter in slot 0 is never removed
+        for (int i = listeners.length - 1; i > 0; i--) {
+            if (listeners[i].equals(theListener)) {
+                final SimulationListener[] result =
+                    new SimulationListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, result, 0, i);
+                System.arraycopy(listeners, i + 1, result, i, result.length - i);
+                myListeners = result;
+                break;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void addPropertyChangeListener(
+        final PropertyChangeListener theListener) {
+        myPcs.addPropertyChangeListener(theListener);
+        myAdapter.listenersChanged();
+    }
+
+
+    @Override
+    public synchronized void removePropertyChangeListener(
+        final PropertyChangeListener theListener) {
+        myPcs.removePropertyChangeListener(theListener);
+        myAdapter.listenersChanged();
+    }
+
+    @Override
+    public synchronized void addPropertyChangeListener(
+        final String thePropertyName, final PropertyChangeListener theListener) {
+        myPcs.addPropertyChangeListener(thePropertyName, theListener);
+        myAdapter.listenersChanged();
+    }
+
+    @Override
+    public synchronized void removePropertyChangeListener(
+        final String thePropertyName, final PropertyChangeListener theListener) {
+        myPcs.removePropertyChangeListener(thePropertyName, theListener);
+        myAdapter.listenersChanged();
+    }
+
+    /**
+     * Moves every vehicle once and checks collisions, for one tick of the simulation.
+     */
+    protected abstract void moveVehicles();
+
+    /**
+     * Reset all of the vehicles to their original state.
+     */
+    protected abstract void resetVehicles();
+
+    /**
+     * Access the vehicles in the order they are moved.
+     *
+     * @return the vehicles
+     */
+    protected abstract List<Vehicle> getVehicles();
+
+    /**
+     * Access the current status of lights.
+     *
+     * @return the current Light
+     */
+    protected final Light getLight() {
+        return myLight;
+    }
+
+    /**
+     * Access the number of times two vehicles have met on a square since the last
+     * reset.
+     *
+     * @return the number of collisions
+     */
+    public long getCollisionCount() {
+        return myCollisionCount;
+    }
+
+    /**
+     * Access the number of vehicles killed in collisions since the last reset.
+     *
+     * @return the number of deaths
+     */
+    public long getDeathCount() {
+        return myDeathCount;
+    }
+
+    /**
+     * Access the number of vehicles that are currently alive.
+     *
+     * @return the number of living vehicles
+     */
+    public int getLivingCount() {
+        int result = 0;
+        for (final Vehicle v : getVehicles()) {
+            if (v.isAlive()) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tells two vehicles on the same square that they have collided, and counts and
+     * records the collision and any vehicle it kills.
+     *
+     * @param theMover The index of the vehicle that moved onto the square.
+     * @param theOther The index of the vehicle it met there.
+     */
+    protected final void collide(final int theMover, final int theOther) {
+        final Vehicle mover = getVehicles().get(theMover);
+        final Vehicle other = getVehicles().get(theOther);
+        final boolean moverWasAlive = mover.isAlive();
+        final boolean otherWasAlive = other.isAlive();
+        mover.collide(other);
+        other.collide(mover);
+        myCollisionCount++;
+        final int x = mover.getX();
+        final int y = mover.getY();
+        myDeltas.record(theMover, Change.COLLIDED, x, y, x, y);
+        myDeltas.record(theOther, Change.COLLIDED, x, y, x, y);
+        if (moverWasAlive && !mover.isAlive()) {
+            myDeathCount++;
+            myDeltas.record(theMover, Change.DIED, x, y, x, y);
+        }
+        if (otherWasAlive && !other.isAlive()) {
+            myDeathCount++;
+            myDeltas.record(theOther, Change.DIED, x, y, x, y);
+        }
+    }
+
+    /**
+     * Counts and records a vehicle's move of one square.
+     *
+     * @param theIndex The index of the vehicle.
+     * @param theOldX The x position it moved from.
+     * @param theOldY The y position it moved from.
+     * @param theNewX The x position it moved to.
+     * @param theNewY The y position it moved to.
+     */
+    protected final void recordMove(final int theIndex, final int theOldX, final int theOldY,
+                                    final int theNewX, final int theNewY) {
+        myMoveCount++;
+        myDeltas.record(theIndex, Change.MOVED, theOldX, theOldY, theNewX, theNewY);
+    }
+
+    /**
+     * Records that a vehicle has come back to life.
+     *
+     * @param theIndex The index of the vehicle.
+     * @param theX The x position of the vehicle.
+     * @param theY The y position of the vehicle.
+     */
+    protected final void recordRevival(final int theIndex, final int theX, final int theY) {
+        myDeltas.record(theIndex, Change.REVIVED, theX, theY, theX, theY);
+    }
+
+    /**
+     * Generates a read-only neighbors map for the given square. The same map
+     * is reused for every call, so it is only valid until the next call.
+     *
+     * @param theX The x position.
+     * @param theY The y position.
+     * @return The neighbors map.
+     */
+    protected final Map<Direction, Terrain> generateNeighbors(final int theX, final int theY) {
+        return myNeighbors.moveTo(theX, theY);
+    }
+
+    /**
+     * Creates a neighbors map of its own over the terrain grid, for code that looks
+     * up neighbors on more than one thread.
+     *
+     * @return a new neighbors map.
+     */
+    protected final NeighborMap createNeighborMap() {
+        return new NeighborMap(myGrid);
+    }
+
+    /**
+     * Gives each vehicle its own random stream split from the master seed.
+     */
+    private void reseedVehicles() {
+        final RandomSource source = new RandomSource(mySeed);
+        for (final Vehicle v : getVehicles()) {
+            v.setRandom(source.split());
+        }
+    }
+
+    /**
+     * Moves the vehicles and advances the clock and the lights by one tick, without
+     * informing any listener.
+     */
+    private void tick() {
+        moveVehicles();
+        myTimestep++;
+        if (myTimestep % LIGHT_CHANGE_TICKS == 0) {
+            myLight = myLight.advance();
+        }
+    }
+
+    /**
+     * Returns whether any of the listeners wants VehicleDeltas.
+     *
+     * @param theListeners the listeners.
+     * @return true if a delta should be recorded.
+     */
+    private static boolean wantDeltas(final SimulationListener[] theListeners) {
+        boolean result = false;
+        for (final SimulationListener listener : theListeners) {
+            if (listener.wantsDeltas()) {
+                result = true;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Inform listeners of the current Light.
+     *
+     * @param theListeners the listeners.
+     */
+    private void fireLight(final SimulationListener[] theListeners) {
+        for (final SimulationListener listener : theListeners) {
+            listener.onLight(myLight);
+        }
+    }
+
+    /**
+     * Inform listeners of the current time step and state.
+     *
+     * @param theListeners the listeners.
+     */
+    private void fireTick(final SimulationListener[] theListeners) {
+        for (final SimulationListener listener : theListeners) {
+            listener.onTick(myTimestep, myView);
+        }
+    }
+
+    /**
+     * Inform the listeners that want deltas of the changes made by a tick.
+     *
+     * @param theListeners the listeners.
+     * @param theDelta the changes.
+     */
+    private static void fireDelta(final SimulationListener[] theListeners,
+                                  final VehicleDelta theDelta) {
+        for (final SimulationListener listener : theListeners) {
+            if (listener.wantsDeltas()) {
+                listener.onDelta(theDelta);
+            }
+        }
+    }
+
+    /**
+     * Inform the listeners that want summaries of the statistics since the last
+     * reset. The summary is only built if one of them wants it.
+     *
+     * @param theListeners the listeners.
+     */
+    private void fireSummary(final SimulationListener[] theListeners) {
+        RunStatistics summary = null;
+        for (final SimulationListener listener : theListeners) {
+            if (listener.wantsSummary()) {
+                if (summary == null) {
+                    summary = new RunStatistics(this, myTimestep);
+                }
+                listener.onSummary(summary);
+            }
+        }
+    }
+
+    /**
+     * Inform the listeners that want deltas that every vehicle must be read again.
+     *
+     * @param theListeners the listeners.
+     */
+    private void fireRefresh(final SimulationListener[] theListeners) {
+        if (wantDeltas(theListeners)) {
+            fireDelta(theListeners, DeltaRecorder.refresh(myTimestep, publishedVehicles()));
+        }
+    }
+
+    /**
+     * Access a read-only view of the live vehicles, for VehicleDeltas to refer to.
+     *
+     * @return the vehicles
+     */
+    private List<Vehicle> publishedVehicles() {
+        return Collections.unmodifiableList(getVehicles());
+    }
+
+    /**
+     * The TickView of the live simulation, reading the vehicles in place.
+     */
+    private final class LiveView implements TickView {
+
+        @Override
+        public long getTimestep() {
+            return myTimestep;
+        }
+
+        @Override
+        public Light getLight() {
+            return myLight;
+        }
+
+        @Override
+        public int getVehicleCount() {
+            return getVehicles().size();
+        }
+
+        @Override
+        public VehicleType getType(final int theIndex) {
+            return VehicleType.of(getVehicles().get(theIndex));
+        }
+
+        @Override
+        public int getX(final int theIndex) {
+            return getVehicles().get(theIndex).getX();
+        }
+
+        @Override
+        public int getY(final int theIndex) {
+            return getVehicles().get(theIndex).getY();
+        }
+
+        @Override
+        public Direction getDirection(final int theIndex) {
+            return getVehicles().get(theIndex).getDirection();
+        }
+
+        @Override
+        public boolean isAlive(final int theIndex) {
+            return getVehicles().get(theIndex).isAlive();
+        }
+
+        @Override
+        public long getMoveCount() {
+            return myMoveCount;
+        }
+
+        @Override
+        public long getCollisionCount() {
+            return myCollisionCount;
+        }
+
+        @Override
+        public long getDeathCount() {
+            return myDeathCount;
+        }
+    }
+}
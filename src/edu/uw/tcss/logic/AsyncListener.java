@@ -0,0 +1,238 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.TerrainGrid;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A SimulationListener that passes ticks on to another listener asynchronously, so a
+ * slow listener never holds up the simulation. Each sampled tick is copied into a
+ * TickSnapshot and left in a single-slot mailbox; a newer snapshot replaces one that
+ * has not been delivered yet, so the target always receives the latest state and
+ * the simulation never waits for it.
+ *
+ * <p>The target is called on an Executor, which must run tasks one at a time in the
+ * order they are submitted, such as EventQueue::invokeLater for a Swing component.
+ * onGrid and onSummary are delivered in order and never dropped. The target's onLight
+ * is called before a delivered tick whenever its Light differs from the last one
+ * delivered, and before the first tick after each onGrid. Deltas are not delivered,
+ * because they cannot be skipped.
+ *
+ * <p>Each reset starts a new epoch, and every snapshot is stamped with the epoch it
+ * was taken in. A delivery queued before a reset may run after it and find a snapshot
+ * of the new epoch in the mailbox; that snapshot is left for the delivery that
+ * follows the target's onGrid, so the target never sees a tick of a grid it has not
+ * been given.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class AsyncListener implements SimulationListener {
+
+    /**
+     * The listener the ticks are delivered to.
+     */
+    private final SimulationListener myTarget;
+
+    /**
+     * The executor that calls the target.
+     */
+    private final Executor myExecutor;
+
+    /**
+     * The number of ticks between samples.
+     */
+    private final long mySampleTicks;
+
+    /**
+     * The latest snapshot not yet delivered, or null.
+     */
+    private final AtomicReference<Sample> myMailbox;
+
+    /**
+     * The number of snapshots delivered to the target.
+     */
+    private final AtomicLong myDelivered;
+
+    /**
+     * The number of snapshots replaced before they were delivered.
+     */
+    private final AtomicLong myDropped;
+
+    /**
+     * The time step last sampled. Used only by the simulation's thread.
+     */
+    private long myLastSample;
+
+    /**
+     * The number of resets seen. Used only by the simulation's thread.
+     */
+    private long myEpoch;
+
+    /**
+     * The epoch of the last onGrid delivered to the target. Used only by the executor.
+     */
+    private long myDeliveredEpoch;
+
+    /**
+     * The Light last delivered. Used only by the executor.
+     */
+    private Light myLastLight;
+
+    /**
+     * Creates a listener that delivers every tick to a target on its own daemon
+     * thread.
+     *
+     * @param theTarget the listener to deliver to.
+     */
+    public AsyncListener(final SimulationListener theTarget) {
+        this(theTarget, Executors.newSingleThreadExecutor(theTask -> {
+            final Thread thread = new Thread(theTask, "Road Rage listener");
+            thread.setDaemon(true);
+            return thread;
+        }), 1);
+    }
+
+    /**
+     * Creates a listener that delivers a sample of the ticks to a target on an
+     * executor. A tick is sampled when at least the given number of ticks have passed
+     * since the last sample, and the first tick after a reset is always sampled.
+     *
+     * @param theTarget the listener to deliver to.
+     * @param theExecutor the executor that calls the target, one task at a time.
+     * @param theSampleTicks the number of ticks between samples.
+     * @throws IllegalArgumentException if theSampleTicks is less than 1
+     */
+    public AsyncListener(final SimulationListener theTarget, final Executor theExecutor,
+                         final long theSampleTicks) {
+        super();
+        if (theSampleTicks < 1) {
+            throw new IllegalArgumentException("Cannot sample every " + theSampleTicks
+                                               + " ticks");
+        }
+        myTarget = theTarget;
+        myExecutor = theExecutor;
+        mySampleTicks = theSampleTicks;
+        myMailbox = new AtomicReference<>();
+        myDelivered = new AtomicLong();
+        myDropped = new AtomicLong();
+        myLastSample = -theSampleTicks;
+    }
+
+    @Override
+    public void onGrid(final TerrainGrid theGrid) {
+        // ticks sampled before the reset are stale
+        myLastSample = -mySampleTicks;
+        if (myMailbox.getAndSet(null) != null) {
+            myDropped.incrementAndGet();
+        }
+        myEpoch++;
+        final long epoch = myEpoch;
+        myExecutor.execute(() -> {
+            myDeliveredEpoch = epoch;
+            myLastLight = null;
+            myTarget.onGrid(theGrid);
+            // a sample held back by an earlier delivery
+            deliver();
+        });
+    }
+
+    @Override
+    public void onTick(final long theTimestep, final TickView theView) {
+        if (theTimestep - myLastSample >= mySampleTicks) {
+            myLastSample = theTimestep;
+            final Sample sample = new Sample(myEpoch, new TickSnapshot(theView));
+            if (myMailbox.getAndSet(sample) == null) {
+                myExecutor.execute(this::deliver);
+            } else {
+                myDropped.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public void onSummary(final RunStatistics theSummary) {
+        myExecutor.execute(() -> myTarget.onSummary(theSummary));
+    }
+
+    @Override
+    public boolean wantsSummary() {
+        return myTarget.wantsSummary();
+    }
+
+    /**
+     * Returns the number of snapshots delivered to the target.
+     *
+     * @return the number of deliveries.
+     */
+    public long getDeliveredCount() {
+        return myDelivered.get();
+    }
+
+    /**
+     * Returns the number of snapshots replaced by a newer one before they were
+     * delivered.
+     *
+     * @return the number of dropped snapshots.
+     */
+    public long getDroppedCount() {
+        return myDropped.get();
+    }
+
+    /**
+     * Delivers the snapshot in the mailbox, if there is one, on the executor. A
+     * snapshot taken after a reset whose onGrid has not been delivered yet is put
+     * back, unless a newer one has taken its place.
+     */
+    private void deliver() {
+        final Sample sample = myMailbox.getAndSet(null);
+        if (sample != null && sample.myEpoch != myDeliveredEpoch) {
+            if (!myMailbox.compareAndSet(null, sample)) {
+                myDropped.incrementAndGet();
+            }
+        } else if (sample != null) {
+            final TickSnapshot snapshot = sample.mySnapshot;
+            if (snapshot.getLight() != myLastLight) {
+                myLastLight = snapshot.getLight();
+                myTarget.onLight(myLastLight);
+            }
+            myDelivered.incrementAndGet();
+            myTarget.onTick(snapshot.getTimestep(), snapshot);
+        }
+    }
+
+    /**
+     * A snapshot and the epoch it was taken in.
+     */
+    private static final class Sample {
+
+        /**
+         * The epoch the snapshot was taken in.
+         */
+        private final long myEpoch;
+
+        /**
+         * The snapshot.
+         */
+        private final TickSnapshot mySnapshot;
+
+        /**
+         * Creates a sample.
+         *
+         * @param theEpoch the epoch the snapshot was taken in.
+         * @param theSnapshot the snapshot.
+         */
+        Sample(final long theEpoch, final TickSnapshot theSnapshot) {
+            super();
+            myEpoch = theEpoch;
+            mySnapshot = theSnapshot;
+        }
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.logic.RunStatistics.Measure;
+import java.util.Locale;
+
+/**
+ * Aggregate statistics over many simulation runs: the mean, standard deviation,
+ * minimum and maximum of each Measure. The mean and variance are updated one run at
+ * a time with Welford's algorithm, which keeps their precision over any number of
+ * runs.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class BatchStatistics {
+
+    /**
+     * The number of runs added.
+     */
+    private long myRuns;
+
+    /**
+     * The mean of each Measure so far, indexed by ordinal.
+     */
+    private final double[] myMeans;
+
+    /**
+     * The sum of the squared differences of each Measure from its mean so far,
+     * indexed by ordinal.
+     */
+    private final double[] myDeviations;
+
+    /**
+     * The smallest value of each Measure, indexed by ordinal.
+     */
+    private final long[] myMins;
+
+    /**
+     * The largest value of each Measure, indexed by ordinal.
+     */
+    private final long[] myMaxes;
+
+    /**
+     * Creates statistics over no runs.
+     */
+    public BatchStatistics() {
+        super();
+        final int count = Measure.values().length;
+        myMeans = new double[count];
+        myDeviations = new double[count];
+        myMins = new long[count];
+        myMaxes = new long[count];
+    }
+
+    /**
+     * Adds the results of one run.
+     *
+     * @param theRun the results of the run.
+     */
+    public void add(final RunStatistics theRun) {
+        final long runs = myRuns + 1;
+        for (final Measure measure : Measure.values()) {
+            final int i = measure.ordinal();
+            final long value = theRun.get(measure);
+            if (myRuns == 0 || value < myMins[i]) {
+                myMins[i] = value;
+            }
+            if (myRuns == 0 || value > myMaxes[i]) {
+                myMaxes[i] = value;
+            }
+            final double delta = value - myMeans[i];
+            myMeans[i] += delta / runs;
+            myDeviations[i] += delta * (value - myMeans[i]);
+        }
+        myRuns = runs;
+    }
+
+    /**
+     * Returns the number of runs added.
+     *
+     * @return the number of runs.
+     */
+    public long getRuns() {
+        return myRuns;
+    }
+
+    /**
+     * Returns the mean of a measure over all runs.
+     *
+     * @param theMeasure the measure.
+     * @return the mean, or 0 if there are no runs.
+     */
+    public double getMean(final Measure theMeasure) {
+        return myMeans[theMeasure.ordinal()];
+    }
+
+    /**
+     * Returns the sample standard deviation of a measure over all runs.
+     *
+     * @param theMeasure the measure.
+     * @return the standard deviation, or 0 if there are fewer than two runs.
+     */
+    public double getStandardDeviation(final Measure theMeasure) {
+        double result = 0;
+        if (myRuns > 1) {
+            result = Math.sqrt(myDeviations[theMeasure.ordinal()] / (myRuns - 1));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the smallest value of a measure over all runs.
+     *
+     * @param theMeasure the measure.
+     * @return the minimum, or 0 if there are no runs.
+     */
+    public long getMin(final Measure theMeasure) {
+        return myMins[theMeasure.ordinal()];
+    }
+
+    /**
+     * Returns the largest value of a measure over all runs.
+     *
+     * @param theMeasure the measure.
+     * @return the maximum, or 0 if there are no runs.
+     */
+    public long getMax(final Measure theMeasure) {
+        return myMaxes[theMeasure.ordinal()];
+    }
+
+    /**
+     * Returns a table with one line per Measure.
+     *
+     * @return a String representation of these statistics.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%d runs%n", myRuns));
+        sb.append(String.format(Locale.ROOT, "%-12s %14s %14s %12s %12s%n",
+                                "measure", "mean", "std dev", "min", "max"));
+        for (final Measure measure : Measure.values()) {
+            sb.append(String.format(Locale.ROOT, "%-12s %14.3f %14.3f %12d %12d%n",
+                                    measure.name().toLowerCase(Locale.ROOT),
+                                    getMean(measure), getStandardDeviation(measure),
+                                    getMin(measure), getMax(measure)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import java.util.Arrays;
+
+/**
+ * A spatial hash of vehicle indices keyed on grid coordinates. Each bucket holds
+ * the indices of the vehicles hashed to it in ascending order, so walking a bucket
+ * visits candidates in the same order as walking the vehicle list. Different squares
+ * may share a bucket, so callers must still compare coordinates.
+ *
+ * <p>The table is sized from the number of vehicles rather than the size of the map,
+ * and coordinates that fall outside the map are hashed like any other.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class CellIndex {
+
+    /**
+     * The marker for the end of a bucket.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * The smallest number of buckets in the table.
+     */
+    private static final int MIN_BUCKETS = 16;
+
+    /**
+     * A multiplier used to spread the y coordinate across the hash.
+     */
+    private static final int Y_MULTIPLIER = 0x9E3779B1;
+
+    /**
+     * The head vehicle index of each bucket.
+     */
+    private final int[] myHeads;
+
+    /**
+     * The next vehicle index in the same bucket, for each vehicle.
+     */
+    private final int[] myNext;
+
+    /**
+     * The bucket each vehicle is currently filed under, or NONE.
+     */
+    private final int[] myBuckets;
+
+    /**
+     * The mask used to reduce a hash to a bucket.
+     */
+    private final int myMask;
+
+    /**
+     * Creates an empty index able to hold the given number of vehicles.
+     *
+     * @param theCapacity the number of vehicles that will be indexed.
+     */
+    public CellIndex(final int theCapacity) {
+        super();
+        if (theCapacity < 0) {
+            throw new IllegalArgumentException();
+        }
+        int buckets = MIN_BUCKETS;
+        while (buckets < theCapacity * 2) {
+            buckets <<= 1;
+        }
+        myHeads = new int[buckets];
+        myMask = buckets - 1;
+        myNext = new int[theCapacity];
+        myBuckets = new int[theCapacity];
+        clear();
+    }
+
+    /**
+     * Removes every vehicle from the index.
+     */
+    public void clear() {
+        Arrays.fill(myHeads, NONE);
+        Arrays.fill(myNext, NONE);
+        Arrays.fill(myBuckets, NONE);
+    }
+
+    /**
+     * Files the vehicle with the given index under the given square. A vehicle that
+     * is already in the index is moved.
+     *
+     * @param theIndex the index of the vehicle.
+     * @param theX the x coordinate of the square.
+     * @param theY the y coordinate of the square.
+     */
+    public void put(final int theIndex, final int theX, final int theY) {
+        final int bucket = bucketOf(theX, theY);
+        if (myBuckets[theIndex] == bucket) {
+            return;
+        }
+        if (myBuckets[theIndex] != NONE) {
+            unlink(theIndex);
+        }
+        int previous = NONE;
+        int current = myHeads[bucket];
+        while (current != NONE && current < theIndex) {
+            previous = current;
+            current = myNext[current];
+        }
+        myNext[theIndex] = current;
+        if (previous == NONE) {
+            myHeads[bucket] = theIndex;
+        } else {
+            myNext[previous] = theIndex;
+        }
+        myBuckets[theIndex] = bucket;
+    }
+
+    /**
+     * Returns the lowest vehicle index that may be on the given square.
+     *
+     * @param theX the x coordinate of the square.
+     * @param theY the y coordinate of the square.
+     * @return the first candidate vehicle index, or NONE if there are none.
+     */
+    public int first(final int theX, final int theY) {
+        return myHeads[bucketOf(theX, theY)];
+    }
+
+    /**
+     * Returns the next candidate after the given vehicle index in the same bucket.
+     *
+     * @param theIndex the current candidate.
+     * @return the next candidate vehicle index, or NONE if there are no more.
+     */
+    public int next(final int theIndex) {
+        return myNext[theIndex];
+    }
+
+    /**
+     * Removes the vehicle with the given index from its bucket.
+     *
+     * @param theIndex the index of the vehicle.
+     */
+    private void unlink(final int theIndex) {
+        final int bucket = myBuckets[theIndex];
+        if (myHeads[bucket] == theIndex) {
+            myHeads[bucket] = myNext[theIndex];
+        } else {
+            int current = myHeads[bucket];
+            while (myNext[current] != theIndex) {
+                current = myNext[current];
+            }
+            myNext[current] = myNext[theIndex];
+        }
+        myNext[theIndex] = NONE;
+        myBuckets[theIndex] = NONE;
+    }
+
+    /**
+     * Hashes a square to a bucket.
+     *
+     * @param theX the x coordinate of the square.
+     * @param theY the y coordinate of the square.
+     * @return the bucket for the square.
+     */
+    private int bucketOf(final int theX, final int theY) {
+        final int hash = theX ^ theY * Y_MULTIPLIER;
+        return (hash ^ hash >>> 16) & myMask;
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+/**
+ * The strategies available for finding vehicles that share a square after a move.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public enum CollisionDetection {
+
+    /**
+     * Compare the moved vehicle against every other vehicle in the simulation.
+     */
+    PAIRWISE,
+
+    /**
+     * Compare the moved vehicle only against vehicles indexed under the same square.
+     */
+    CELL_INDEX
+}
@@ -0,0 +1,163 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.logic.VehicleDelta.Change;
+import edu.uw.tcss.model.Vehicle;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Collects the changes made during a tick into growable parallel arrays, which are
+ * reused from tick to tick. Recording does nothing while the recorder is disabled.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class DeltaRecorder {
+
+    /**
+     * The number of entries room is made for at first.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Whether changes are being recorded.
+     */
+    private boolean myEnabled;
+
+    /**
+     * The number of entries recorded.
+     */
+    private int mySize;
+
+    /**
+     * The vehicle index of each entry.
+     */
+    private int[] myIndexes;
+
+    /**
+     * The Change of each entry.
+     */
+    private Change[] myChanges;
+
+    /**
+     * The x-coordinate of each entry's vehicle before the change.
+     */
+    private int[] myOldX;
+
+    /**
+     * The y-coordinate of each entry's vehicle before the change.
+     */
+    private int[] myOldY;
+
+    /**
+     * The x-coordinate of each entry's vehicle after the change.
+     */
+    private int[] myNewX;
+
+    /**
+     * The y-coordinate of each entry's vehicle after the change.
+     */
+    private int[] myNewY;
+
+    /**
+     * Creates an empty, disabled recorder.
+     */
+    DeltaRecorder() {
+        super();
+        myIndexes = new int[INITIAL_CAPACITY];
+        myChanges = new Change[INITIAL_CAPACITY];
+        myOldX = new int[INITIAL_CAPACITY];
+        myOldY = new int[INITIAL_CAPACITY];
+        myNewX = new int[INITIAL_CAPACITY];
+        myNewY = new int[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Discards the recorded entries and chooses whether to record the next ones.
+     *
+     * @param theEnabled whether changes should be recorded.
+     */
+    void begin(final boolean theEnabled) {
+        myEnabled = theEnabled;
+        mySize = 0;
+    }
+
+    /**
+     * Returns whether changes are being recorded.
+     *
+     * @return true if changes are being recorded.
+     */
+    boolean isEnabled() {
+        return myEnabled;
+    }
+
+    /**
+     * Records one change, if recording is enabled.
+     *
+     * @param theIndex the vehicle index.
+     * @param theChange the kind of change.
+     * @param theOldX the x-coordinate before the change.
+     * @param theOldY the y-coordinate before the change.
+     * @param theNewX the x-coordinate after the change.
+     * @param theNewY the y-coordinate after the change.
+     */
+    void record(final int theIndex, final Change theChange, final int theOldX,
+                final int theOldY, final int theNewX, final int theNewY) {
+        if (myEnabled) {
+            if (mySize == myIndexes.length) {
+                grow();
+            }
+            myIndexes[mySize] = theIndex;
+            myChanges[mySize] = theChange;
+            myOldX[mySize] = theOldX;
+            myOldY[mySize] = theOldY;
+            myNewX[mySize] = theNewX;
+            myNewY[mySize] = theNewY;
+            mySize++;
+        }
+    }
+
+    /**
+     * Copies the recorded entries into a new VehicleDelta.
+     *
+     * @param theTimestep the time step at the end of the changes.
+     * @param theVehicles the vehicles the entries refer to.
+     * @return the delta.
+     */
+    VehicleDelta toDelta(final long theTimestep, final List<Vehicle> theVehicles) {
+        return new VehicleDelta(theTimestep, false, theVehicles,
+                                Arrays.copyOf(myIndexes, mySize),
+                                Arrays.copyOf(myChanges, mySize),
+                                Arrays.copyOf(myOldX, mySize), Arrays.copyOf(myOldY, mySize),
+                                Arrays.copyOf(myNewX, mySize), Arrays.copyOf(myNewY, mySize));
+    }
+
+    /**
+     * Creates a refresh VehicleDelta, which lists no changes.
+     *
+     * @param theTimestep the current time step.
+     * @param theVehicles the vehicles to be read again.
+     * @return the delta.
+     */
+    static VehicleDelta refresh(final long theTimestep, final List<Vehicle> theVehicles) {
+        return new VehicleDelta(theTimestep, true, theVehicles, new int[0], new Change[0],
+                                new int[0], new int[0], new int[0], new int[0]);
+    }
+
+    /**
+     * Doubles the room for entries.
+     */
+    private void grow() {
+        final int capacity = myIndexes.length * 2;
+        myIndexes = Arrays.copyOf(myIndexes, capacity);
+        myChanges = Arrays.copyOf(myChanges, capacity);
+        myOldX = Arrays.copyOf(myOldX, capacity);
+        myOldY = Arrays.copyOf(myOldY, capacity);
+        myNewX = Arrays.copyOf(myNewX, capacity);
+        myNewY = Arrays.copyOf(myNewY, capacity);
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A reusable, read-only map of the Terrain surrounding one square of the grid. The
+ * map reads the grid directly and looks up each Direction only when it is first
+ * asked for, so vehicles that check three Directions never pay for the fourth.
+ * Directions that lead off the grid are not keys of the map, matching the maps
+ * handed to Vehicle.chooseDirection before this class existed.
+ *
+ * <p>The same instance is moved from square to square by the simulation, so a
+ * Vehicle must not hold on to it after chooseDirection returns.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class NeighborMap extends AbstractMap<Direction, Terrain> {
+
+    /**
+     * The Directions, indexed by ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The terrain grid the map reads from.
+     */
+    private final TerrainGrid myGrid;
+
+    /**
+     * The neighboring Terrain looked up so far, indexed by Direction ordinal.
+     */
+    private final Terrain[] myNeighbors;
+
+    /**
+     * A bit for each Direction ordinal that has been looked up at this square.
+     */
+    private int myLookedUp;
+
+    /**
+     * The x coordinate of the center square.
+     */
+    private int myX;
+
+    /**
+     * The y coordinate of the center square.
+     */
+    private int myY;
+
+    /**
+     * Creates a neighbor map over a copy of the given grid.
+     *
+     * @param theGrid the terrain grid to read from.
+     */
+    public NeighborMap(final Terrain[][] theGrid) {
+        this(TerrainGrid.of(theGrid));
+    }
+
+    /**
+     * Creates a neighbor map over the given grid.
+     *
+     * @param theGrid the terrain grid to read from.
+     */
+    public NeighborMap(final TerrainGrid theGrid) {
+        super();
+        myGrid = theGrid;
+        myNeighbors = new Terrain[DIRECTIONS.length];
+    }
+
+    /**
+     * Centers this map on a new square, forgetting the Terrain looked up so far.
+     *
+     * @param theX the x coordinate of the square.
+     * @param theY the y coordinate of the square.
+     * @return this map.
+     */
+    public NeighborMap moveTo(final int theX, final int theY) {
+        myX = theX;
+        myY = theY;
+        myLookedUp = 0;
+        return this;
+    }
+
+    @Override
+    public Terrain get(final Object theKey) {
+        Terrain result = null;
+        if (theKey instanceof Direction) {
+            result = lookUp(((Direction) theKey).ordinal());
+        }
+        return result;
+    }
+
+    @Override
+    public boolean containsKey(final Object theKey) {
+        return get(theKey) != null;
+    }
+
+    @Override
+    public int size() {
+        int result = 0;
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if (lookUp(i) != null) {
+                result++;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public Set<Map.Entry<Direction, Terrain>> entrySet() {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            lookUp(i);
+        }
+        return new EntrySet(myNeighbors.clone());
+    }
+
+    /**
+     * Returns the Terrain in the Direction with the given ordinal, looking it up in
+     * the grid the first time it is asked for at this square.
+     *
+     * @param theOrdinal the ordinal of the Direction.
+     * @return the Terrain, or null if the Direction leads off the grid.
+     */
+    private Terrain lookUp(final int theOrdinal) {
+        final int bit = 1 << theOrdinal;
+        if ((myLookedUp & bit) == 0) {
+            final int x = myX + DIRECTIONS[theOrdinal].dx();
+            final int y = myY + DIRECTIONS[theOrdinal].dy();
+            if (myGrid.contains(x, y)) {
+                myNeighbors[theOrdinal] = myGrid.getTerrain(x, y);
+            } else {
+                myNeighbors[theOrdinal] = null;
+            }
+            myLookedUp |= bit;
+        }
+        return myNeighbors[theOrdinal];
+    }
+
+    /**
+     * A fixed set of entries copied out of the map, so that it stays valid after the
+     * map moves to another square.
+     */
+    private static final class EntrySet extends AbstractSet<Map.Entry<Direction, Terrain>> {
+
+        /**
+         * The neighboring Terrain, indexed by Direction ordinal.
+         */
+        private final Terrain[] myTerrain;
+
+        /**
+         * Creates an entry set over a copy of the neighbors.
+         *
+         * @param theTerrain the neighboring Terrain, indexed by Direction ordinal.
+         */
+        EntrySet(final Terrain[] theTerrain) {
+            super();
+            myTerrain = theTerrain;
+        }
+
+        @Override
+        public Iterator<Map.Entry<Direction, Terrain>> iterator() {
+            return new Iterator<>() {
+                /** The ordinal of the next entry to return. */
+                private int myNext = skipMissing(0);
+
+                @Override
+                public boolean hasNext() {
+                    return myNext < myTerrain.length;
+                }
+
+                @Override
+                public Map.Entry<Direction, Terrain> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final Map.Entry<Direction, Terrain> result =
+                        new SimpleImmutableEntry<>(DIRECTIONS[myNext], myTerrain[myNext]);
+                    myNext = skipMissing(myNext + 1);
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int result = 0;
+            for (final Terrain terrain : myTerrain) {
+                if (terrain != null) {
+                    result++;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Finds the first ordinal at or after the given one that has Terrain.
+         *
+         * @param theOrdinal the ordinal to start at.
+         * @return the ordinal found, or the number of Directions if there is none.
+         */
+        private int skipMissing(final int theOrdinal) {
+            int result = theOrdinal;
+            while (result < myTerrain.length && myTerrain[result] == null) {
+                result++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.AbstractVehicle;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleStore;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+
+/**
+ * A RoadRage simulation that keeps the position, direction, death counter and type of
+ * every vehicle in one VehicleStore. The vehicles handed to the constructor are
+ * attached to the store and become views over it, so each tick walks parallel
+ * primitive arrays and only visits a vehicle object to let a living vehicle choose
+ * its direction, or when two vehicles share a square.
+ *
+ * <p>By default vehicles are moved in list order and collisions are found with a
+ * CellIndex, so a PackedRoadRage produces the same ticks as a RoadRage given the same
+ * vehicles. With a positive parallelism the engine instead runs a double-buffered
+ * tick: every living vehicle chooses its move from the state left by the previous
+ * tick, split across a ForkJoinPool, and the moves are then applied and collisions
+ * resolved in slot order on the calling thread. Because no vehicle sees another's
+ * move until the resolution phase, the results are the same for every thread count,
+ * though not the same as the sequential tick. The workers are shut down by close, or
+ * by setting the parallelism back to 0, once the simulation is no longer run.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class PackedRoadRage extends AbstractRoadRage implements AutoCloseable {
+
+    /**
+     * The most vehicles decided by one task of a double-buffered tick; a larger range
+     * is split in half across the workers.
+     */
+    private static final int SLOTS_PER_TASK = 2048;
+
+    /**
+     * The vehicles, indexed by their slot in the store.
+     */
+    private final Vehicle[] myVehicles;
+
+    /**
+     * A read-only list over the vehicles, for publishing.
+     */
+    private final List<Vehicle> myVehicleList;
+
+    /**
+     * The state of every vehicle.
+     */
+    private final VehicleStore myStore;
+
+    /**
+     * The index of vehicles by the square they occupy.
+     */
+    private final CellIndex myCellIndex;
+
+    /**
+     * The x-coordinate each vehicle moves to in the current double-buffered tick.
+     */
+    private final int[] myNextX;
+
+    /**
+     * The y-coordinate each vehicle moves to in the current double-buffered tick.
+     */
+    private final int[] myNextY;
+
+    /**
+     * Whether each vehicle came back to life in the current double-buffered tick.
+     */
+    private final boolean[] myRevived;
+
+    /**
+     * The workers for double-buffered ticks, or null to move vehicles in list order.
+     */
+    private ForkJoinPool myPool;
+
+    /**
+     * Sets the initial state of a PackedRoadRage Object, attaching each vehicle to the
+     * store in list order.
+     *
+     * @param theGrid the 2D grid of Terrain that defines the map
+     * @param theVehicles the distinct Vehicles on the map
+     * @throws IllegalArgumentException if a vehicle is not an AbstractVehicle
+     */
+    public PackedRoadRage(final Terrain[][] theGrid, final List<Vehicle> theVehicles) {
+        this(TerrainGrid.of(theGrid), theVehicles);
+    }
+
+    /**
+     * Sets the initial state of a PackedRoadRage Object on a grid that is read in
+     * place, attaching each vehicle to the store in list order.
+     *
+     * @param theGrid the grid of Terrain that defines the map
+     * @param theVehicles the distinct Vehicles on the map
+     * @throws IllegalArgumentException if a vehicle is not an AbstractVehicle
+     */
+    public PackedRoadRage(final TerrainGrid theGrid, final List<Vehicle> theVehicles) {
+        super(theGrid);
+        myVehicles = theVehicles.toArray(new Vehicle[0]);
+        myVehicleList = Collections.unmodifiableList(Arrays.asList(myVehicles));
+        myStore = new VehicleStore(myVehicles.length);
+        for (int i = 0; i < myVehicles.length; i++) {
+            if (!(myVehicles[i] instanceof AbstractVehicle)) {
+                throw new IllegalArgumentException("Cannot store " + myVehicles[i]);
+            }
+            ((AbstractVehicle) myVehicles[i]).attach(myStore, i);
+        }
+        myCellIndex = new CellIndex(myVehicles.length);
+        myNextX = new int[myVehicles.length];
+        myNextY = new int[myVehicles.length];
+        myRevived = new boolean[myVehicles.length];
+        indexVehicles();
+    }
+
+    /**
+     * Access the number of workers used for double-buffered ticks.
+     *
+     * @return the number of workers, or 0 if vehicles are moved in list order
+     */
+    public int getParallelism() {
+        int result = 0;
+        if (myPool != null) {
+            result = myPool.getParallelism();
+        }
+        return result;
+    }
+
+    /**
+     * Choose how ticks are run. Zero moves the vehicles one at a time in list order,
+     * the same as RoadRage. A positive value runs double-buffered ticks on that many
+     * workers; every positive value produces the same results.
+     *
+     * @param theParallelism the number of workers, or 0 for the sequential tick
+     * @throws IllegalArgumentException if theParallelism is negative
+     */
+    public void setParallelism(final int theParallelism) {
+        if (theParallelism < 0) {
+            throw new IllegalArgumentException("Negative parallelism " + theParallelism);
+        }
+        if (myPool != null) {
+            myPool.shutdown();
+            myPool = null;
+        }
+        if (theParallelism > 0) {
+            myPool = new ForkJoinPool(theParallelism);
+        }
+    }
+
+    /**
+     * Shuts down the workers for double-buffered ticks, if there are any, so that
+     * their threads end. The simulation can still be run, one vehicle at a time in
+     * list order, or on new workers after a call to setParallelism.
+     */
+    @Override
+    public void close() {
+        setParallelism(0);
+    }
+
+    @Override
+    protected void moveVehicles() {
+        if (myPool == null) {
+            moveInOrder();
+        } else {
+            myPool.invoke(new DecideTask(0, myVehicles.length, getLight()));
+            resolveMoves();
+        }
+    }
+
+    /**
+     * Moves each vehicle in turn, checking its collisions before the next one moves.
+     */
+    private void moveInOrder() {
+        final Light light = getLight();
+        for (int i = 0; i < myVehicles.length; i++) {
+            if (myStore.isAlive(i)) {
+                final int x = myStore.getX(i);
+                final int y = myStore.getY(i);
+                final Map<Direction, Terrain> neighbors = generateNeighbors(x, y);
+                final Vehicle v = myVehicles[i];
+                final Direction newDirection = v.chooseDirection(neighbors);
+                myStore.setDirection(i, newDirection);
+
+                // move one square in current direction, if it's okay to do so
+                if (v.canPass(neighbors.get(newDirection), light)) {
+                    final int newX = x + newDirection.dx();
+                    final int newY = y + newDirection.dy();
+                    myStore.setX(i, newX);
+                    myStore.setY(i, newY);
+                    myCellIndex.put(i, newX, newY);
+                    recordMove(i, x, y, newX, newY);
+                }
+            } else {
+                // become one move closer to revival
+                myStore.poke(i);
+                if (myStore.isAlive(i)) {
+                    recordRevival(i, myStore.getX(i), myStore.getY(i));
+                }
+            }
+            collideWithinCell(i);
+        }
+    }
+
+    @Override
+    protected void resetVehicles() {
+        for (final Vehicle mov : myVehicles) {
+            mov.reset();
+        }
+        indexVehicles();
+    }
+
+    @Override
+    protected List<Vehicle> getVehicles() {
+        return myVehicleList;
+    }
+
+    /**
+     * Tells the vehicle in the given slot and every other vehicle on its square that
+     * they have collided, visiting the others in slot order.
+     *
+     * @param theSlot The slot of the vehicle that just moved.
+     */
+    private void collideWithinCell(final int theSlot) {
+        final int x = myStore.getX(theSlot);
+        final int y = myStore.getY(theSlot);
+        for (int j = myCellIndex.first(x, y); j != CellIndex.NONE; j = myCellIndex.next(j)) {
+            if (j != theSlot && x == myStore.getX(j) && y == myStore.getY(j)) {
+                // tell both vehicles they have collided
+                collide(theSlot, j);
+            }
+        }
+    }
+
+    /**
+     * Chooses the move of each vehicle in a range of slots from the state left by the
+     * previous tick, writing the destination to the next-position buffers. Only the
+     * vehicles' own slots are written, so ranges may be decided concurrently.
+     *
+     * @param theFrom the first slot of the range.
+     * @param theTo the slot after the last one in the range.
+     * @param theLight the Light for this tick.
+     * @param theNeighbors a neighbors map used only by the calling thread.
+     */
+    private void decideMoves(final int theFrom, final int theTo, final Light theLight,
+                             final NeighborMap theNeighbors) {
+        for (int i = theFrom; i < theTo; i++) {
+            final int x = myStore.getX(i);
+            final int y = myStore.getY(i);
+            myNextX[i] = x;
+            myNextY[i] = y;
+            if (myStore.isAlive(i)) {
+                theNeighbors.moveTo(x, y);
+                final Vehicle v = myVehicles[i];
+                final Direction newDirection = v.chooseDirection(theNeighbors);
+                myStore.setDirection(i, newDirection);
+                if (v.canPass(theNeighbors.get(newDirection), theLight)) {
+                    myNextX[i] = x + newDirection.dx();
+                    myNextY[i] = y + newDirection.dy();
+                }
+            } else {
+                myStore.poke(i);
+                myRevived[i] = myStore.isAlive(i);
+            }
+        }
+    }
+
+    /**
+     * Applies the moves and revivals made by decideMoves, then tells every pair of
+     * vehicles that share a square that they have collided, lower slot first.
+     */
+    private void resolveMoves() {
+        for (int i = 0; i < myVehicles.length; i++) {
+            final int x = myStore.getX(i);
+            final int y = myStore.getY(i);
+            if (myNextX[i] != x || myNextY[i] != y) {
+                myStore.setX(i, myNextX[i]);
+                myStore.setY(i, myNextY[i]);
+                myCellIndex.put(i, myNextX[i], myNextY[i]);
+                recordMove(i, x, y, myNextX[i], myNextY[i]);
+            }
+            if (myRevived[i]) {
+                myRevived[i] = false;
+                recordRevival(i, x, y);
+            }
+        }
+        for (int i = 0; i < myVehicles.length; i++) {
+            final int x = myStore.getX(i);
+            final int y = myStore.getY(i);
+            // buckets are in slot order, so every slot after i in its bucket is higher
+            for (int j = myCellIndex.next(i); j != CellIndex.NONE; j = myCellIndex.next(j)) {
+                if (x == myStore.getX(j) && y == myStore.getY(j)) {
+                    collide(i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Files every vehicle in the cell index under its current square.
+     */
+    private void indexVehicles() {
+        myCellIndex.clear();
+        for (int i = 0; i < myVehicles.length; i++) {
+            myCellIndex.put(i, myStore.getX(i), myStore.getY(i));
+        }
+    }
+
+    /**
+     * Decides the moves for a range of slots, splitting it in half until it is small
+     * enough for one worker.
+     */
+    private final class DecideTask extends RecursiveAction {
+
+        /**
+         * The UID of this class (to avoid warnings).
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The first slot of the range.
+         */
+        private final int myFrom;
+
+        /**
+         * The slot after the last one in the range.
+         */
+        private final int myTo;
+
+        /**
+         * The Light for this tick.
+         */
+        private final Light myLight;
+
+        /**
+         * Creates a task for a range of slots.
+         *
+         * @param theFrom the first slot of the range.
+         * @param theTo the slot after the last one in the range.
+         * @param theLight the Light for this tick.
+         */
+        DecideTask(final int theFrom, final int theTo, final Light theLight) {
+            super();
+            myFrom = theFrom;
+            myTo = theTo;
+            myLight = theLight;
+        }
+
+        @Override
+        protected void compute() {
+            if (myTo - myFrom <= SLOTS_PER_TASK) {
+                decideMoves(myFrom, myTo, myLight, createNeighborMap());
+            } else {
+                final int middle = (myFrom + myTo) >>> 1;
+                invokeAll(new DecideTask(myFrom, middle, myLight),
+                          new DecideTask(middle, myTo, myLight));
+            }
+        }
+    }
+}
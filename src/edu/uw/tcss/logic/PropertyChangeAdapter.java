@@ -0,0 +1,194 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_DELTA;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_GRID;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_LIGHT;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_SUMMARY;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_TIME;
+import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
+
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.TerrainGrid;
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+
+/**
+ * A SimulationListener that passes each callback on to PropertyChangeListeners as the
+ * matching property change. A property is only boxed or copied when something
+ * listens for it.
+ *
+ * <p>The properties are fired in the order the simulation always fired them: the time
+ * step, then the light, then the vehicles after a tick; and the light, the time step,
+ * the grid and then the vehicles after a reset. The grid and the light are held back
+ * until onTick to keep that order.
+ *
+ * <p>VehicleDeltas and RunStatistics are only made for, and only sent to, listeners
+ * registered for PROPERTY_DELTA and PROPERTY_SUMMARY by name, so a listener of every
+ * property sees the same events it always did and costs nothing extra.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class PropertyChangeAdapter implements SimulationListener {
+
+    /**
+     * The PropertyChangeListeners to inform.
+     */
+    private final PropertyChangeSupport myPcs;
+
+    /**
+     * The simulation whose vehicles are published.
+     */
+    private final AbstractRoadRage myRoadRage;
+
+    /**
+     * The listeners registered for PROPERTY_DELTA by name.
+     */
+    private volatile PropertyChangeListener[] myDeltaListeners;
+
+    /**
+     * The listeners registered for PROPERTY_SUMMARY by name.
+     */
+    private volatile PropertyChangeListener[] mySummaryListeners;
+
+    /**
+     * The time step last published.
+     */
+    private long myTimestep;
+
+    /**
+     * The Light last published.
+     */
+    private Light myLight;
+
+    /**
+     * The Light to publish with the next tick, or null if it has not changed.
+     */
+    private Light myPendingLight;
+
+    /**
+     * The grid to publish with the next tick, or null if there has been no reset.
+     */
+    private TerrainGrid myPendingGrid;
+
+    /**
+     * Creates an adapter that informs the listeners of a simulation.
+     *
+     * @param thePcs the PropertyChangeListeners to inform.
+     * @param theRoadRage the simulation whose vehicles are published.
+     */
+    PropertyChangeAdapter(final PropertyChangeSupport thePcs,
+                          final AbstractRoadRage theRoadRage) {
+        super();
+        myPcs = thePcs;
+        myRoadRage = theRoadRage;
+        listenersChanged();
+    }
+
+    /**
+     * Looks up the listeners registered for PROPERTY_DELTA and PROPERTY_SUMMARY again.
+     * Must be called whenever a PropertyChangeListener is added or removed.
+     */
+    void listenersChanged() {
+        myDeltaListeners = myPcs.getPropertyChangeListeners(PROPERTY_DELTA);
+        mySummaryListeners = myPcs.getPropertyChangeListeners(PROPERTY_SUMMARY);
+    }
+
+    @Override
+    public void onGrid(final TerrainGrid theGrid) {
+        myPendingGrid = theGrid;
+    }
+
+    @Override
+    public void onLight(final Light theLight) {
+        myPendingLight = theLight;
+    }
+
+    @Override
+    public void onTick(final long theTimestep, final TickView theView) {
+        final long old = myTimestep;
+        myTimestep = theTimestep;
+        if (myPendingGrid == null) {
+            fireTime(old);
+            fireLight();
+        } else {
+            fireLight();
+            fireTime(old);
+            if (myPcs.hasListeners(PROPERTY_GRID)) {
+                myPcs.firePropertyChange(PROPERTY_GRID, null, myPendingGrid.toArray());
+            }
+            myPendingGrid = null;
+        }
+        if (myPcs.hasListeners(PROPERTY_VEHICLES)) {
+            myPcs.firePropertyChange(PROPERTY_VEHICLES, null,
+                                     new ArrayList<>(myRoadRage.getVehicles()));
+        }
+    }
+
+    @Override
+    public void onDelta(final VehicleDelta theDelta) {
+        fireNamed(myDeltaListeners, PROPERTY_DELTA, theDelta);
+    }
+
+    @Override
+    public void onSummary(final RunStatistics theSummary) {
+        fireNamed(mySummaryListeners, PROPERTY_SUMMARY, theSummary);
+    }
+
+    @Override
+    public boolean wantsDeltas() {
+        return myDeltaListeners.length > 0;
+    }
+
+    @Override
+    public boolean wantsSummary() {
+        return mySummaryListeners.length > 0;
+    }
+
+    /**
+     * Fires the time step if it has changed.
+     *
+     * @param theOld the time step last published.
+     */
+    private void fireTime(final long theOld) {
+        if (theOld != myTimestep && myPcs.hasListeners(PROPERTY_TIME)) {
+            myPcs.firePropertyChange(PROPERTY_TIME, theOld, myTimestep);
+        }
+    }
+
+    /**
+     * Fires the Light held back since the last tick, if there is one.
+     */
+    private void fireLight() {
+        if (myPendingLight != null) {
+            final Light old = myLight;
+            myLight = myPendingLight;
+            myPendingLight = null;
+            myPcs.firePropertyChange(PROPERTY_LIGHT, old, myLight);
+        }
+    }
+
+    /**
+     * Fires a property change to the listeners registered for it by name only.
+     *
+     * @param theListeners the listeners registered for the property.
+     * @param theName the name of the property.
+     * @param theValue the new value of the property.
+     */
+    private void fireNamed(final PropertyChangeListener[] theListeners,
+                           final String theName, final Object theValue) {
+        if (theListeners.length > 0) {
+            final PropertyChangeEvent event =
+                new PropertyChangeEvent(myRoadRage, theName, null, theValue);
+            for (final PropertyChangeListener listener : theListeners) {
+                listener.propertyChange(event);
+            }
+        }
+    }
+}
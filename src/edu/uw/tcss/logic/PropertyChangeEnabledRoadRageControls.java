@@ -50,6 +50,18 @@ public interface PropertyChangeEnabledRoadRageControls extends RoadRageControls
      */
     String PROPERTY_TIME = "the time step";
     
+    /**
+     * A property name for the VehicleDelta listing the vehicles changed by each tick.
+     * Only sent to listeners added for this property by name.
+     */
+    String PROPERTY_DELTA = "the vehicle changes";
+    
+    /**
+     * A property name for the RunStatistics published at the end of a bulk advance.
+     * Only sent to listeners added for this property by name.
+     */
+    String PROPERTY_SUMMARY = "the run summary";
+    
     /**
      * Add a PropertyChangeListener to the listener list. The listener is registered for 
      * all properties. The same listener object may be added more than once, and will be 
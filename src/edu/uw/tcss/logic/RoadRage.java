@@ -5,55 +5,38 @@
 package edu.uw.tcss.logic;
 
 import edu.uw.tcss.model.Direction;
-import edu.uw.tcss.model.Light;
 import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
 import edu.uw.tcss.model.Vehicle;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 
 /**
- * Implementation the behaviors of the RoadRage simulation. 
+ * Implementation the behaviors of the RoadRage simulation. Each vehicle keeps its 
+ * own state and is moved in list order.
  * 
  * @author Charles Bryan
  * @version 1 OCT 2018
  */
-public class RoadRage implements PropertyChangeEnabledRoadRageControls {
+public class RoadRage extends AbstractRoadRage {
     
     /**
-     * The number of clock ticks between light changes.
-     */
-    private static final int LIGHT_CHANGE_TICKS = 15;
-    
-    /**
-     * The terrain grid for the simulation.
-     */
-    private final Terrain[][] myGrid;
-    
-    /**
-     * The current timestep of the simulation.
-     */
-    private long myTimestep;
-    
-    /**
-     * The current status of lights.
+     * The vehicles to move and display. 
      */
-    private Light myLight;
+    private final List<Vehicle> myVehicles;
     
     /**
-     * The vehicles to move and display. 
+     * The index of vehicles by the square they occupy.
      */
-    private final List<Vehicle> myVehicles;
+    private final CellIndex myCellIndex;
     
     /**
-     * Manager for Property Change Listeners. 
+     * The strategy used to find collisions.
      */
-    private final PropertyChangeSupport myPcs;
+    private CollisionDetection myCollisionDetection;
     
     /**
      * Sets the initial state of a RoadRage Object. 
@@ -62,17 +45,29 @@ public class RoadRage implements PropertyChangeEnabledRoadRageControls {
      * @param theVehicles the Vehicles on the map
      */
     public RoadRage(final Terrain[][] theGrid, final List<Vehicle> theVehicles) {
-        super();
+        this(TerrainGrid.of(theGrid), theVehicles);
+    }
+    
+    /**
+     * Sets the initial state of a RoadRage Object on a grid that is read in place. 
+     * 
+     * @param theGrid the grid of Terrain that defines the map
+     * @param theVehicles the Vehicles on the map
+     */
+    public RoadRage(final TerrainGrid theGrid, final List<Vehicle> theVehicles) {
+        super(theGrid);
         myVehicles = new ArrayList<>(theVehicles);
-        myGrid = theGrid.clone();
-        myPcs = new PropertyChangeSupport(this);
+        myCellIndex = new CellIndex(myVehicles.size());
+        myCollisionDetection = CollisionDetection.CELL_INDEX;
+        indexVehicles();
     }
     
     @SuppressWarnings("LawOfDemeter")
     @Override
-    public void advance() {
-        for (final Vehicle v : myVehicles) {
-            final Map<Direction, Terrain> neighbors = generateNeighbors(v);
+    protected void moveVehicles() {
+        for (int i = 0; i < myVehicles.size(); i++) {
+            final Vehicle v = myVehicles.get(i);
+            final Map<Direction, Terrain> neighbors = generateNeighbors(v.getX(), v.getY());
 
             // move the vehicle
             if (v.isAlive()) {
@@ -80,167 +75,120 @@ public class RoadRage implements PropertyChangeEnabledRoadRageControls {
                 v.setDirection(newDirection);
 
                 // move one square in current direction, if it's okay to do so
-                if (v.canPass(neighbors.get(newDirection), myLight)) {
-                    v.setX(v.getX() + newDirection.dx());
-                    v.setY(v.getY() + newDirection.dy());
+                if (v.canPass(neighbors.get(newDirection), getLight())) {
+                    final int oldX = v.getX();
+                    final int oldY = v.getY();
+                    v.setX(oldX + newDirection.dx());
+                    v.setY(oldY + newDirection.dy());
+                    myCellIndex.put(i, v.getX(), v.getY());
+                    recordMove(i, oldX, oldY, v.getX(), v.getY());
                 }
             } else {
                 // become one move closer to revival
                 v.poke();
+                if (v.isAlive()) {
+                    recordRevival(i, v.getX(), v.getY());
+                }
             }
 
             // look for collisions
-            for (final Vehicle other : myVehicles) {
-                if (v.equals(other)) { // use of == is intentional - checking for same object
-                    // don't collide with self
-                    continue;
-                }
-
-                if (v.getX() == other.getX() && v.getY() == other.getY()) { //NOPMD
-                    // tell both vehicles they have collided
-                    v.collide(other);
-                    other.collide(v);
-                }
+            if (myCollisionDetection == CollisionDetection.CELL_INDEX) {
+                collideWithinCell(i, v);
+            } else {
+                collideWithAll(i, v);
             }
         }
-        advanceTimeStep();
-        if (myTimestep % LIGHT_CHANGE_TICKS == 0) {
-            setLightColor(myLight.advance());
-        }
-        fireVehicleChange();
-    }
-    
-    @Override
-    public void start() {
-        reset();
-    }
-    
-    @Override
-    public void reset() {
-        resetVehicles();
-        setLightColor(Light.GREEN);
-        setTimeStep(0);
-        fireGridChange();
-        fireVehicleChange();
-    }
-    
-    @Override
-    public int getHeight() {
-        return myGrid.length;
-    }
-
-    @Override
-    public int getWidth() {
-        return myGrid[0].length;
-    }
-    
- 
-    @Override
-    public void addPropertyChangeListener(final PropertyChangeListener theListener) {
-        myPcs.addPropertyChangeListener(theListener);
-    }
-    
-
-    @Override
-    public void removePropertyChangeListener(final PropertyChangeListener theListener) {
-        myPcs.removePropertyChangeListener(theListener);
-    }
-    
-    @Override
-    public void addPropertyChangeListener(final String thePropertyName,
-                                          final PropertyChangeListener theListener) {
-        myPcs.addPropertyChangeListener(thePropertyName, theListener);
-        
     }
 
-    @Override
-    public void removePropertyChangeListener(final String thePropertyName,
-                                             final PropertyChangeListener theListener) {
-        myPcs.removePropertyChangeListener(thePropertyName, theListener);
-        
-    }
-    
     /**
-     * Tests whether the square at the given x/y position exists on the map.
+     * Access the strategy used to find collisions after each move.
      * 
-     * @param theX The x position.
-     * @param theY The y position.
-     * @return true if the position exists on the map, false otherwise.
+     * @return the collision detection strategy
      */
-    private boolean isValidIndex(final int theY, final int theX) {
-        return theY >= 0 && theY < myGrid.length
-            && theX >= 0 && theX < myGrid[theY].length;
+    public CollisionDetection getCollisionDetection() {
+        return myCollisionDetection;
     }
     
     /**
-     * Generates a read-only neighbors map for the specified vehicle.
+     * Choose the strategy used to find collisions after each move. Both strategies 
+     * produce the same collisions, in the same order.
      * 
-     * @param theMover The vehicle.
-     * @return The neighbors map.
+     * @param theCollisionDetection the collision detection strategy
      */
-    private Map<Direction, Terrain> generateNeighbors(final Vehicle theMover) {
-        final int x = theMover.getX();
-        final int y = theMover.getY();
-        final Map<Direction, Terrain> result = new HashMap<>();
-
-        for (final Direction dir : Direction.values()) {
-            if (isValidIndex(y + dir.dy(), x + dir.dx())) {
-                result.put(dir, myGrid[y + dir.dy()][x + dir.dx()]);
-            }
-        }
-        return Collections.unmodifiableMap(result);
+    public void setCollisionDetection(final CollisionDetection theCollisionDetection) {
+        myCollisionDetection = Objects.requireNonNull(theCollisionDetection);
+        indexVehicles();
     }
     
     /**
-     * Sets the paint color appropriately for the current lights.
+     * Tells the moved vehicle and every other vehicle on its square that they have
+     * collided, checking the whole vehicle list.
      * 
-     * @param theLight The Light to base the color on.
+     * @param theIndex The index of the vehicle that just moved.
+     * @param theMover The vehicle that just moved.
      */
-    private void setLightColor(final Light theLight) {
-        final Light old = myLight;
-        myLight = theLight;
-        myPcs.firePropertyChange(PROPERTY_LIGHT, old, myLight); 
+    private void collideWithAll(final int theIndex, final Vehicle theMover) {
+        for (int j = 0; j < myVehicles.size(); j++) {
+            final Vehicle other = myVehicles.get(j);
+            if (theMover.equals(other)) { // use of == is intentional - checking for same object
+                // don't collide with self
+                continue;
+            }
+
+            if (theMover.getX() == other.getX() && theMover.getY() == other.getY()) { //NOPMD
+                // tell both vehicles they have collided
+                collide(theIndex, j);
+            }
+        }
     }
     
     /**
-     * Sets the time step for the simulation. 
+     * Tells the moved vehicle and every other vehicle on its square that they have
+     * collided, checking only the vehicles indexed under that square. Candidates are
+     * visited in vehicle list order, the same as collideWithAll.
      * 
-     * @param theTimestep the time to set. 
-     */
-    private void setTimeStep(final long theTimestep) {
-        final long old = myTimestep;
-        myTimestep = theTimestep;
-        myPcs.firePropertyChange(PROPERTY_TIME, old, myTimestep);
-    }
-    
-    /**
-     * Advances the time step by 1 for the simulation. 
-     */
-    private void advanceTimeStep() {
-        setTimeStep(myTimestep + 1);
-    }
-    
-    /**
-     * Inform PropertyChagneListeners of the current state of vehicles.
+     * @param theIndex The index of the vehicle that just moved.
+     * @param theMover The vehicle that just moved.
      */
-    private void fireVehicleChange() {
-        myPcs.firePropertyChange(PROPERTY_VEHICLES, null, new ArrayList<>(myVehicles));
+    private void collideWithinCell(final int theIndex, final Vehicle theMover) {
+        final int x = theMover.getX();
+        final int y = theMover.getY();
+        for (int j = myCellIndex.first(x, y); j != CellIndex.NONE; j = myCellIndex.next(j)) {
+            final Vehicle other = myVehicles.get(j);
+            if (j == theIndex || theMover.equals(other)) {
+                // don't collide with self
+                continue;
+            }
+
+            if (x == other.getX() && y == other.getY()) { //NOPMD
+                // tell both vehicles they have collided
+                collide(theIndex, j);
+            }
+        }
     }
     
     /**
-     * Inform PropertyChagneListeners of the current 2D Terrain grid state.
+     * Files every vehicle in the cell index under its current square.
      */
-    private void fireGridChange() {
-        myPcs.firePropertyChange(PROPERTY_GRID, null, myGrid.clone());
+    private void indexVehicles() {
+        myCellIndex.clear();
+        for (int i = 0; i < myVehicles.size(); i++) {
+            final Vehicle v = myVehicles.get(i);
+            myCellIndex.put(i, v.getX(), v.getY());
+        }
     }
     
-    /**
-     * Reset all of the vehicles to their original state. 
-     */
-    private void resetVehicles() {
+    @Override
+    protected void resetVehicles() {
         for (final Vehicle mov : myVehicles) {
             mov.reset();
         }
+        indexVehicles();
+    }
+    
+    @Override
+    protected List<Vehicle> getVehicles() {
+        return myVehicles;
     }
 
 }
@@ -18,6 +18,15 @@ public interface RoadRageControls {
      */
     void advance();
 
+    /**
+     * Advances the simulation by the given number of frames of animation without
+     * reporting each one, then reports the final state once. 
+     * 
+     * @param theTicks the number of frames to advance
+     * @throws IllegalArgumentException if theTicks is negative
+     */
+    void advance(long theTicks);
+
     /**
      * Put the simulation in the starting state. 
      */
@@ -0,0 +1,120 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+/**
+ * The results of one simulation run, captured when the run ends.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class RunStatistics {
+
+    /**
+     * The master seed of the run.
+     */
+    private final long mySeed;
+
+    /**
+     * The number of ticks run.
+     */
+    private final long myTicks;
+
+    /**
+     * The value of each Measure, indexed by ordinal.
+     */
+    private final long[] myValues;
+
+    /**
+     * Captures the results of a simulation that has just finished.
+     *
+     * @param theRun the simulation.
+     * @param theTicks the number of ticks it ran.
+     */
+    public RunStatistics(final AbstractRoadRage theRun, final long theTicks) {
+        super();
+        mySeed = theRun.getSeed();
+        myTicks = theTicks;
+        myValues = new long[Measure.values().length];
+        myValues[Measure.MOVES.ordinal()] = theRun.getMoveCount();
+        myValues[Measure.COLLISIONS.ordinal()] = theRun.getCollisionCount();
+        myValues[Measure.DEATHS.ordinal()] = theRun.getDeathCount();
+        myValues[Measure.SURVIVORS.ordinal()] = theRun.getLivingCount();
+    }
+
+    /**
+     * Creates the results of a run counted elsewhere, such as one read back from a
+     * log.
+     *
+     * @param theSeed the master seed of the run.
+     * @param theTicks the number of ticks it ran.
+     * @param theValues the value of each Measure, in Measure order.
+     * @throws IllegalArgumentException if there is not one value for each Measure.
+     */
+    public RunStatistics(final long theSeed, final long theTicks, final long... theValues) {
+        super();
+        if (theValues.length != Measure.values().length) {
+            throw new IllegalArgumentException("Expected " + Measure.values().length
+                                               + " values, not " + theValues.length);
+        }
+        mySeed = theSeed;
+        myTicks = theTicks;
+        myValues = theValues.clone();
+    }
+
+    /**
+     * Returns the master seed of the run.
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return mySeed;
+    }
+
+    /**
+     * Returns the number of ticks run.
+     *
+     * @return the number of ticks.
+     */
+    public long getTicks() {
+        return myTicks;
+    }
+
+    /**
+     * Returns the value of one measure for the run.
+     *
+     * @param theMeasure the measure.
+     * @return the value.
+     */
+    public long get(final Measure theMeasure) {
+        return myValues[theMeasure.ordinal()];
+    }
+
+    /**
+     * The things counted in each run.
+     */
+    public enum Measure {
+
+        /**
+         * The number of squares moved by all vehicles.
+         */
+        MOVES,
+
+        /**
+         * The number of times two vehicles met on a square.
+         */
+        COLLISIONS,
+
+        /**
+         * The number of vehicles killed in collisions.
+         */
+        DEATHS,
+
+        /**
+         * The number of vehicles alive at the end of the run.
+         */
+        SURVIVORS
+    }
+}
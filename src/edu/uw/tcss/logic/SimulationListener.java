@@ -0,0 +1,108 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+
+/**
+ * A typed listener for the state of a Road Rage simulation. Unlike a
+ * PropertyChangeListener it is called with primitive and typed arguments, so the
+ * simulation does not box, copy or look anything up by name to inform it.
+ *
+ * <p>Every method does nothing by default, so a listener only implements the
+ * callbacks it needs. Callbacks are made on the thread running the simulation, in
+ * the order onGrid, onLight, onTick, onDelta, onSummary, skipping any that do not
+ * apply.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public interface SimulationListener {
+
+    /**
+     * Called when the simulation is reset, with the terrain grid it runs on. The grid
+     * is shared and read-only. By default the grid is copied into an array for
+     * onGrid(Terrain[][]); a listener that can read the grid in place should override
+     * this method instead, so that a large grid is not copied.
+     *
+     * @param theGrid the grid of Terrain that defines the map
+     */
+    default void onGrid(final TerrainGrid theGrid) {
+        onGrid(theGrid.toArray());
+    }
+
+    /**
+     * Called by the default onGrid(TerrainGrid) with a copy of the terrain grid.
+     *
+     * @param theGrid the 2D grid of Terrain that defines the map
+     */
+    default void onGrid(final Terrain[][] theGrid) {
+        // do nothing
+    }
+
+    /**
+     * Called when the lights change, and when the simulation is reset.
+     *
+     * @param theLight the new Light
+     */
+    default void onLight(final Light theLight) {
+        // do nothing
+    }
+
+    /**
+     * Called after each tick, once at the end of a bulk advance, and when the
+     * simulation is reset.
+     *
+     * @param theTimestep the current time step
+     * @param theView the current state, valid only until this method returns
+     */
+    default void onTick(final long theTimestep, final TickView theView) {
+        // do nothing
+    }
+
+    /**
+     * Called after onTick with the vehicles that changed, if this listener wants
+     * deltas.
+     *
+     * @param theDelta the changes since the previous delta
+     */
+    default void onDelta(final VehicleDelta theDelta) {
+        // do nothing
+    }
+
+    /**
+     * Called at the end of a bulk advance with the statistics since the last reset,
+     * if this listener wants summaries.
+     *
+     * @param theSummary the statistics of the run so far
+     */
+    default void onSummary(final RunStatistics theSummary) {
+        // do nothing
+    }
+
+    /**
+     * Tells the simulation whether to record a VehicleDelta for this listener.
+     * Recording costs time for every change, so it is skipped while no listener
+     * wants deltas. This is asked before every tick.
+     *
+     * @return true to be called with onDelta
+     */
+    default boolean wantsDeltas() {
+        return false;
+    }
+
+    /**
+     * Tells the simulation whether to build a RunStatistics summary for this
+     * listener. Building one looks at every vehicle, so it is skipped while no
+     * listener wants summaries. This is asked at the end of every bulk advance.
+     *
+     * @return true to be called with onSummary
+     */
+    default boolean wantsSummary() {
+        return false;
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a simulation on a thread of its own. The simulation is only ever touched by
+ * that thread: every control method may be called from any thread, and queues a
+ * command that the simulation thread carries out between ticks. Other threads see the
+ * state of the simulation through SimulationListeners, such as an AsyncListener,
+ * or by asking for a TickSnapshot.
+ *
+ * <p>Ticks are paced by a TickScheduler. While the tick rate is no faster than the
+ * frame rate, each tick is run and published on its own. Above the frame rate the
+ * thread wakes once per frame and runs every tick due with one bulk advance, so
+ * listeners are called at most once per frame however fast the simulation runs.
+ * Unthrottled, the thread runs as many ticks as it can, in bulk advances sized to
+ * take about one frame each.
+ *
+ * <p>A command or tick that throws a RuntimeException is reported to the thread's
+ * uncaught exception handler, and the thread goes on with the next command; a tick
+ * that throws also stops running ticks, so that a broken listener is not called
+ * again every frame. A snapshot whose command throws, or that is still waiting when
+ * the thread ends, completes exceptionally.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class SimulationThread {
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The frame rate used until one is set.
+     */
+    private static final int DEFAULT_FRAMES_PER_SECOND = 60;
+
+    /**
+     * The most ticks an unthrottled bulk advance may run.
+     */
+    private static final long MAX_BATCH = 1L << 20;
+
+    /**
+     * The simulation. Used only by the simulation thread.
+     */
+    private final AbstractRoadRage myRoadRage;
+
+    /**
+     * The commands waiting to be carried out.
+     */
+    private final BlockingQueue<Runnable> myCommands;
+
+    /**
+     * The thread that runs the simulation.
+     */
+    private final Thread myThread;
+
+    /**
+     * The snapshots asked for and not yet taken.
+     */
+    private final Queue<CompletableFuture<TickSnapshot>> myPendingSnapshots;
+
+    /**
+     * Whether the simulation thread has ended.
+     */
+    private volatile boolean myEnded;
+
+    /**
+     * Whether ticks are being run. Used only by the simulation thread.
+     */
+    private boolean myRunning;
+
+    /**
+     * Whether the thread has been told to finish. Used only by the simulation thread.
+     */
+    private boolean myShutdown;
+
+    /**
+     * The schedule of ticks. Used only by the simulation thread.
+     */
+    private final TickScheduler myScheduler;
+
+    /**
+     * Whether ticks are run as fast as possible. Used only by the simulation thread.
+     */
+    private boolean myUnthrottled;
+
+    /**
+     * The number of frames published each second. Used only by the simulation thread.
+     */
+    private int myFramesPerSecond;
+
+    /**
+     * The System.nanoTime at which the next frame is due. Used only by the simulation
+     * thread.
+     */
+    private long myNextFrame;
+
+    /**
+     * The number of ticks in the next unthrottled bulk advance. Used only by the
+     * simulation thread.
+     */
+    private long myBatch;
+
+    /**
+     * The System.nanoTime at which the current rate measurement began. Used only by
+     * the simulation thread.
+     */
+    private long myRateStart;
+
+    /**
+     * The number of ticks run since the current rate measurement began. Used only by
+     * the simulation thread.
+     */
+    private long myRateTicks;
+
+    /**
+     * The tick rate measured over about the last second.
+     */
+    private volatile double myTickRate;
+
+    /**
+     * The number of ticks the scheduler has skipped.
+     */
+    private volatile long myMissedTicks;
+
+    /**
+     * Creates a stopped simulation thread and starts it waiting for commands. The
+     * simulation must not be used by any other thread from now on.
+     *
+     * @param theRoadRage the simulation to run.
+     * @param theTicksPerSecond the initial number of ticks to run each second.
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public SimulationThread(final AbstractRoadRage theRoadRage, final int theTicksPerSecond) {
+        super();
+        myRoadRage = theRoadRage;
+        myCommands = new LinkedBlockingQueue<>();
+        myPendingSnapshots = new ConcurrentLinkedQueue<>();
+        myScheduler = new TickScheduler(theTicksPerSecond);
+        myFramesPerSecond = DEFAULT_FRAMES_PER_SECOND;
+        myBatch = 1;
+        myThread = new Thread(this::runCommands, "Road Rage simulation");
+        myThread.setDaemon(true);
+        myThread.start();
+    }
+
+    /**
+     * Starts running ticks.
+     */
+    public void start() {
+        submit(() -> {
+            if (!myRunning) {
+                myRunning = true;
+                restartSchedule();
+            }
+        });
+    }
+
+    /**
+     * Stops running ticks. The simulation keeps its state.
+     */
+    public void stop() {
+        submit(() -> myRunning = false);
+    }
+
+    /**
+     * Runs one tick.
+     */
+    public void step() {
+        submit(myRoadRage::advance);
+    }
+
+    /**
+     * Stops running ticks and puts the simulation in its starting state.
+     */
+    public void reset() {
+        submit(() -> {
+            myRunning = false;
+            myRoadRage.reset();
+        });
+    }
+
+    /**
+     * Sets the number of ticks to run each second while running, from
+     * TickScheduler.MIN_TICKS_PER_SECOND to TickScheduler.MAX_TICKS_PER_SECOND.
+     *
+     * @param theTicksPerSecond the tick rate.
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public void setTicksPerSecond(final int theTicksPerSecond) {
+        // check the rate on the calling thread, where the caller can catch the exception
+        TickScheduler.checkTicksPerSecond(theTicksPerSecond);
+        submit(() -> {
+            myScheduler.setTicksPerSecond(theTicksPerSecond);
+            restartSchedule();
+        });
+    }
+
+    /**
+     * Chooses whether to run ticks as fast as possible instead of at the tick rate.
+     *
+     * @param theUnthrottled true to run as fast as possible.
+     */
+    public void setUnthrottled(final boolean theUnthrottled) {
+        submit(() -> {
+            myUnthrottled = theUnthrottled;
+            restartSchedule();
+        });
+    }
+
+    /**
+     * Sets the most times per second listeners are called while running, normally the
+     * refresh rate of the display.
+     *
+     * @param theFramesPerSecond the frame rate.
+     * @throws IllegalArgumentException if theFramesPerSecond is not positive
+     */
+    public void setFramesPerSecond(final int theFramesPerSecond) {
+        if (theFramesPerSecond <= 0) {
+            throw new IllegalArgumentException("Cannot show " + theFramesPerSecond
+                                               + " frames per second");
+        }
+        submit(() -> myFramesPerSecond = theFramesPerSecond);
+    }
+
+    /**
+     * Returns the number of ticks run per second, measured over about the last second
+     * of running.
+     *
+     * @return the measured tick rate.
+     */
+    public double getTickRate() {
+        return myTickRate;
+    }
+
+    /**
+     * Returns the number of ticks skipped because the simulation could not keep up
+     * with the tick rate.
+     *
+     * @return the number of missed ticks.
+     */
+    public long getMissedTicks() {
+        return myMissedTicks;
+    }
+
+    /**
+     * Sets the handler to which the simulation thread reports the exceptions thrown by
+     * commands and ticks. Until one is set they are reported to the thread's group,
+     * which prints them.
+     *
+     * @param theHandler the handler, or null for the thread's group.
+     */
+    public void setExceptionHandler(final Thread.UncaughtExceptionHandler theHandler) {
+        myThread.setUncaughtExceptionHandler(theHandler);
+    }
+
+    /**
+     * Adds a listener to the simulation. The listener is called on the simulation
+     * thread; wrap it in an AsyncListener to be called on another.
+     *
+     * @param theListener the listener to add.
+     */
+    public void addListener(final SimulationListener theListener) {
+        myRoadRage.addSimulationListener(theListener);
+    }
+
+    /**
+     * Removes a listener from the simulation.
+     *
+     * @param theListener the listener to remove.
+     */
+    public void removeListener(final SimulationListener theListener) {
+        myRoadRage.removeSimulationListener(theListener);
+    }
+
+    /**
+     * Asks for a copy of the state of the simulation, taken between ticks.
+     *
+     * @return a future completed with the snapshot, or exceptionally if it cannot be
+     *         taken or the simulation thread has ended.
+     */
+    public CompletableFuture<TickSnapshot> snapshot() {
+        final CompletableFuture<TickSnapshot> result = new CompletableFuture<>();
+        myPendingSnapshots.add(result);
+        submit(() -> {
+            myPendingSnapshots.remove(result);
+            try {
+                result.complete(new TickSnapshot(myRoadRage.getTickView()));
+            } catch (final RuntimeException exception) {
+                result.completeExceptionally(exception);
+                throw exception;
+            }
+        });
+        if (myEnded) {
+            // the thread may have ended before seeing the command
+            failPendingSnapshots();
+        }
+        return result;
+    }
+
+    /**
+     * Finishes the commands already queued and ends the simulation thread.
+     *
+     * @throws InterruptedException if interrupted while waiting for the thread to end.
+     */
+    public void shutdown() throws InterruptedException {
+        submit(() -> myShutdown = true);
+        myThread.join();
+    }
+
+    /**
+     * Queues a command for the simulation thread.
+     *
+     * @param theCommand the command.
+     */
+    private void submit(final Runnable theCommand) {
+        myCommands.add(theCommand);
+    }
+
+    /**
+     * Carries out commands and, while running, runs each tick when it is due.
+     */
+    private void runCommands() {
+        try {
+            while (!myShutdown) {
+                final Runnable command;
+                if (myRunning) {
+                    command = myCommands.poll(nanosUntilDue(System.nanoTime()),
+                                              TimeUnit.NANOSECONDS);
+                } else {
+                    command = myCommands.take();
+                }
+                if (command != null) {
+                    runCommand(command);
+                } else if (myRunning) {
+                    runTicks();
+                }
+            }
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } finally {
+            myEnded = true;
+            failPendingSnapshots();
+        }
+    }
+
+    /**
+     * Carries out a command, reporting any exception it throws.
+     *
+     * @param theCommand the command.
+     */
+    private void runCommand(final Runnable theCommand) {
+        try {
+            theCommand.run();
+        } catch (final RuntimeException exception) {
+            report(exception);
+        }
+    }
+
+    /**
+     * Runs the ticks that are due, reporting any exception thrown and stopping.
+     */
+    private void runTicks() {
+        try {
+            runDueTicks();
+        } catch (final RuntimeException exception) {
+            myRunning = false;
+            report(exception);
+        }
+    }
+
+    /**
+     * Reports an exception to the simulation thread's uncaught exception handler.
+     *
+     * @param theException the exception.
+     */
+    private void report(final RuntimeException theException) {
+        myThread.getUncaughtExceptionHandler().uncaughtException(myThread, theException);
+    }
+
+    /**
+     * Completes exceptionally every snapshot not yet taken, once the simulation thread
+     * has ended.
+     */
+    private void failPendingSnapshots() {
+        CompletableFuture<TickSnapshot> snapshot = myPendingSnapshots.poll();
+        while (snapshot != null) {
+            snapshot.completeExceptionally(
+                new IllegalStateException("The simulation thread has ended"));
+            snapshot = myPendingSnapshots.poll();
+        }
+    }
+
+    /**
+     * Returns how long to wait for commands before running ticks again.
+     *
+     * @param theNow the current System.nanoTime.
+     * @return the number of nanoseconds to wait, zero or less not to wait.
+     */
+    private long nanosUntilDue(final long theNow) {
+        long result = 0;
+        if (!myUnthrottled) {
+            result = myScheduler.nanosUntilDue(theNow);
+            if (myScheduler.getTicksPerSecond() > myFramesPerSecond) {
+                result = Math.max(result, myNextFrame - theNow);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs the ticks that are due, or an unthrottled batch, as one frame.
+     */
+    private void runDueTicks() {
+        final long now = System.nanoTime();
+        final long ticks;
+        if (myUnthrottled) {
+            ticks = myBatch;
+        } else {
+            ticks = myScheduler.takeDueTicks(now);
+            myMissedTicks = myScheduler.getMissedTicks();
+        }
+        if (ticks == 1) {
+            myRoadRage.advance();
+        } else if (ticks > 1) {
+            myRoadRage.advance(ticks);
+        }
+        final long framePeriod = NANOS_PER_SECOND / myFramesPerSecond;
+        final long end = System.nanoTime();
+        myNextFrame = now + framePeriod;
+        if (myUnthrottled) {
+            // size the next batch to take about one frame
+            final long elapsed = Math.max(1, end - now);
+            myBatch = Math.max(1, Math.min(MAX_BATCH, myBatch * framePeriod / elapsed));
+        }
+        myRateTicks += ticks;
+        if (end - myRateStart >= NANOS_PER_SECOND) {
+            myTickRate = myRateTicks * (double) NANOS_PER_SECOND / (end - myRateStart);
+            myRateStart = end;
+            myRateTicks = 0;
+        }
+    }
+
+    /**
+     * Starts the tick schedule and rate measurement from now.
+     */
+    private void restartSchedule() {
+        final long now = System.nanoTime();
+        myScheduler.start(now);
+        myNextFrame = now;
+        myRateStart = now;
+        myRateTicks = 0;
+    }
+}
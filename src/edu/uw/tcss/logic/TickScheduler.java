@@ -0,0 +1,168 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+/**
+ * Decides when ticks are due at a target tick rate, from times read with
+ * System.nanoTime. Every tick's deadline is measured from the time the schedule
+ * started, not from the previous tick, so late wake-ups do not add up to drift: a
+ * caller that wakes late is given every tick that has come due since.
+ *
+ * <p>A caller that falls more than a quarter of a second behind cannot catch up. The
+ * ticks beyond that backlog are skipped and counted as missed, so the schedule
+ * recovers instead of running flat out to make up lost time.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class TickScheduler {
+
+    /**
+     * The lowest tick rate that can be scheduled.
+     */
+    public static final int MIN_TICKS_PER_SECOND = 1;
+
+    /**
+     * The highest tick rate that can be scheduled.
+     */
+    public static final int MAX_TICKS_PER_SECOND = 100_000;
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * How far behind the schedule may fall before ticks are skipped, in nanoseconds.
+     */
+    private static final long MAX_LAG_NANOS = NANOS_PER_SECOND / 4;
+
+    /**
+     * The target number of ticks per second.
+     */
+    private int myTicksPerSecond;
+
+    /**
+     * The number of nanoseconds between ticks.
+     */
+    private long myPeriod;
+
+    /**
+     * The time the schedule started, when its first tick was due.
+     */
+    private long myStart;
+
+    /**
+     * The number of ticks given out or skipped since the schedule started.
+     */
+    private long myTaken;
+
+    /**
+     * The number of ticks skipped because the caller fell too far behind.
+     */
+    private long myMissed;
+
+    /**
+     * Creates a scheduler for a tick rate. The schedule starts at time 0 until start
+     * is called.
+     *
+     * @param theTicksPerSecond the target tick rate.
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public TickScheduler(final int theTicksPerSecond) {
+        super();
+        setTicksPerSecond(theTicksPerSecond);
+    }
+
+    /**
+     * Changes the target tick rate. The schedule should be started again afterward.
+     *
+     * @param theTicksPerSecond the target tick rate.
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    public void setTicksPerSecond(final int theTicksPerSecond) {
+        checkTicksPerSecond(theTicksPerSecond);
+        myTicksPerSecond = theTicksPerSecond;
+        myPeriod = NANOS_PER_SECOND / theTicksPerSecond;
+    }
+
+    /**
+     * Returns the target tick rate.
+     *
+     * @return the number of ticks per second.
+     */
+    public int getTicksPerSecond() {
+        return myTicksPerSecond;
+    }
+
+    /**
+     * Starts the schedule again, with its first tick due now. Missed ticks are still
+     * counted.
+     *
+     * @param theNow the current System.nanoTime.
+     */
+    public void start(final long theNow) {
+        myStart = theNow;
+        myTaken = 0;
+    }
+
+    /**
+     * Returns how long until the next tick is due.
+     *
+     * @param theNow the current System.nanoTime.
+     * @return the number of nanoseconds to wait, zero or less if a tick is due.
+     */
+    public long nanosUntilDue(final long theNow) {
+        return myStart + myTaken * myPeriod - theNow;
+    }
+
+    /**
+     * Returns the number of ticks that have come due and not yet been given out, and
+     * counts them as given out. If the backlog is too large, the oldest ticks are
+     * skipped and counted as missed.
+     *
+     * @param theNow the current System.nanoTime.
+     * @return the number of ticks to run now.
+     */
+    public long takeDueTicks(final long theNow) {
+        long result = 0;
+        if (theNow - myStart >= 0) {
+            final long due = (theNow - myStart) / myPeriod + 1 - myTaken;
+            final long limit = Math.max(1, MAX_LAG_NANOS / myPeriod);
+            if (due > limit) {
+                myMissed += due - limit;
+                myTaken += due - limit;
+                result = limit;
+            } else if (due > 0) {
+                result = due;
+            }
+            myTaken += result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of ticks skipped because the caller fell too far behind.
+     *
+     * @return the number of missed ticks.
+     */
+    public long getMissedTicks() {
+        return myMissed;
+    }
+
+    /**
+     * Checks that a tick rate can be scheduled.
+     *
+     * @param theTicksPerSecond the tick rate.
+     * @throws IllegalArgumentException if the rate is out of range
+     */
+    static void checkTicksPerSecond(final int theTicksPerSecond) {
+        if (theTicksPerSecond < MIN_TICKS_PER_SECOND
+            || theTicksPerSecond > MAX_TICKS_PER_SECOND) {
+            throw new IllegalArgumentException("Cannot run " + theTicksPerSecond
+                                               + " ticks per second");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.VehicleType;
+
+/**
+ * An immutable copy of the state of a simulation at the end of one tick. A snapshot
+ * can be handed to another thread and read there at any later time.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class TickSnapshot implements TickView {
+
+    /**
+     * The time step the state belongs to.
+     */
+    private final long myTimestep;
+
+    /**
+     * The status of the lights.
+     */
+    private final Light myLight;
+
+    /**
+     * The kind of each vehicle.
+     */
+    private final VehicleType[] myTypes;
+
+    /**
+     * The x-coordinate of each vehicle.
+     */
+    private final int[] myX;
+
+    /**
+     * The y-coordinate of each vehicle.
+     */
+    private final int[] myY;
+
+    /**
+     * The direction each vehicle is facing.
+     */
+    private final Direction[] myDirections;
+
+    /**
+     * Whether each vehicle is alive.
+     */
+    private final boolean[] myAlive;
+
+    /**
+     * The number of squares moved by all vehicles since the last reset.
+     */
+    private final long myMoveCount;
+
+    /**
+     * The number of collisions since the last reset.
+     */
+    private final long myCollisionCount;
+
+    /**
+     * The number of vehicles killed in collisions since the last reset.
+     */
+    private final long myDeathCount;
+
+    /**
+     * Copies the state shown by a view.
+     *
+     * @param theView the view to copy.
+     */
+    public TickSnapshot(final TickView theView) {
+        super();
+        myTimestep = theView.getTimestep();
+        myLight = theView.getLight();
+        myMoveCount = theView.getMoveCount();
+        myCollisionCount = theView.getCollisionCount();
+        myDeathCount = theView.getDeathCount();
+        final int count = theView.getVehicleCount();
+        myTypes = new VehicleType[count];
+        myX = new int[count];
+        myY = new int[count];
+        myDirections = new Direction[count];
+        myAlive = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            myTypes[i] = theView.getType(i);
+            myX[i] = theView.getX(i);
+            myY[i] = theView.getY(i);
+            myDirections[i] = theView.getDirection(i);
+            myAlive[i] = theView.isAlive(i);
+        }
+    }
+
+    @Override
+    public long getTimestep() {
+        return myTimestep;
+    }
+
+    @Override
+    public Light getLight() {
+        return myLight;
+    }
+
+    @Override
+    public int getVehicleCount() {
+        return myTypes.length;
+    }
+
+    @Override
+    public VehicleType getType(final int theIndex) {
+        return myTypes[theIndex];
+    }
+
+    @Override
+    public int getX(final int theIndex) {
+        return myX[theIndex];
+    }
+
+    @Override
+    public int getY(final int theIndex) {
+        return myY[theIndex];
+    }
+
+    @Override
+    public Direction getDirection(final int theIndex) {
+        return myDirections[theIndex];
+    }
+
+    @Override
+    public boolean isAlive(final int theIndex) {
+        return myAlive[theIndex];
+    }
+
+    @Override
+    public long getMoveCount() {
+        return myMoveCount;
+    }
+
+    @Override
+    public long getCollisionCount() {
+        return myCollisionCount;
+    }
+
+    @Override
+    public long getDeathCount() {
+        return myDeathCount;
+    }
+}
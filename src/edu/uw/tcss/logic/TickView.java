@@ -0,0 +1,104 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.VehicleType;
+
+/**
+ * A read-only view of the state of a simulation at the end of a tick. Vehicles are
+ * addressed by their index in the vehicle list, so reading the view needs no
+ * iterator or copy. A view passed to a SimulationListener may be reused by the next
+ * tick, and is only valid until the callback returns.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public interface TickView {
+
+    /**
+     * Access the time step the state belongs to.
+     *
+     * @return the time step
+     */
+    long getTimestep();
+
+    /**
+     * Access the status of the lights.
+     *
+     * @return the current Light
+     */
+    Light getLight();
+
+    /**
+     * Access the number of vehicles in the simulation.
+     *
+     * @return the number of vehicles
+     */
+    int getVehicleCount();
+
+    /**
+     * Access the kind of a vehicle.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the VehicleType of the vehicle
+     */
+    VehicleType getType(int theIndex);
+
+    /**
+     * Access the x-coordinate of a vehicle.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the x-coordinate
+     */
+    int getX(int theIndex);
+
+    /**
+     * Access the y-coordinate of a vehicle.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the y-coordinate
+     */
+    int getY(int theIndex);
+
+    /**
+     * Access the direction a vehicle is facing.
+     *
+     * @param theIndex the index of the vehicle
+     * @return the Direction of the vehicle
+     */
+    Direction getDirection(int theIndex);
+
+    /**
+     * Access whether a vehicle is alive.
+     *
+     * @param theIndex the index of the vehicle
+     * @return true if the vehicle is alive
+     */
+    boolean isAlive(int theIndex);
+
+    /**
+     * Access the number of squares moved by all vehicles since the last reset.
+     *
+     * @return the number of vehicle moves
+     */
+    long getMoveCount();
+
+    /**
+     * Access the number of times two vehicles have met on a square since the last
+     * reset.
+     *
+     * @return the number of collisions
+     */
+    long getCollisionCount();
+
+    /**
+     * Access the number of vehicles killed in collisions since the last reset.
+     *
+     * @return the number of deaths
+     */
+    long getDeathCount();
+}
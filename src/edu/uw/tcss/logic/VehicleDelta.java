@@ -0,0 +1,246 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.logic;
+
+import edu.uw.tcss.model.Vehicle;
+import java.util.List;
+
+/**
+ * The vehicles that changed during one tick of a simulation, in the order the changes
+ * happened. Each entry names a vehicle by its index in the vehicle list, the kind of
+ * Change, and the square the vehicle was on before and after the change, so a listener
+ * can follow the simulation while doing work only for the vehicles that changed.
+ *
+ * <p>A refresh delta lists no changes. It is published after a reset or a bulk
+ * advance, when any vehicle may have changed, and tells listeners to read every
+ * vehicle again.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class VehicleDelta {
+
+    /**
+     * The time step at the end of the changes.
+     */
+    private final long myTimestep;
+
+    /**
+     * Whether every vehicle must be read again.
+     */
+    private final boolean myRefresh;
+
+    /**
+     * The vehicles the entries refer to.
+     */
+    private final List<Vehicle> myVehicles;
+
+    /**
+     * The vehicle index of each entry.
+     */
+    private final int[] myIndexes;
+
+    /**
+     * The Change of each entry.
+     */
+    private final Change[] myChanges;
+
+    /**
+     * The x-coordinate of each entry's vehicle before the change.
+     */
+    private final int[] myOldX;
+
+    /**
+     * The y-coordinate of each entry's vehicle before the change.
+     */
+    private final int[] myOldY;
+
+    /**
+     * The x-coordinate of each entry's vehicle after the change.
+     */
+    private final int[] myNewX;
+
+    /**
+     * The y-coordinate of each entry's vehicle after the change.
+     */
+    private final int[] myNewY;
+
+    /**
+     * Creates a delta from entries held in parallel arrays, which it takes ownership
+     * of.
+     *
+     * @param theTimestep the time step at the end of the changes.
+     * @param theRefresh whether every vehicle must be read again.
+     * @param theVehicles the vehicles the entries refer to.
+     * @param theIndexes the vehicle index of each entry.
+     * @param theChanges the Change of each entry.
+     * @param theOldX the x-coordinate of each entry's vehicle before the change.
+     * @param theOldY the y-coordinate of each entry's vehicle before the change.
+     * @param theNewX the x-coordinate of each entry's vehicle after the change.
+     * @param theNewY the y-coordinate of each entry's vehicle after the change.
+     */
+    @SuppressWarnings("MethodWithTooManyParameters")
+    VehicleDelta(final long theTimestep, final boolean theRefresh,
+                 final List<Vehicle> theVehicles, final int[] theIndexes,
+                 final Change[] theChanges, final int[] theOldX, final int[] theOldY,
+                 final int[] theNewX, final int[] theNewY) {
+        super();
+        myTimestep = theTimestep;
+        myRefresh = theRefresh;
+        myVehicles = theVehicles;
+        myIndexes = theIndexes;
+        myChanges = theChanges;
+        myOldX = theOldX;
+        myOldY = theOldY;
+        myNewX = theNewX;
+        myNewY = theNewY;
+    }
+
+    /**
+     * Returns the time step at the end of the changes.
+     *
+     * @return the time step.
+     */
+    public long getTimestep() {
+        return myTimestep;
+    }
+
+    /**
+     * Returns whether any vehicle may have changed without being listed, so that every
+     * vehicle must be read again.
+     *
+     * @return true for a refresh delta.
+     */
+    public boolean isRefresh() {
+        return myRefresh;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of changes listed.
+     */
+    public int size() {
+        return myIndexes.length;
+    }
+
+    /**
+     * Returns the index in the vehicle list of the vehicle an entry refers to.
+     *
+     * @param theEntry the entry.
+     * @return the vehicle index.
+     */
+    public int getIndex(final int theEntry) {
+        return myIndexes[theEntry];
+    }
+
+    /**
+     * Returns the vehicle an entry refers to. The vehicle is live, so its state may be
+     * newer than the entry.
+     *
+     * @param theEntry the entry.
+     * @return the vehicle.
+     */
+    public Vehicle getVehicle(final int theEntry) {
+        return myVehicles.get(myIndexes[theEntry]);
+    }
+
+    /**
+     * Returns the kind of change an entry records.
+     *
+     * @param theEntry the entry.
+     * @return the Change.
+     */
+    public Change getChange(final int theEntry) {
+        return myChanges[theEntry];
+    }
+
+    /**
+     * Returns the x-coordinate of an entry's vehicle before the change.
+     *
+     * @param theEntry the entry.
+     * @return the old x-coordinate.
+     */
+    public int getOldX(final int theEntry) {
+        return myOldX[theEntry];
+    }
+
+    /**
+     * Returns the y-coordinate of an entry's vehicle before the change.
+     *
+     * @param theEntry the entry.
+     * @return the old y-coordinate.
+     */
+    public int getOldY(final int theEntry) {
+        return myOldY[theEntry];
+    }
+
+    /**
+     * Returns the x-coordinate of an entry's vehicle after the change.
+     *
+     * @param theEntry the entry.
+     * @return the new x-coordinate.
+     */
+    public int getNewX(final int theEntry) {
+        return myNewX[theEntry];
+    }
+
+    /**
+     * Returns the y-coordinate of an entry's vehicle after the change.
+     *
+     * @param theEntry the entry.
+     * @return the new y-coordinate.
+     */
+    public int getNewY(final int theEntry) {
+        return myNewY[theEntry];
+    }
+
+    /**
+     * Returns a description of every entry, one per line.
+     *
+     * @return a String representation of this delta.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("tick ").append(myTimestep);
+        if (myRefresh) {
+            sb.append(" refresh");
+        }
+        for (int i = 0; i < size(); i++) {
+            sb.append('\n').append(myIndexes[i]).append(' ').append(myChanges[i])
+                .append(" (").append(myOldX[i]).append(", ").append(myOldY[i])
+                .append(") -> (").append(myNewX[i]).append(", ").append(myNewY[i])
+                .append(')');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The kinds of change a vehicle can make during a tick.
+     */
+    public enum Change {
+
+        /**
+         * The vehicle moved one square.
+         */
+        MOVED,
+
+        /**
+         * The vehicle met another vehicle on its square.
+         */
+        COLLIDED,
+
+        /**
+         * The vehicle was killed in a collision.
+         */
+        DIED,
+
+        /**
+         * The vehicle came back to life.
+         */
+        REVIVED
+    }
+}
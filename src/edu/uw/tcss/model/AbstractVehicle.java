@@ -1,8 +1,11 @@
 package edu.uw.tcss.model;
 
-import java.util.HashSet;
-import java.util.Random;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Objects;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Abstract vehicle class.
@@ -12,33 +15,61 @@ import java.util.Set;
  */
 public abstract class AbstractVehicle implements Vehicle {
     /**
-     * The vehicle's x-axis on the map.
+     * The image file names of each vehicle class, alive and then dead, named after
+     * the class and built once per class.
      */
-    protected int myVehicleX;
+    private static final ClassValue<String[]> IMAGE_FILE_NAMES = new ClassValue<>() {
+        @Override
+        protected String[] computeValue(final Class<?> theClass) {
+            final String name = theClass.getSimpleName().toLowerCase(Locale.ROOT);
+            return new String[] {name + ".gif", name + "_dead.gif"};
+        }
+    };
     /**
-     * The vehicle's y-axis on the map.
+     * The store holding the vehicle's position, direction and death counter
+     * once it is attached, or null while the vehicle holds them itself.
      */
-    protected int myVehicleY;
+    private VehicleStore myStore;
     /**
-     * The vehicle's direction.
+     * The vehicle's slot in the store.
      */
-    protected Direction myVehicleDirection;
+    private int mySlot;
     /**
-     * A random object for use in vehicle's that need it.
+     * The vehicle's x-axis state until it is attached to a store.
      */
-    protected Random myRandom = new Random();
+    private int myX;
     /**
-     * A set object for use in vehicles that need it.
+     * The vehicle's y-axis state until it is attached to a store.
      */
-    protected Set<Direction> myDirections = new HashSet<>();
+    private int myY;
     /**
-     * The vehicle's death time.
+     * The vehicle's direction until it is attached to a store.
      */
-    protected int myDeathTime;
+    private Direction myDirection;
+    /**
+     * The number of updates until the vehicle is revived, zero while
+     * alive, until it is attached to a store.
+     */
+    private int myCounter;
+    /**
+     * The vehicle's kind, found the first time it is needed.
+     */
+    private VehicleType myType;
+    /**
+     * A random object for use in vehicle's that need it. Each vehicle has
+     * its own stream, which the simulation replaces with a seeded one.
+     */
+    protected RandomGenerator myRandom = new SplittableRandom();
     /**
-     * A counter to keep track of death time.
+     * A set object for use in vehicles that need it. An EnumSet iterates
+     * in Direction order, so the same random index picks the same Direction
+     * on every run.
+     */
+    protected Set<Direction> myDirections = EnumSet.noneOf(Direction.class);
+    /**
+     * The vehicle's death time.
      */
-    protected int myCounter;
+    protected int myDeathTime;
     /**
      * The vehicle's initial x-axis state.
      */
@@ -65,24 +96,49 @@ public abstract class AbstractVehicle implements Vehicle {
         if (theVehicleX < 0 || theVehicleY < 0) {
             throw new IllegalArgumentException();
         }
-        myVehicleX = theVehicleX;
-        myVehicleY = theVehicleY;
-        myVehicleDirection = theVehicleDirection;
+        myX = theVehicleX;
+        myY = theVehicleY;
+        myDirection = theVehicleDirection;
         myDeathTime = theDeathTime;
         myIniX = theVehicleX;
         myIniY = theVehicleY;
     }
 
+    /**
+     * This method moves the vehicle's state into a slot of a shared store,
+     * copying its current x, y, direction and death counter. From then on
+     * the vehicle reads and writes that slot, so the store and the vehicle
+     * always agree.
+     *
+     * @param theStore The store to move into.
+     * @param theSlot The slot of the store to use.
+     */
+    public void attach(final VehicleStore theStore, final int theSlot) {
+        theStore.setX(theSlot, getX());
+        theStore.setY(theSlot, getY());
+        theStore.setDirection(theSlot, getDirection());
+        theStore.setCounter(theSlot, getCounter());
+        theStore.setType(theSlot, getType());
+        myStore = theStore;
+        mySlot = theSlot;
+    }
+
     /**
      *This method gets the vehicle's direction by returning the Direction
-     * myVehicleDirection. This is done to use the direction in other methods
-     * within the varying vehicle classes.
+     * held by the vehicle, or by its store slot once attached. This is done to use the
+     * direction in other methods within the varying vehicle classes.
      *
      * @return The Direction that stores the vehicle's direction.
      */
     @Override
     public Direction getDirection() {
-        return myVehicleDirection;
+        final Direction result;
+        if (myStore == null) {
+            result = myDirection;
+        } else {
+            result = myStore.getDirection(mySlot);
+        }
+        return result;
     }
 
     /**
@@ -92,15 +148,18 @@ public abstract class AbstractVehicle implements Vehicle {
      * if not alive, this method returns the vehicle's dead image file
      * name.
      *
-     * @return The StringBuilder that stores the vehicle's image file name.
+     * @return The String that stores the vehicle's image file name.
      */
     @Override
     public String getImageFileName() {
-        final StringBuilder sb = new StringBuilder(getClass().getSimpleName().toLowerCase());
-        if (!isAlive()) {
-            sb.append("_dead");
+        final String[] names = IMAGE_FILE_NAMES.get(getClass());
+        final String result;
+        if (isAlive()) {
+            result = names[0];
+        } else {
+            result = names[1];
         }
-        return sb.append(".gif").toString();
+        return result;
     }
 
     /**
@@ -111,7 +170,13 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public int getX() {
-        return myVehicleX;
+        final int result;
+        if (myStore == null) {
+            result = myX;
+        } else {
+            result = myStore.getX(mySlot);
+        }
+        return result;
     }
 
     /**
@@ -122,7 +187,13 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public int getY() {
-        return myVehicleY;
+        final int result;
+        if (myStore == null) {
+            result = myY;
+        } else {
+            result = myStore.getY(mySlot);
+        }
+        return result;
     }
 
     /**
@@ -135,7 +206,11 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public void setX(final int theX) {
-        myVehicleX = theX;
+        if (myStore == null) {
+            myX = theX;
+        } else {
+            myStore.setX(mySlot, theX);
+        }
     }
 
     /**
@@ -148,7 +223,11 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public void setY(final int theY) {
-        myVehicleY = theY;
+        if (myStore == null) {
+            myY = theY;
+        } else {
+            myStore.setY(mySlot, theY);
+        }
     }
 
     /**
@@ -160,7 +239,11 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public void setDirection(final Direction theDir) {
-        myVehicleDirection = theDir;
+        if (myStore == null) {
+            myDirection = theDir;
+        } else {
+            myStore.setDirection(mySlot, theDir);
+        }
     }
 
     /**
@@ -175,7 +258,7 @@ public abstract class AbstractVehicle implements Vehicle {
     @Override
     public void collide(final Vehicle theOther) {
         if (theOther.isAlive() && isAlive() && getDeathTime() > theOther.getDeathTime()) {
-            myCounter = myDeathTime;
+            setCounter(myDeathTime);
         }
     }
 
@@ -199,7 +282,7 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public boolean isAlive() {
-        return myCounter == 0;
+        return getCounter() == 0;
     }
 
     /**
@@ -210,7 +293,19 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public void poke() {
-        myCounter--;
+        setCounter(getCounter() - 1);
+    }
+
+    /**
+     * This method replaces the random stream the vehicle uses when it
+     * chooses between directions. This is done so that a simulation
+     * can give each vehicle its own seeded stream and replay a run.
+     *
+     * @param theRandom The new random stream.
+     */
+    @Override
+    public void setRandom(final RandomGenerator theRandom) {
+        myRandom = Objects.requireNonNull(theRandom);
     }
 
     /**
@@ -221,8 +316,52 @@ public abstract class AbstractVehicle implements Vehicle {
      */
     @Override
     public void reset() {
-        myCounter = 0;
+        setCounter(0);
         setX(myIniX);
         setY(myIniY);
     }
+
+    /**
+     * This method returns the kind of the vehicle, finding it the first
+     * time it is needed rather than in the constructor, so that it is
+     * only looked up for vehicles that are attached to a store.
+     *
+     * @return The VehicleType of the vehicle.
+     */
+    private VehicleType getType() {
+        if (myType == null) {
+            myType = VehicleType.of(this);
+        }
+        return myType;
+    }
+
+    /**
+     * This method returns the number of updates until the vehicle is
+     * revived, from the vehicle or its store slot.
+     *
+     * @return The death counter, zero while alive.
+     */
+    protected int getCounter() {
+        final int result;
+        if (myStore == null) {
+            result = myCounter;
+        } else {
+            result = myStore.getCounter(mySlot);
+        }
+        return result;
+    }
+
+    /**
+     * This method sets the number of updates until the vehicle is
+     * revived, in the vehicle or its store slot.
+     *
+     * @param theCounter The new death counter, zero for alive.
+     */
+    protected void setCounter(final int theCounter) {
+        if (myStore == null) {
+            myCounter = theCounter;
+        } else {
+            myStore.setCounter(mySlot, theCounter);
+        }
+    }
 }
\ No newline at end of file
@@ -58,7 +58,7 @@ public class Atv extends AbstractVehicle {
     @Override
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
         myDirections.clear();
-        Direction vehicleDirection = myVehicleDirection;
+        Direction vehicleDirection = getDirection();
         for (final Direction direction : Direction.values()) {
             if (theNeighbors.get(direction) != Terrain.WALL
                 && direction != getDirection().reverse()) {
@@ -59,7 +59,7 @@ public class Bicycle extends AbstractVehicle {
      */
     @Override
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
-        Direction vehicleDirection = myVehicleDirection;
+        Direction vehicleDirection = getDirection();
         for (final Direction direction : Direction.values()) {
             if (theNeighbors.get(direction) == Terrain.TRAIL
                 && direction != getDirection().reverse()) {
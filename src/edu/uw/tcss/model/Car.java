@@ -59,7 +59,7 @@ public class Car extends AbstractVehicle {
      */
     @Override
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
-        Direction vehicleDirection = myVehicleDirection;
+        Direction vehicleDirection = getDirection();
         for (final Direction direction : Direction.values()) {
             if (isValid(theNeighbors.get(getDirection()))) {
                 break;
@@ -5,6 +5,7 @@
 package edu.uw.tcss.model;
 
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * An enumeration (and associated functionality) for directions in which a
@@ -44,6 +45,16 @@ public enum Direction {
      */
     private static final Random RANDOM_GENERATOR = new Random();
 
+    /**
+     * The number of entries in the letter lookup table, enough for every ASCII letter.
+     */
+    private static final int LETTER_TABLE_SIZE = 128;
+
+    /**
+     * The Direction represented by each ASCII letter, or null where there is none.
+     */
+    private static final Direction[] BY_LETTER = byLetter();
+
     /**
      * The letter corresponding to a particular value of the enumeration.
      */
@@ -71,14 +82,22 @@ public enum Direction {
      */
     public static Direction valueOf(final char theLetter) {
         Direction result = null;
-
-        for (final Direction direction : Direction.values()) {
-            if (direction.letter() == theLetter) {
-                result = direction;
-                break;
-            }
+        if (theLetter < LETTER_TABLE_SIZE) {
+            result = BY_LETTER[theLetter];
         }
+        return result;
+    }
 
+    /**
+     * Builds the table of the Direction represented by each ASCII letter.
+     *
+     * @return the table, indexed by letter.
+     */
+    private static Direction[] byLetter() {
+        final Direction[] result = new Direction[LETTER_TABLE_SIZE];
+        for (final Direction value : values()) {
+            result[value.myLetter] = value;
+        }
         return result;
     }
 
@@ -131,7 +150,17 @@ public enum Direction {
      * @return a random Direction.
      */
     public static Direction random() {
-        return values()[RANDOM_GENERATOR.nextInt(values().length)];
+        return random(RANDOM_GENERATOR);
+    }
+
+    /**
+     * Returns a random Direction drawn from the given source of random numbers.
+     * 
+     * @param theRandom The source of random numbers.
+     * @return a random Direction.
+     */
+    public static Direction random(final RandomGenerator theRandom) {
+        return values()[theRandom.nextInt(values().length)];
     }
 
     /**
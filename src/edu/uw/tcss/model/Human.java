@@ -61,7 +61,7 @@ public class Human extends AbstractVehicle {
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
         int isAssigned = 0;
         myDirections.clear();
-        Direction vehicleDirection = myVehicleDirection;
+        Direction vehicleDirection = getDirection();
         for (final Direction direction : Direction.values()) {
             if (theNeighbors.get(direction) == Terrain.CROSSWALK
                     && direction != getDirection().reverse()) {
@@ -75,7 +75,7 @@ public class Human extends AbstractVehicle {
             }
         }
         if (isAssigned == 1) {
-            myVehicleDirection = isAssigned();
+            setDirection(isAssigned());
         } else if (isAssigned == 0) {
             vehicleDirection = getDirection().reverse();
         }
@@ -91,7 +91,7 @@ public class Human extends AbstractVehicle {
      * @return The direction of the vehicle.
      */
     private Direction isAssigned() {
-        Direction vehicleDirection = Direction.random();
+        Direction vehicleDirection = Direction.random(myRandom);
         final int index = myRandom.nextInt(myDirections.size());
         int i = 0;
         for (final Direction direction : myDirections) {
@@ -0,0 +1,124 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.model;
+
+import java.util.Objects;
+
+/**
+ * A TerrainGrid held in one flat array with a byte per square, the Terrain ordinal,
+ * in row-major order: the square at x, y is at index y * width + x. The grid takes
+ * one byte of heap per square, where a Terrain[][] takes a reference per square and
+ * an array object per row, and a lookup is one multiply and one array read.
+ *
+ * <p>The grid is never modified, so it is shared with listeners and other threads
+ * without copying.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class PackedTerrainGrid implements TerrainGrid {
+
+    /**
+     * The largest number of squares in a grid, the largest array that can be
+     * allocated.
+     */
+    public static final int MAX_SQUARES = Integer.MAX_VALUE - 8;
+
+    /**
+     * The Terrain values, indexed by ordinal.
+     */
+    private static final Terrain[] TERRAINS = Terrain.values();
+
+    /**
+     * The Terrain ordinal of each square, in row-major order.
+     */
+    private final byte[] mySquares;
+
+    /**
+     * The number of columns.
+     */
+    private final int myWidth;
+
+    /**
+     * The number of rows.
+     */
+    private final int myHeight;
+
+    /**
+     * Creates a grid from the Terrain ordinals of its squares, which the grid takes
+     * over without copying. The caller must not modify the array afterwards.
+     *
+     * @param theWidth the number of columns.
+     * @param theHeight the number of rows.
+     * @param theSquares the Terrain ordinal of each square, in row-major order.
+     * @throws IllegalArgumentException if the array does not hold one valid ordinal
+     *         for every square.
+     */
+    public PackedTerrainGrid(final int theWidth, final int theHeight,
+                             final byte[] theSquares) {
+        super();
+        if (theWidth < 0 || theHeight < 0
+            || (long) theWidth * theHeight != theSquares.length) {
+            throw new IllegalArgumentException(theSquares.length + " squares for a "
+                                               + theWidth + " x " + theHeight + " grid");
+        }
+        for (int i = 0; i < theSquares.length; i++) {
+            if (theSquares[i] < 0 || theSquares[i] >= TERRAINS.length) {
+                throw new IllegalArgumentException("Terrain ordinal " + theSquares[i]
+                                                   + " at index " + i);
+            }
+        }
+        myWidth = theWidth;
+        myHeight = theHeight;
+        mySquares = theSquares;
+    }
+
+    /**
+     * Checks that a grid is small enough to pack.
+     *
+     * @param theWidth the number of columns.
+     * @param theHeight the number of rows.
+     * @return the number of squares.
+     * @throws IllegalArgumentException if the grid has more than MAX_SQUARES squares.
+     */
+    public static int checkSize(final int theWidth, final int theHeight) {
+        final long squares = (long) theWidth * theHeight;
+        if (squares > MAX_SQUARES) {
+            throw new IllegalArgumentException("A " + theWidth + " x " + theHeight
+                                               + " grid is too large to pack");
+        }
+        return (int) squares;
+    }
+
+    @Override
+    public int getWidth() {
+        return myWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return myHeight;
+    }
+
+    @Override
+    public Terrain getTerrain(final int theX, final int theY) {
+        Objects.checkIndex(theX, myWidth);
+        Objects.checkIndex(theY, myHeight);
+        return TERRAINS[mySquares[theY * myWidth + theX]];
+    }
+
+    @Override
+    public Terrain[][] toArray() {
+        final Terrain[][] result = new Terrain[myHeight][myWidth];
+        for (int y = 0; y < myHeight; y++) {
+            final Terrain[] row = result[y];
+            final int start = y * myWidth;
+            for (int x = 0; x < myWidth; x++) {
+                row[x] = TERRAINS[mySquares[start + x]];
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.model;
+
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * A seeded source of independent random streams, one for each vehicle. The streams
+ * are split from a master generator in the order they are asked for, so handing them
+ * out in vehicle order from the same seed always gives each vehicle the same stream.
+ * Each stream belongs to one vehicle, so vehicles moved on different threads never
+ * share a generator.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class RandomSource {
+
+    /**
+     * The generator the streams are split from.
+     */
+    private final SplittableRandom myMaster;
+
+    /**
+     * Creates a source of streams from a master seed.
+     *
+     * @param theSeed the master seed.
+     */
+    public RandomSource(final long theSeed) {
+        super();
+        myMaster = new SplittableRandom(theSeed);
+    }
+
+    /**
+     * Returns a seed that is different on every call, for runs that were not
+     * given one.
+     *
+     * @return a new seed.
+     */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    /**
+     * Returns the next independent stream.
+     *
+     * @return a new random stream.
+     */
+    public RandomGenerator split() {
+        return myMaster.split();
+    }
+}
@@ -78,7 +78,7 @@ public class Taxi extends AbstractVehicle {
      */
     @Override
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
-        Direction vehicleDirection = myVehicleDirection;
+        Direction vehicleDirection = getDirection();
         for (final Direction direction : Direction.values()) {
             if (isValid(theNeighbors.get(getDirection()))) {
                 break;
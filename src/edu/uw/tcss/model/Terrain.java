@@ -45,6 +45,16 @@ public enum Terrain {
      */
     CROSSWALK('#');
 
+    /**
+     * The number of entries in the letter lookup table, enough for every ASCII letter.
+     */
+    private static final int LETTER_TABLE_SIZE = 128;
+
+    /**
+     * The Terrain represented by each ASCII letter, or null where there is none.
+     */
+    private static final Terrain[] BY_LETTER = byLetter();
+
     /**
      * The character corresponding to a particular value of the enumeration.
      */
@@ -72,14 +82,31 @@ public enum Terrain {
      */
     public static Terrain valueOf(final char theLetter) {
         Terrain result = GRASS;
-
-        for (final Terrain terrain : Terrain.values()) {
-            if (terrain.myLetter == theLetter) {
-                result = terrain;
-                break;
-            }
+        if (theLetter < LETTER_TABLE_SIZE && BY_LETTER[theLetter] != null) {
+            result = BY_LETTER[theLetter];
         }
+        return result;
+    }
 
+    /**
+     * Returns the letter corresponding to this Terrain.
+     * 
+     * @return the letter corresponding to this Terrain.
+     */
+    public char letter() {
+        return myLetter;
+    }
+
+    /**
+     * Builds the table of the Terrain represented by each ASCII letter.
+     *
+     * @return the table, indexed by letter.
+     */
+    private static Terrain[] byLetter() {
+        final Terrain[] result = new Terrain[LETTER_TABLE_SIZE];
+        for (final Terrain value : values()) {
+            result[value.myLetter] = value;
+        }
         return result;
     }
 
@@ -0,0 +1,99 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.model;
+
+/**
+ * A read-only, rectangular grid of Terrain. The simulation reads the map only through
+ * this interface, so the grid may be held in any form, such as an array or a
+ * memory-mapped file, without being copied onto the heap first.
+ *
+ * <p>Squares are addressed by x-coordinate (column) and y-coordinate (row), counting
+ * from the top left. Implementations must allow any number of threads to read the
+ * grid at once.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public interface TerrainGrid {
+
+    /**
+     * Creates a PackedTerrainGrid with the squares of a 2D array of Terrain, indexed by
+     * row and then column.
+     *
+     * @param theGrid the rows of the grid.
+     * @return the grid.
+     * @throws IllegalArgumentException if the rows differ in length or the grid is
+     *         too large to pack.
+     */
+    static TerrainGrid of(final Terrain[][] theGrid) {
+        final int height = theGrid.length;
+        int width = 0;
+        if (height > 0) {
+            width = theGrid[0].length;
+        }
+        final byte[] squares = new byte[PackedTerrainGrid.checkSize(width, height)];
+        for (int y = 0; y < height; y++) {
+            if (theGrid[y].length != width) {
+                throw new IllegalArgumentException("Row " + y + " has " + theGrid[y].length
+                                                   + " squares, expected " + width);
+            }
+            for (int x = 0; x < width; x++) {
+                squares[y * width + x] = (byte) theGrid[y][x].ordinal();
+            }
+        }
+        return new PackedTerrainGrid(width, height, squares);
+    }
+
+    /**
+     * Returns the width of the grid.
+     *
+     * @return the number of columns.
+     */
+    int getWidth();
+
+    /**
+     * Returns the height of the grid.
+     *
+     * @return the number of rows.
+     */
+    int getHeight();
+
+    /**
+     * Returns the Terrain of a square.
+     *
+     * @param theX the x-coordinate of the square.
+     * @param theY the y-coordinate of the square.
+     * @return the Terrain.
+     * @throws IndexOutOfBoundsException if the square is not on the grid.
+     */
+    Terrain getTerrain(int theX, int theY);
+
+    /**
+     * Tests whether a square is on the grid.
+     *
+     * @param theX the x-coordinate of the square.
+     * @param theY the y-coordinate of the square.
+     * @return true if the square is on the grid, false otherwise.
+     */
+    default boolean contains(final int theX, final int theY) {
+        return theX >= 0 && theX < getWidth() && theY >= 0 && theY < getHeight();
+    }
+
+    /**
+     * Copies the grid into a new 2D array, indexed by row and then column.
+     *
+     * @return the array.
+     */
+    default Terrain[][] toArray() {
+        final Terrain[][] result = new Terrain[getHeight()][getWidth()];
+        for (int y = 0; y < result.length; y++) {
+            final Terrain[] row = result[y];
+            for (int x = 0; x < row.length; x++) {
+                row[x] = getTerrain(x, y);
+            }
+        }
+        return result;
+    }
+}
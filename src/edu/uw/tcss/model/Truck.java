@@ -56,7 +56,7 @@ public class Truck extends AbstractVehicle {
     public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
         myDirections.clear();
         int isAssigned = 0;
-        Direction vehicleDirection = myVehicleDirection;
+        Direction vehicleDirection = getDirection();
         for (final Direction direction : Direction.values()) {
             if ((theNeighbors.get(direction) == Terrain.STREET
                     || theNeighbors.get(direction) == Terrain.CROSSWALK
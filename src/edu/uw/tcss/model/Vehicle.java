@@ -5,6 +5,7 @@
 package edu.uw.tcss.model;
 
 import java.util.Map;
+import java.util.random.RandomGenerator;
 
 /**
  * An interface for objects that can move in four directions.
@@ -105,6 +106,18 @@ public interface Vehicle {
      */
     void setDirection(Direction theDir);
 
+    /**
+     * Sets the source of random numbers this object uses to make choices. The
+     * simulation calls this with a seeded stream so that runs can be replayed. By
+     * default it does nothing, for vehicles that make no random choices or keep
+     * their own source.
+     * 
+     * @param theRandom The new source of random numbers.
+     */
+    default void setRandom(final RandomGenerator theRandom) {
+        // do nothing
+    }
+
     /**
      * Sets this object's x-coordinate to the given value.
      * 
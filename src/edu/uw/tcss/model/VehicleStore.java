@@ -0,0 +1,194 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.model;
+
+/**
+ * Storage for the changing state of many vehicles, kept in parallel primitive arrays
+ * indexed by slot. An AbstractVehicle attached to a store is a view over one slot, so a
+ * simulation that keeps all of its vehicles in one store can walk their positions,
+ * directions and death counters without visiting the vehicle objects.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class VehicleStore {
+
+    /**
+     * The Directions, indexed by ordinal.
+     */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The VehicleTypes, indexed by ordinal.
+     */
+    private static final VehicleType[] TYPES = VehicleType.values();
+
+    /**
+     * The x-coordinate of each slot.
+     */
+    private final int[] myX;
+
+    /**
+     * The y-coordinate of each slot.
+     */
+    private final int[] myY;
+
+    /**
+     * The number of updates until each slot is revived, zero while alive.
+     */
+    private final int[] myCounter;
+
+    /**
+     * The Direction ordinal of each slot.
+     */
+    private final byte[] myDirection;
+
+    /**
+     * The VehicleType ordinal of each slot.
+     */
+    private final byte[] myType;
+
+    /**
+     * Creates a store with the given number of slots.
+     *
+     * @param theCapacity the number of slots.
+     */
+    public VehicleStore(final int theCapacity) {
+        super();
+        myX = new int[theCapacity];
+        myY = new int[theCapacity];
+        myCounter = new int[theCapacity];
+        myDirection = new byte[theCapacity];
+        myType = new byte[theCapacity];
+    }
+
+    /**
+     * Returns the number of slots in this store.
+     *
+     * @return the number of slots.
+     */
+    public int size() {
+        return myX.length;
+    }
+
+    /**
+     * Returns the x-coordinate of a slot.
+     *
+     * @param theSlot the slot.
+     * @return the x-coordinate.
+     */
+    public int getX(final int theSlot) {
+        return myX[theSlot];
+    }
+
+    /**
+     * Sets the x-coordinate of a slot.
+     *
+     * @param theSlot the slot.
+     * @param theX the new x-coordinate.
+     */
+    public void setX(final int theSlot, final int theX) {
+        myX[theSlot] = theX;
+    }
+
+    /**
+     * Returns the y-coordinate of a slot.
+     *
+     * @param theSlot the slot.
+     * @return the y-coordinate.
+     */
+    public int getY(final int theSlot) {
+        return myY[theSlot];
+    }
+
+    /**
+     * Sets the y-coordinate of a slot.
+     *
+     * @param theSlot the slot.
+     * @param theY the new y-coordinate.
+     */
+    public void setY(final int theSlot, final int theY) {
+        myY[theSlot] = theY;
+    }
+
+    /**
+     * Returns the Direction of a slot.
+     *
+     * @param theSlot the slot.
+     * @return the Direction.
+     */
+    public Direction getDirection(final int theSlot) {
+        return DIRECTIONS[myDirection[theSlot]];
+    }
+
+    /**
+     * Sets the Direction of a slot.
+     *
+     * @param theSlot the slot.
+     * @param theDirection the new Direction.
+     */
+    public void setDirection(final int theSlot, final Direction theDirection) {
+        myDirection[theSlot] = (byte) theDirection.ordinal();
+    }
+
+    /**
+     * Returns the number of updates until a slot is revived.
+     *
+     * @param theSlot the slot.
+     * @return the death counter, zero while alive.
+     */
+    public int getCounter(final int theSlot) {
+        return myCounter[theSlot];
+    }
+
+    /**
+     * Sets the number of updates until a slot is revived.
+     *
+     * @param theSlot the slot.
+     * @param theCounter the new death counter, zero for alive.
+     */
+    public void setCounter(final int theSlot, final int theCounter) {
+        myCounter[theSlot] = theCounter;
+    }
+
+    /**
+     * Returns whether the vehicle in a slot is alive.
+     *
+     * @param theSlot the slot.
+     * @return true if the death counter is zero, false otherwise.
+     */
+    public boolean isAlive(final int theSlot) {
+        return myCounter[theSlot] == 0;
+    }
+
+    /**
+     * Moves the vehicle in a slot one update closer to revival.
+     *
+     * @param theSlot the slot.
+     */
+    public void poke(final int theSlot) {
+        myCounter[theSlot]--;
+    }
+
+    /**
+     * Returns the VehicleType of a slot.
+     *
+     * @param theSlot the slot.
+     * @return the VehicleType.
+     */
+    public VehicleType getType(final int theSlot) {
+        return TYPES[myType[theSlot]];
+    }
+
+    /**
+     * Sets the VehicleType of a slot.
+     *
+     * @param theSlot the slot.
+     * @param theType the new VehicleType.
+     */
+    public void setType(final int theSlot, final VehicleType theType) {
+        myType[theSlot] = (byte) theType.ordinal();
+    }
+}
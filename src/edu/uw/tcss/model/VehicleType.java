@@ -0,0 +1,207 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.model;
+
+import java.util.Locale;
+
+/**
+ * An enumeration of the kinds of vehicle in the simulation, with the letter used for
+ * each in city map files.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public enum VehicleType {
+
+    /**
+     * An Atv.
+     */
+    ATV('A'),
+
+    /**
+     * A Bicycle.
+     */
+    BICYCLE('B'),
+
+    /**
+     * A Car.
+     */
+    CAR('C'),
+
+    /**
+     * A Human.
+     */
+    HUMAN('H'),
+
+    /**
+     * A Taxi.
+     */
+    TAXI('X'),
+
+    /**
+     * A Truck.
+     */
+    TRUCK('T');
+
+    /**
+     * The number of entries in the letter lookup table, enough for every ASCII letter.
+     */
+    private static final int LETTER_TABLE_SIZE = 128;
+
+    /**
+     * The VehicleType represented by each ASCII letter, or null where there is none.
+     */
+    private static final VehicleType[] BY_LETTER = byLetter();
+
+    /**
+     * The letter corresponding to a particular value of the enumeration.
+     */
+    private final char myLetter;
+
+    /**
+     * The name of the image file for a living vehicle of this type.
+     */
+    private final String myImageFileName;
+
+    /**
+     * The name of the image file for a dead vehicle of this type.
+     */
+    private final String myDeadImageFileName;
+
+    /**
+     * Constructs a new VehicleType with the specified letter.
+     *
+     * @param theLetter The letter.
+     */
+    VehicleType(final char theLetter) {
+        myLetter = theLetter;
+        final String name = name().toLowerCase(Locale.ROOT);
+        myImageFileName = name + ".gif";
+        myDeadImageFileName = name + "_dead.gif";
+    }
+
+    /**
+     * Returns the VehicleType represented by the given letter.
+     *
+     * @param theLetter The letter.
+     * @return the VehicleType represented by the given letter, or null if no
+     *         VehicleType is represented by the given letter.
+     */
+    public static VehicleType valueOf(final char theLetter) {
+        VehicleType result = null;
+        if (theLetter < LETTER_TABLE_SIZE) {
+            result = BY_LETTER[theLetter];
+        }
+        return result;
+    }
+
+    /**
+     * Builds the table of the VehicleType represented by each ASCII letter.
+     *
+     * @return the table, indexed by letter.
+     */
+    private static VehicleType[] byLetter() {
+        final VehicleType[] result = new VehicleType[LETTER_TABLE_SIZE];
+        for (final VehicleType value : values()) {
+            result[value.myLetter] = value;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the VehicleType of the given Vehicle. A Vehicle that is none of the
+     * known kinds, such as a test double, is given a fallback type rather than
+     * rejected.
+     *
+     * @param theVehicle The Vehicle.
+     * @return the VehicleType of the Vehicle.
+     */
+    public static VehicleType of(final Vehicle theVehicle) {
+        final VehicleType result;
+        if (theVehicle instanceof Atv) {
+            result = ATV;
+        } else if (theVehicle instanceof Bicycle) {
+            result = BICYCLE;
+        } else if (theVehicle instanceof Car) {
+            result = CAR;
+        } else if (theVehicle instanceof Human) {
+            result = HUMAN;
+        } else if (theVehicle instanceof Taxi) {
+            result = TAXI;
+        } else if (theVehicle instanceof Truck) {
+            result = TRUCK;
+        } else {
+            result = byClassName(theVehicle);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the VehicleType of a Vehicle that is none of the known kinds: the type
+     * named like its class, as the image file names of the known kinds are, or CAR
+     * if there is none. The Vehicle keeps its own image file name; the type is only
+     * what a simulation stores it as and a view built from a TickView draws it as.
+     *
+     * @param theVehicle The Vehicle.
+     * @return the VehicleType to draw and store the Vehicle as.
+     */
+    private static VehicleType byClassName(final Vehicle theVehicle) {
+        final String name = theVehicle.getClass().getSimpleName();
+        VehicleType result = CAR;
+        for (final VehicleType value : values()) {
+            if (value.name().equalsIgnoreCase(name)) {
+                result = value;
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the letter corresponding to this VehicleType.
+     *
+     * @return the letter corresponding to this VehicleType.
+     */
+    public char letter() {
+        return myLetter;
+    }
+
+    /**
+     * Returns the name of the image file for a vehicle of this type, the same name
+     * getImageFileName returns for the vehicle.
+     *
+     * @param theAlive whether the vehicle is alive.
+     * @return the image file name.
+     */
+    public String getImageFileName(final boolean theAlive) {
+        final String result;
+        if (theAlive) {
+            result = myImageFileName;
+        } else {
+            result = myDeadImageFileName;
+        }
+        return result;
+    }
+
+    /**
+     * Creates a new Vehicle of this type.
+     *
+     * @param theX The x-coordinate of the new Vehicle.
+     * @param theY The y-coordinate of the new Vehicle.
+     * @param theDirection The Direction of the new Vehicle.
+     * @return the new Vehicle.
+     */
+    public AbstractVehicle create(final int theX, final int theY,
+                                  final Direction theDirection) {
+        return switch (this) {
+            case ATV -> new Atv(theX, theY, theDirection);
+            case BICYCLE -> new Bicycle(theX, theY, theDirection);
+            case CAR -> new Car(theX, theY, theDirection);
+            case HUMAN -> new Human(theX, theY, theDirection);
+            case TAXI -> new Taxi(theX, theY, theDirection);
+            case TRUCK -> new Truck(theX, theY, theDirection);
+        };
+    }
+}
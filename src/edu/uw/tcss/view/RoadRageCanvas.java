@@ -0,0 +1,608 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.logic.SimulationListener;
+import edu.uw.tcss.logic.TickScheduler;
+import edu.uw.tcss.logic.TickView;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.Canvas;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.ImageCapabilities;
+import java.awt.RenderingHints;
+import java.awt.Toolkit;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+import java.io.Serial;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An actively rendered view of the whole map, for high refresh rates and busy maps.
+ * Instead of asking Swing to repaint, a render thread of its own draws each frame
+ * into the accelerated back buffer of a BufferStrategy and shows it, on a schedule
+ * kept with System.nanoTime, so how long each frame takes can be measured and does
+ * not depend on the RepaintManager.
+ *
+ * <p>The canvas is a SimulationListener that expects to be called on one thread at a
+ * time, with TickViews it may keep, such as the TickSnapshots delivered by an
+ * AsyncListener. Each call publishes a new Scene for the render thread to draw.
+ *
+ * <p>The map is scaled to the largest whole number of pixels per square that fits
+ * the canvas. The terrain, with its lights in each color, is drawn once into a
+ * VolatileImage, and again only when the grid or the scale changes or the image is
+ * lost. A frame copies that image and draws the vehicles over it, sliding each
+ * vehicle that moved one square between ticks when ticks come slower than frames.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public final class RoadRageCanvas extends Canvas implements SimulationListener {
+
+    /**
+     * The serial version UID.
+     */
+    @Serial
+    private static final long serialVersionUID = 0;
+
+    /**
+     * The size in map units of a side of one square.
+     */
+    private static final int SQUARE_SIZE = TerrainPainter.SQUARE_SIZE;
+
+    /**
+     * The number of buffers in the buffer strategy.
+     */
+    private static final int BUFFERS = 2;
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The number of nanoseconds in a millisecond.
+     */
+    private static final double NANOS_PER_MILLISECOND = 1_000_000.0;
+
+    /**
+     * The largest width in pixels the canvas asks for.
+     */
+    private static final int MAX_PREFERRED_WIDTH = 1200;
+
+    /**
+     * The largest height in pixels the canvas asks for.
+     */
+    private static final int MAX_PREFERRED_HEIGHT = 800;
+
+    /**
+     * The number of nanoseconds between frames.
+     */
+    private final long myFrameNanos;
+
+    /**
+     * The number of frames drawn each second.
+     */
+    private final int myFramesPerSecond;
+
+    /**
+     * The latest state of the simulation to draw.
+     */
+    private volatile Scene myScene;
+
+    /**
+     * The number of nanoseconds between ticks, over which a move is drawn.
+     */
+    private volatile long myTickNanos;
+
+    /**
+     * The thread drawing the frames, or null if none should be.
+     */
+    private volatile Thread myRenderer;
+
+    /**
+     * The number of frames drawn each second, measured over about the last second.
+     */
+    private volatile double myFrameRate;
+
+    /**
+     * The average time taken to draw and show a frame, in milliseconds, measured over
+     * about the last second.
+     */
+    private volatile double myFrameMillis;
+
+    /**
+     * The longest time taken to draw and show a frame, in milliseconds, over about
+     * the last second.
+     */
+    private volatile double myWorstFrameMillis;
+
+    /**
+     * The number of frames skipped because drawing fell behind.
+     */
+    private volatile long myDroppedFrames;
+
+    /**
+     * The terrain and lights drawn in each color, indexed by Light ordinal, or null
+     * where they have not been drawn. Used only by the render thread.
+     */
+    private final VolatileImage[] myLayers;
+
+    /**
+     * The grid drawn in myLayers. Used only by the render thread.
+     */
+    private TerrainGrid myLayerGrid;
+
+    /**
+     * The pixels per square of myLayers and mySprites. Used only by the render thread.
+     */
+    private int mySquareSize;
+
+    /**
+     * The images of the vehicles at mySquareSize, or null until they are needed. Used
+     * only by the render thread.
+     */
+    private SpriteCache mySprites;
+
+    /**
+     * The System.nanoTime at which the current frame measurement began. Used only by
+     * the render thread.
+     */
+    private long myMeasureStart;
+
+    /**
+     * The number of frames drawn since the current frame measurement began. Used only
+     * by the render thread.
+     */
+    private int myMeasuredFrames;
+
+    /**
+     * The total time taken by the frames since the current frame measurement began.
+     * Used only by the render thread.
+     */
+    private long myMeasuredNanos;
+
+    /**
+     * The longest time taken by a frame since the current frame measurement began.
+     * Used only by the render thread.
+     */
+    private long myMeasuredWorst;
+
+    /**
+     * Constructs a new canvas.
+     *
+     * @param theWidth width of the 2D grid of Terrain that defines the map
+     * @param theHeight height of the 2D grid of Terrain that defines the map
+     * @param theFramesPerSecond the number of frames to draw each second
+     * @throws IllegalArgumentException if the frame rate is not a valid tick rate
+     */
+    public RoadRageCanvas(final int theWidth, final int theHeight,
+                          final int theFramesPerSecond) {
+        super();
+        if (theFramesPerSecond < TickScheduler.MIN_TICKS_PER_SECOND
+            || theFramesPerSecond > TickScheduler.MAX_TICKS_PER_SECOND) {
+            throw new IllegalArgumentException("Frame rate out of range: "
+                                               + theFramesPerSecond);
+        }
+        myFramesPerSecond = theFramesPerSecond;
+        myFrameNanos = NANOS_PER_SECOND / theFramesPerSecond;
+        myTickNanos = myFrameNanos;
+        myScene = new Scene(TerrainGrid.of(new Terrain[0][0]), Light.GREEN, null, null, 0);
+        myLayers = new VolatileImage[Light.values().length];
+        final int size = Math.max(1, Math.min(SQUARE_SIZE,
+            Math.min(MAX_PREFERRED_WIDTH / Math.max(1, theWidth),
+                     MAX_PREFERRED_HEIGHT / Math.max(1, theHeight))));
+        setPreferredSize(new Dimension(theWidth * size, theHeight * size));
+        setBackground(Color.GREEN);
+        setIgnoreRepaint(true);
+    }
+
+    /**
+     * Sets the rate at which ticks are expected, so that each move is drawn over the
+     * time between ticks.
+     *
+     * @param theTicksPerSecond the number of ticks run each second.
+     * @throws IllegalArgumentException if the rate is not a valid tick rate
+     */
+    public void setTicksPerSecond(final int theTicksPerSecond) {
+        if (theTicksPerSecond < TickScheduler.MIN_TICKS_PER_SECOND
+            || theTicksPerSecond > TickScheduler.MAX_TICKS_PER_SECOND) {
+            throw new IllegalArgumentException("Tick rate out of range: "
+                                               + theTicksPerSecond);
+        }
+        myTickNanos = NANOS_PER_SECOND / theTicksPerSecond;
+    }
+
+    /**
+     * Returns the number of frames drawn each second, measured over about the last
+     * second.
+     *
+     * @return the measured frame rate.
+     */
+    public double getFrameRate() {
+        return myFrameRate;
+    }
+
+    /**
+     * Returns the average time taken to draw and show a frame, measured over about the
+     * last second.
+     *
+     * @return the average frame time in milliseconds.
+     */
+    public double getFrameMillis() {
+        return myFrameMillis;
+    }
+
+    /**
+     * Returns the longest time taken to draw and show a frame over about the last
+     * second.
+     *
+     * @return the longest frame time in milliseconds.
+     */
+    public double getWorstFrameMillis() {
+        return myWorstFrameMillis;
+    }
+
+    /**
+     * Returns the number of frames skipped because drawing could not keep up with the
+     * frame rate.
+     *
+     * @return the number of dropped frames.
+     */
+    public long getDroppedFrames() {
+        return myDroppedFrames;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        final Thread renderer = new Thread(this::render, "Road Rage render");
+        renderer.setDaemon(true);
+        myRenderer = renderer;
+        renderer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        final Thread renderer = myRenderer;
+        myRenderer = null;
+        LockSupport.unpark(renderer);
+        super.removeNotify();
+    }
+
+    /**
+     * Does nothing; the render thread draws every frame.
+     *
+     * @param theGraphics The Graphics object.
+     */
+    @Override
+    public void paint(final Graphics theGraphics) {
+        // frames are drawn by the render thread
+    }
+
+    /**
+     * Does nothing; the render thread draws every frame.
+     *
+     * @param theGraphics The Graphics object.
+     */
+    @Override
+    public void update(final Graphics theGraphics) {
+        // frames are drawn by the render thread
+    }
+
+    @Override
+    public void onGrid(final TerrainGrid theGrid) {
+        final Scene scene = myScene;
+        myScene = new Scene(theGrid, scene.myLight, null, null, 0);
+    }
+
+    @Override
+    public void onLight(final Light theLight) {
+        final Scene scene = myScene;
+        myScene = new Scene(scene.myGrid, theLight, scene.myView, scene.myPreviousView,
+                            scene.myArrival);
+    }
+
+    @Override
+    public void onTick(final long theTimestep, final TickView theView) {
+        final Scene scene = myScene;
+        // a move can only be drawn between two consecutive ticks
+        TickView previous = null;
+        if (scene.myView != null && scene.myView.getTimestep() == theTimestep - 1
+            && scene.myView.getVehicleCount() == theView.getVehicleCount()) {
+            previous = scene.myView;
+        }
+        myScene = new Scene(scene.myGrid, scene.myLight, theView, previous,
+                            System.nanoTime());
+    }
+
+    /**
+     * Draws frames on schedule until the canvas is removed. Runs on the render thread.
+     */
+    private void render() {
+        final TickScheduler frames = new TickScheduler(myFramesPerSecond);
+        long late = 0;
+        long now = System.nanoTime();
+        frames.start(now);
+        myMeasureStart = now;
+        while (myRenderer == Thread.currentThread()) {
+            now = System.nanoTime();
+            final long due = frames.takeDueTicks(now);
+            if (due == 0) {
+                LockSupport.parkNanos(frames.nanosUntilDue(now));
+            } else {
+                late += due - 1;
+                myDroppedFrames = late + frames.getMissedTicks();
+                if (isDisplayable() && getWidth() > 0 && getHeight() > 0) {
+                    drawFrame(now);
+                    measure(now, System.nanoTime());
+                }
+            }
+        }
+        for (final VolatileImage layer : myLayers) {
+            if (layer != null) {
+                layer.flush();
+            }
+        }
+    }
+
+    /**
+     * Draws one frame into the back buffer and shows it, drawing it again if the
+     * buffer's contents are lost on the way.
+     *
+     * @param theNow The System.nanoTime at which the frame is due.
+     */
+    private void drawFrame(final long theNow) {
+        try {
+            BufferStrategy strategy = getBufferStrategy();
+            if (strategy == null) {
+                createStrategy();
+                strategy = getBufferStrategy();
+            }
+            do {
+                do {
+                    final Graphics2D graphics = (Graphics2D) strategy.getDrawGraphics();
+                    try {
+                        drawScene(graphics, myScene, theNow);
+                    } finally {
+                        graphics.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+        } catch (final IllegalStateException exception) {
+            // the canvas was removed while the frame was being drawn
+        }
+    }
+
+    /**
+     * Creates the buffer strategy, with accelerated buffers if they are available.
+     */
+    private void createStrategy() {
+        final ImageCapabilities accelerated = new ImageCapabilities(true);
+        try {
+            createBufferStrategy(BUFFERS,
+                                 new BufferCapabilities(accelerated, accelerated, null));
+        } catch (final AWTException exception) {
+            createBufferStrategy(BUFFERS);
+        }
+    }
+
+    /**
+     * Draws a scene: the terrain and lights, then every vehicle.
+     *
+     * @param theGraphics The Graphics2D object that draws into the back buffer.
+     * @param theScene The scene.
+     * @param theNow The System.nanoTime at which the frame is due.
+     */
+    private void drawScene(final Graphics2D theGraphics, final Scene theScene,
+                           final long theNow) {
+        final TerrainGrid grid = theScene.myGrid;
+        final int size = Math.max(1, Math.min(getWidth() / Math.max(1, grid.getWidth()),
+                                              getHeight() / Math.max(1, grid.getHeight())));
+        if (grid != myLayerGrid || size != mySquareSize) {
+            for (int i = 0; i < myLayers.length; i++) {
+                if (myLayers[i] != null) {
+                    myLayers[i].flush();
+                    myLayers[i] = null;
+                }
+            }
+            myLayerGrid = grid;
+            mySquareSize = size;
+            mySprites = null;
+        }
+
+        theGraphics.setPaint(getBackground());
+        theGraphics.fillRect(0, 0, getWidth(), getHeight());
+        if (grid.getHeight() > 0 && grid.getWidth() > 0) {
+            final int light = theScene.myLight.ordinal();
+            do {
+                drawLayer(light, grid);
+                theGraphics.drawImage(myLayers[light], 0, 0, null);
+            } while (myLayers[light].contentsLost());
+        }
+        if (theScene.myView != null) {
+            drawVehicles(theGraphics, theScene, theNow);
+        }
+    }
+
+    /**
+     * Makes sure the terrain and lights in one color are drawn in their layer,
+     * creating the layer or drawing it again if it is missing or was lost.
+     *
+     * @param theLight The ordinal of the Light whose color the lights are drawn in.
+     * @param theGrid The terrain grid.
+     */
+    private void drawLayer(final int theLight, final TerrainGrid theGrid) {
+        VolatileImage layer = myLayers[theLight];
+        int status = VolatileImage.IMAGE_INCOMPATIBLE;
+        if (layer != null) {
+            status = layer.validate(getGraphicsConfiguration());
+        }
+        if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if (layer != null) {
+                layer.flush();
+            }
+            layer = createVolatileImage(theGrid.getWidth() * mySquareSize,
+                                        theGrid.getHeight() * mySquareSize);
+            myLayers[theLight] = layer;
+        }
+        if (status != VolatileImage.IMAGE_OK) {
+            final Graphics2D graphics = layer.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                      RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setPaint(getBackground());
+            graphics.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+            graphics.scale((double) mySquareSize / SQUARE_SIZE,
+                           (double) mySquareSize / SQUARE_SIZE);
+            TerrainPainter.paint(graphics, theGrid, 0, 0, theGrid.getWidth() - 1,
+                                 theGrid.getHeight() - 1);
+            graphics.setPaint(TerrainPainter.lightColor(Light.values()[theLight]));
+            for (int y = 0; y < theGrid.getHeight(); y++) {
+                for (int x = 0; x < theGrid.getWidth(); x++) {
+                    final Terrain terrain = theGrid.getTerrain(x, y);
+                    if (terrain == Terrain.LIGHT || terrain == Terrain.CROSSWALK) {
+                        TerrainPainter.paintLight(graphics, terrain == Terrain.CROSSWALK,
+                                                  x * SQUARE_SIZE, y * SQUARE_SIZE);
+                    }
+                }
+            }
+            graphics.dispose();
+        }
+    }
+
+    /**
+     * Draws every vehicle in index order, part way through its move if ticks come
+     * slower than frames.
+     *
+     * @param theGraphics The Graphics2D object that draws into the back buffer.
+     * @param theScene The scene.
+     * @param theNow The System.nanoTime at which the frame is due.
+     */
+    private void drawVehicles(final Graphics2D theGraphics, final Scene theScene,
+                              final long theNow) {
+        if (mySprites == null) {
+            mySprites = new SpriteCache(mySquareSize);
+        }
+        final TickView view = theScene.myView;
+        final TickView previous = theScene.myPreviousView;
+        final long tickNanos = myTickNanos;
+        double progress = 1;
+        if (previous != null && tickNanos > myFrameNanos) {
+            progress = Math.min(1, (double) (theNow - theScene.myArrival) / tickNanos);
+        }
+        for (int i = 0; i < view.getVehicleCount(); i++) {
+            int x = view.getX(i) * mySquareSize;
+            int y = view.getY(i) * mySquareSize;
+            if (progress < 1 && isOneSquareMove(view, previous, i)) {
+                x += (int) ((previous.getX(i) * mySquareSize - x) * (1 - progress));
+                y += (int) ((previous.getY(i) * mySquareSize - y) * (1 - progress));
+            }
+            theGraphics.drawImage(mySprites.get(view.getType(i), view.isAlive(i)),
+                                  x, y, null);
+        }
+    }
+
+    /**
+     * Records the time taken by a frame, and publishes the measurements once about a
+     * second of frames has been drawn.
+     *
+     * @param theStart The System.nanoTime at which the frame began.
+     * @param theEnd The System.nanoTime at which the frame was shown.
+     */
+    private void measure(final long theStart, final long theEnd) {
+        final long nanos = theEnd - theStart;
+        myMeasuredFrames++;
+        myMeasuredNanos += nanos;
+        myMeasuredWorst = Math.max(myMeasuredWorst, nanos);
+        final long elapsed = theEnd - myMeasureStart;
+        if (elapsed >= NANOS_PER_SECOND) {
+            myFrameRate = (double) myMeasuredFrames * NANOS_PER_SECOND / elapsed;
+            myFrameMillis = myMeasuredNanos / NANOS_PER_MILLISECOND / myMeasuredFrames;
+            myWorstFrameMillis = myMeasuredWorst / NANOS_PER_MILLISECOND;
+            myMeasureStart = theEnd;
+            myMeasuredFrames = 0;
+            myMeasuredNanos = 0;
+            myMeasuredWorst = 0;
+        }
+    }
+
+    /**
+     * Tests whether a vehicle, alive in both ticks, moved exactly one square between
+     * them.
+     *
+     * @param theView The later tick.
+     * @param thePrevious The tick before it.
+     * @param theIndex The index of the vehicle.
+     * @return true if the vehicle moved one square, false otherwise.
+     */
+    private static boolean isOneSquareMove(final TickView theView,
+                                           final TickView thePrevious,
+                                           final int theIndex) {
+        return theView.isAlive(theIndex) && thePrevious.isAlive(theIndex)
+            && Math.abs(theView.getX(theIndex) - thePrevious.getX(theIndex))
+               + Math.abs(theView.getY(theIndex) - thePrevious.getY(theIndex)) == 1;
+    }
+
+    /**
+     * The state of the simulation at one moment, as handed to the render thread. A
+     * new Scene replaces the old one whenever anything changes, so the render thread
+     * always sees a consistent state.
+     */
+    private static final class Scene {
+
+        /**
+         * The terrain grid.
+         */
+        private final TerrainGrid myGrid;
+
+        /**
+         * The color of the lights.
+         */
+        private final Light myLight;
+
+        /**
+         * The state of the vehicles, or null before the first tick.
+         */
+        private final TickView myView;
+
+        /**
+         * The state of the vehicles one tick before myView, or null if it is unknown.
+         */
+        private final TickView myPreviousView;
+
+        /**
+         * The System.nanoTime at which myView arrived.
+         */
+        private final long myArrival;
+
+        /**
+         * Creates a scene.
+         *
+         * @param theGrid The terrain grid.
+         * @param theLight The color of the lights.
+         * @param theView The state of the vehicles, or null before the first tick.
+         * @param thePreviousView The state one tick before, or null if it is unknown.
+         * @param theArrival The System.nanoTime at which theView arrived.
+         */
+        @SuppressWarnings("MethodWithTooManyParameters")
+        private Scene(final TerrainGrid theGrid, final Light theLight,
+                      final TickView theView, final TickView thePreviousView,
+                      final long theArrival) {
+            myGrid = theGrid;
+            myLight = theLight;
+            myView = theView;
+            myPreviousView = thePreviousView;
+            myArrival = theArrival;
+        }
+    }
+}
@@ -5,28 +5,43 @@
 package edu.uw.tcss.view;
 
 import edu.uw.tcss.io.FileLoader;
-import edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls;
+import edu.uw.tcss.logic.AsyncListener;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.logic.SimulationListener;
+import edu.uw.tcss.logic.SimulationThread;
+import edu.uw.tcss.logic.TickScheduler;
+import edu.uw.tcss.logic.TickView;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.TerrainGrid;
 import java.awt.BorderLayout;
+import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
+import java.awt.DisplayMode;
+import java.awt.EventQueue;
 import java.awt.FlowLayout;
+import java.awt.GraphicsEnvironment;
 import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.Serial;
+import java.util.Hashtable;
+import java.util.List;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JSlider;
 import javax.swing.SwingConstants;
-import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 /**
- * The graphical user interface for the Road Rage program.
+ * The graphical user interface for the Road Rage program. The simulation runs on a
+ * SimulationThread; the buttons and slider send it commands, and the Event Dispatch
+ * Thread only renders the snapshots it publishes.
  * 
  * @author Marty Stepp
  * @author Daniel M. Zimmerman
@@ -78,52 +93,98 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
     private static final String RESET_COMMAND = "Reset";
 
     /**
-     * The initial frames per second at which the simulation will run.
+     * The Zoom In command.
      */
-    private static final int INITIAL_FRAMES_PER_SECOND = 10;
+    private static final String ZOOM_IN_COMMAND = "Zoom In";
 
     /**
-     * The maximum frames per second at which the simulation will run.
+     * The Zoom Out command.
      */
-    private static final int MAX_FRAMES_PER_SECOND = 60;
+    private static final String ZOOM_OUT_COMMAND = "Zoom Out";
 
     /**
-     * The numerator for delay calculations.
+     * The initial ticks per second at which the simulation will run.
      */
-    private static final int MY_DELAY_NUMERATOR = 1000;
+    private static final int INITIAL_TICKS_PER_SECOND = 10;
 
     /**
-     * The minor tick spacing for the FPS slider.
+     * The number of slider positions for each power of ten ticks per second.
+     */
+    private static final int STEPS_PER_DECADE = 10;
+
+    /**
+     * The minor tick spacing for the tick rate slider.
      */
     private static final int MINOR_TICK_SPACING = 1;
 
     /**
-     * The major tick spacing for the FPS slider.
+     * The major tick spacing for the tick rate slider.
      */
-    private static final int MAJOR_TICK_SPACING = 10;
+    private static final int MAJOR_TICK_SPACING = STEPS_PER_DECADE;
+
+    /**
+     * The base of the tick rate slider's scale.
+     */
+    private static final double DECADE = 10;
+
+    /**
+     * The display refresh rate assumed when the real one is unknown.
+     */
+    private static final int DEFAULT_REFRESH_RATE = 60;
 
 
     // Instance Fields
     
     /**
-     * The delay between updates, based on the frames per second setting.
+     * The slider for "ticks per second", on a scale of powers of ten.
      */
-    private int myDelay;
+    private JSlider mySlider;
 
     /**
-     * A timer used to update the state of the simulation.
+     * The label showing the target and measured tick rates.
      */
-    private final Timer myTimer;
+    private JLabel myStatus;
 
     /**
-     * The slider for "frames per second".
+     * The panel that draws the map, or null if the map is drawn by myCanvas.
      */
-    private JSlider mySlider;
+    private RoadRagePanel myPanel;
+
+    /**
+     * The canvas that actively renders the map, or null if the map is drawn by
+     * myPanel.
+     */
+    private RoadRageCanvas myCanvas;
+
+    /**
+     * Whether the map is drawn by an actively rendered canvas rather than a panel.
+     */
+    private final boolean myActiveRendering;
     
     /**
-     * The logic for the simulation. 
+     * The thread running the simulation. 
      */
-    private final PropertyChangeEnabledRoadRageControls myRoadRage;
+    private final SimulationThread mySimulation;
+
+    /**
+     * The width of the 2D grid of Terrain that forms the map.
+     */
+    private final int myMapWidth;
+
+    /**
+     * The height of the 2D grid of Terrain that forms the map.
+     */
+    private final int myMapHeight;
+
+    /**
+     * The name of each vehicle, taken before the simulation thread owns the vehicles.
+     */
+    private final List<String> myVehicleNames;
+
+    /**
+     * The number of frames the screen shows each second.
+     */
+    private final int myFramesPerSecond;
     
     // Constructor
 
@@ -132,17 +193,32 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
      * directory.
      */
     public RoadRageGUI() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new RoadRageGUI, using the files in the current working
+     * directory.
+     *
+     * @param theActiveRendering whether to draw the map on a canvas with a render
+     *        thread of its own, rather than on a Swing panel.
+     */
+    public RoadRageGUI(final boolean theActiveRendering) {
         super(TITLE);
         // initialize instance fields
         
-        myDelay = MY_DELAY_NUMERATOR / INITIAL_FRAMES_PER_SECOND;
-        myTimer = new Timer(myDelay, this);        
-
-        myRoadRage = FileLoader.readCity(this);
+        myActiveRendering = theActiveRendering;
+        final RoadRage roadRage = FileLoader.readCity(this);
+        myMapWidth = roadRage.getWidth();
+        myMapHeight = roadRage.getHeight();
+        myVehicleNames = roadRage.getVehicleNames();
+        mySimulation = new SimulationThread(roadRage, INITIAL_TICKS_PER_SECOND);
+        myFramesPerSecond = refreshRate();
+        mySimulation.setFramesPerSecond(myFramesPerSecond);
         
         initGUI();
         
-        myRoadRage.start();
+        mySimulation.reset();
         setVisible(true);
     }
     
@@ -156,30 +232,69 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
         
         // set up graphical components
         
-        final RoadRagePanel panel = 
-                        new RoadRagePanel(myRoadRage.getWidth(), myRoadRage.getHeight()); 
-        myRoadRage.addPropertyChangeListener(panel);
+        final SimulationListener view;
+        final Component center;
+        if (myActiveRendering) {
+            myCanvas = new RoadRageCanvas(myMapWidth, myMapHeight, myFramesPerSecond);
+            view = myCanvas;
+            center = myCanvas;
+        } else {
+            myPanel = new RoadRagePanel(myMapWidth, myMapHeight, myFramesPerSecond,
+                                        myVehicleNames);
+            view = myPanel;
+            center = new JScrollPane(myPanel);
+        }
+        setViewTicksPerSecond(INITIAL_TICKS_PER_SECOND);
+        myStatus = new JLabel();
+        mySimulation.addListener(new AsyncListener(new SimulationListener() {
+            @Override
+            public void onGrid(final TerrainGrid theGrid) {
+                view.onGrid(theGrid);
+            }
+
+            @Override
+            public void onLight(final Light theLight) {
+                view.onLight(theLight);
+            }
+
+            @Override
+            public void onTick(final long theTimestep, final TickView theView) {
+                view.onTick(theTimestep, theView);
+                updateStatus();
+            }
+        }, EventQueue::invokeLater, 1));
   
-        mySlider = new JSlider(SwingConstants.HORIZONTAL, 0, MAX_FRAMES_PER_SECOND,
-                               INITIAL_FRAMES_PER_SECOND);
+        final int decades = (int) Math.round(Math.log10(TickScheduler.MAX_TICKS_PER_SECOND));
+        mySlider = new JSlider(SwingConstants.HORIZONTAL, 0, decades * STEPS_PER_DECADE,
+                               toSliderValue(INITIAL_TICKS_PER_SECOND));
         mySlider.setMajorTickSpacing(MAJOR_TICK_SPACING);
         mySlider.setMinorTickSpacing(MINOR_TICK_SPACING);
+        final Hashtable<Integer, JLabel> labels = new Hashtable<>();
+        for (int decade = 0; decade <= decades; decade++) {
+            labels.put(decade * STEPS_PER_DECADE,
+                       new JLabel(String.valueOf(fromSliderValue(decade * STEPS_PER_DECADE))));
+        }
+        mySlider.setLabelTable(labels);
         mySlider.setPaintLabels(true);
         mySlider.setPaintTicks(true);
         mySlider.addChangeListener(new ChangeListener() {
             /** Called in response to slider events in this window. */
             @Override
             public void stateChanged(final ChangeEvent theEvent) {
-                final int value = mySlider.getValue();
-                if (value > 0) {
-                    myDelay = MY_DELAY_NUMERATOR / value;
-                    myTimer.setDelay(myDelay);
-                }
+                final int rate = fromSliderValue(mySlider.getValue());
+                mySimulation.setTicksPerSecond(rate);
+                setViewTicksPerSecond(rate);
+                updateStatus();
             }
         });
 
-        final JCheckBox box = new JCheckBox("Debug Mode");
-        box.addChangeListener(panel);
+        final JCheckBox maxSpeed = new JCheckBox("Max Speed");
+        maxSpeed.addChangeListener(theEvent -> {
+            mySimulation.setUnthrottled(maxSpeed.isSelected());
+            mySlider.setEnabled(!maxSpeed.isSelected());
+            setViewTicksPerSecond(maxSpeed.isSelected() ? TickScheduler.MAX_TICKS_PER_SECOND
+                                      : fromSliderValue(mySlider.getValue()));
+        });
 
         // layout
         final Container northPanel = new JPanel(new FlowLayout());
@@ -187,19 +302,28 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
         northPanel.add(makeButton(STOP_COMMAND));
         northPanel.add(makeButton(STEP_COMMAND));
         northPanel.add(makeButton(RESET_COMMAND));
+        if (myPanel != null) {
+            northPanel.add(makeButton(ZOOM_IN_COMMAND));
+            northPanel.add(makeButton(ZOOM_OUT_COMMAND));
+        }
 
         final Container southPanel = new JPanel(new FlowLayout());
-        southPanel.add(new JLabel("FPS: "));
+        southPanel.add(new JLabel("Ticks/sec: "));
         southPanel.add(mySlider);
-        southPanel.add(box);
+        southPanel.add(maxSpeed);
+        if (myPanel != null) {
+            final JCheckBox box = new JCheckBox("Debug Mode");
+            box.addChangeListener(myPanel);
+            southPanel.add(box);
+        }
+        southPanel.add(myStatus);
 
         final Container masterPanel = new JPanel(new BorderLayout());
-        masterPanel.add(panel, BorderLayout.CENTER);
+        masterPanel.add(center, BorderLayout.CENTER);
         masterPanel.add(northPanel, BorderLayout.NORTH);
         masterPanel.add(southPanel, BorderLayout.SOUTH);
 
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-        setResizable(false);
         add(masterPanel);
         pack();
         // position the frame in the center of the screen
@@ -207,6 +331,74 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
                     SCREEN_SIZE.height / 2 - getHeight() / 2);
     }
     
+    /**
+     * Shows the target tick rate, the measured tick rate and the missed ticks, and
+     * the measured frame rate and frame times when the map is actively rendered.
+     */
+    private void updateStatus() {
+        String status = String.format("%d target, %.0f actual, %d missed",
+                                      fromSliderValue(mySlider.getValue()),
+                                      mySimulation.getTickRate(),
+                                      mySimulation.getMissedTicks());
+        if (myCanvas != null) {
+            status += String.format(" | %.0f fps, %.1f ms avg, %.1f ms worst, %d dropped",
+                                    myCanvas.getFrameRate(), myCanvas.getFrameMillis(),
+                                    myCanvas.getWorstFrameMillis(),
+                                    myCanvas.getDroppedFrames());
+        }
+        myStatus.setText(status);
+    }
+
+    /**
+     * Tells the view of the map the rate at which ticks are expected.
+     *
+     * @param theTicksPerSecond the number of ticks run each second.
+     */
+    private void setViewTicksPerSecond(final int theTicksPerSecond) {
+        if (myCanvas != null) {
+            myCanvas.setTicksPerSecond(theTicksPerSecond);
+        } else {
+            myPanel.setTicksPerSecond(theTicksPerSecond);
+        }
+    }
+
+    /**
+     * Returns the tick rate at a position of the tick rate slider.
+     *
+     * @param theValue the slider position.
+     * @return the number of ticks per second.
+     */
+    private static int fromSliderValue(final int theValue) {
+        return (int) Math.round(Math.pow(DECADE, (double) theValue / STEPS_PER_DECADE));
+    }
+
+    /**
+     * Returns the position of the tick rate slider closest to a tick rate.
+     *
+     * @param theTicksPerSecond the number of ticks per second.
+     * @return the slider position.
+     */
+    private static int toSliderValue(final int theTicksPerSecond) {
+        return (int) Math.round(Math.log10(theTicksPerSecond) * STEPS_PER_DECADE);
+    }
+
+    /**
+     * Returns the refresh rate of the screen, or a common rate if it is unknown.
+     *
+     * @return the number of frames the screen shows each second.
+     */
+    private static int refreshRate() {
+        int result = DEFAULT_REFRESH_RATE;
+        if (!GraphicsEnvironment.isHeadless()) {
+            final int rate = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDisplayMode().getRefreshRate();
+            if (rate != DisplayMode.REFRESH_RATE_UNKNOWN) {
+                result = rate;
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns a new JButton with the specified text.
      * 
@@ -226,31 +418,18 @@ public final class RoadRageGUI extends JFrame implements ActionListener {
      */
     @Override
     public void actionPerformed(final ActionEvent theEvent) {
-        final Object source = theEvent.getSource();
-        if (source.equals(myTimer)) {
-            // event came from the timer
-            myRoadRage.advance();
-        } else {
-            // event came from one of the buttons
-            final String command = theEvent.getActionCommand().intern();
-            switch (command) {
-                case START_COMMAND -> myTimer.start();
-                case STOP_COMMAND -> myTimer.stop();
-                case STEP_COMMAND -> myRoadRage.advance();
-                case RESET_COMMAND -> reset();
-                default -> throw new IllegalStateException("You shall not pass");
-            }
+        // event came from one of the buttons
+        final String command = theEvent.getActionCommand().intern();
+        switch (command) {
+            case START_COMMAND -> mySimulation.start();
+            case STOP_COMMAND -> mySimulation.stop();
+            case STEP_COMMAND -> mySimulation.step();
+            case RESET_COMMAND -> mySimulation.reset();
+            case ZOOM_IN_COMMAND -> myPanel.zoomIn();
+            case ZOOM_OUT_COMMAND -> myPanel.zoomOut();
+            default -> throw new IllegalStateException("You shall not pass");
         }
     }
-
-    /**
-     * Resets all the vehicles to their initial locations, resets the tick
-     * counter, and stops the simulation.
-     */
-    private void reset() {
-        myTimer.stop();
-        myRoadRage.reset();
-    }
         
  // end class RoadRageGUI
 }
\ No newline at end of file
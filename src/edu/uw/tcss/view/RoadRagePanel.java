@@ -4,40 +4,72 @@
 
 package edu.uw.tcss.view;
 
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_GRID;
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_LIGHT;
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_TIME;
-import static edu.uw.tcss.logic.PropertyChangeEnabledRoadRageControls.PROPERTY_VEHICLES;
-
+import edu.uw.tcss.logic.SimulationListener;
+import edu.uw.tcss.logic.TickView;
 import edu.uw.tcss.model.Direction;
 import edu.uw.tcss.model.Light;
 import edu.uw.tcss.model.Terrain;
-import edu.uw.tcss.model.Vehicle;
-import java.awt.BasicStroke;
+import edu.uw.tcss.model.TerrainGrid;
+import edu.uw.tcss.model.VehicleType;
 import java.awt.Color;
+import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.MediaTracker;
 import java.awt.Paint;
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import java.io.Serial;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import javax.swing.ImageIcon;
 import javax.swing.JPanel;
+import javax.swing.JScrollPane;
 import javax.swing.JToggleButton;
+import javax.swing.JViewport;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 
 
 
 /**
- * A drawing panel for the map.
+ * A drawing panel for the map. The panel is a SimulationListener that expects to be
+ * called on the Event Dispatch Thread, with TickViews it may keep, such as the
+ * TickSnapshots delivered by an AsyncListener.
+ *
+ * <p>The panel is meant to be shown in a JScrollPane, and can be zoomed out until
+ * each square is a single pixel. Only the part of the map in view is drawn, and the
+ * vehicles in view are found through a VehicleGrid rather than by looking at every
+ * vehicle. When zoomed out past the point where sprites can be made out, squares and
+ * vehicles are drawn as blocks of color instead.
+ *
+ * <p>The terrain never changes during a run, so the part in view is drawn once into
+ * an offscreen image, and again only when the grid, the zoom or the view changes. A
+ * frame copies that image, draws the light colors of the lights and crosswalks over
+ * it, and then draws the vehicles.
+ *
+ * <p>The panel paints on a frame timer of its own rather than once per tick. Ticks
+ * that arrive between frames are never painted; only the latest is. Each frame is
+ * composed in an offscreen image, and only the squares that changed since the last
+ * frame are drawn again: the squares a vehicle left and entered, the lights when
+ * their color changes, and the update count. Only those regions are repainted. When
+ * ticks come slower than frames, each vehicle that moved one square is drawn sliding
+ * from its square in the previous tick to its square in the latest, so motion stays
+ * smooth.
  * 
  * @author Marty Stepp
  * @author Daniel M. Zimmerman
@@ -46,9 +78,8 @@ import javax.swing.event.ChangeListener;
  * @version 05 OCT 2018
  * 
  */
-@SuppressWarnings("DataFlowIssue")
 public final class RoadRagePanel extends JPanel implements
-        PropertyChangeListener, ChangeListener {
+        SimulationListener, ChangeListener, Scrollable {
 
     /**
      * The UID of this class (to avoid warnings).
@@ -61,18 +92,6 @@ public final class RoadRagePanel extends JPanel implements
      */
     private static final Font FONT = new Font("SansSerif", Font.BOLD, 9);
     
-    /**
-     * The stroke used for painting.
-     */
-    private static final BasicStroke STROKE = new BasicStroke(3, BasicStroke.CAP_BUTT,
-                                                              BasicStroke.JOIN_MITER, 2,
-                                                              new float[] {2, 2, 2, 2}, 0);
-
-    /**
-     * The offset to use to position cross walk lines and to use for cross walk light size.
-     */
-    private static final double CROSSWALK_SCALE = .25;
-    
     /**
      * The size in pixels of the directional markers drawn on vehicles in debug
      * mode.
@@ -87,7 +106,53 @@ public final class RoadRagePanel extends JPanel implements
     /**
      * The size in pixels of a side of one "square" on the grid.
      */
-    private static final int SQUARE_SIZE = 40;
+    private static final int SQUARE_SIZE = TerrainPainter.SQUARE_SIZE;
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    /**
+     * The number of milliseconds in a second.
+     */
+    private static final int MILLIS_PER_SECOND = 1000;
+
+    /**
+     * The most regions drawn separately in a frame; more are drawn as one region.
+     */
+    private static final int MAX_REGIONS = 64;
+
+    /**
+     * The width in pixels of the region holding the update count.
+     */
+    private static final int HUD_WIDTH = 4 * SQUARE_SIZE;
+
+    /**
+     * The size in pixels of a square at each zoom level, from nearest to farthest.
+     * Each divides SQUARE_SIZE evenly.
+     */
+    private static final int[] ZOOM_SQUARE_SIZES = {40, 20, 10, 4, 2, 1};
+
+    /**
+     * The smallest square size in pixels at which squares are drawn in detail.
+     */
+    private static final int DETAIL_SQUARE_SIZE = 10;
+
+    /**
+     * The transform that draws in the pixels of an image.
+     */
+    private static final AffineTransform IDENTITY = new AffineTransform();
+
+    /**
+     * The largest width in pixels the panel asks a scroll pane to show.
+     */
+    private static final int MAX_VIEWPORT_WIDTH = 1200;
+
+    /**
+     * The largest height in pixels the panel asks a scroll pane to show.
+     */
+    private static final int MAX_VIEWPORT_HEIGHT = 800;
     
 
     // Instance Fields
@@ -95,7 +160,160 @@ public final class RoadRagePanel extends JPanel implements
     /**
      * The terrain grid for the simulation.
      */
-    private Terrain[][] myGrid;
+    private TerrainGrid myGrid;
+
+    /**
+     * The width of the grid in squares.
+     */
+    private int myMapWidth;
+
+    /**
+     * The height of the grid in squares.
+     */
+    private int myMapHeight;
+
+    /**
+     * The zoom level, an index into ZOOM_SQUARE_SIZES.
+     */
+    private int myZoom;
+
+    /**
+     * The part of the panel, in panel pixels, that myTerrain and myFrame show.
+     */
+    private Rectangle myFrameBounds;
+
+    /**
+     * The terrain in view drawn without lights, or null if it must be drawn again.
+     */
+    private BufferedImage myTerrain;
+
+    /**
+     * The x-coordinates of the LIGHT and CROSSWALK squares, row by row.
+     */
+    private int[] myLightX;
+
+    /**
+     * The y-coordinates of the LIGHT and CROSSWALK squares, row by row.
+     */
+    private int[] myLightY;
+
+    /**
+     * Whether each square in myLightX and myLightY is a CROSSWALK rather than a LIGHT.
+     */
+    private boolean[] myCrosswalk;
+
+    /**
+     * The index in myLightX and myLightY of the first square of each row, and then
+     * the number of squares.
+     */
+    private int[] myLightRows;
+
+    /**
+     * The coordinate label of each square in myLightX and myLightY laid out at the
+     * current zoom, or null where it has not been laid out.
+     */
+    private GlyphVector[] myLightLabels;
+
+    /**
+     * The coordinate label of the square to the left of each square in myLightX and
+     * myLightY laid out at the current zoom, or null where it has not been laid out.
+     */
+    private GlyphVector[] myLeftLabels;
+
+    /**
+     * The map and vehicles in view as last drawn, or null if they must all be drawn
+     * again.
+     */
+    private BufferedImage myFrame;
+
+    /**
+     * The regions of myFrame to draw again in the current frame, in map pixels: the
+     * pixels of the map at its nearest zoom.
+     */
+    private final List<Rectangle> myRegions;
+
+    /**
+     * The vehicles of myView sorted by where they are, or null before the first tick.
+     */
+    private VehicleGrid myVehicleGrid;
+
+    /**
+     * The indexes of the vehicles drawn in the last frame, in its first myShownCount
+     * entries.
+     */
+    private int[] myShown;
+
+    /**
+     * The number of vehicles drawn in the last frame.
+     */
+    private int myShownCount;
+
+    /**
+     * Room for the indexes of the vehicles being looked at.
+     */
+    private int[] myCandidates;
+
+    /**
+     * Whether each vehicle has been looked at already while placing the vehicles.
+     */
+    private boolean[] myPlaced;
+
+    /**
+     * Whether each vehicle was in view when last drawn.
+     */
+    private boolean[] myDrawnShown;
+
+    /**
+     * The x-coordinate in pixels at which each vehicle was last drawn.
+     */
+    private int[] myDrawnX;
+
+    /**
+     * The y-coordinate in pixels at which each vehicle was last drawn.
+     */
+    private int[] myDrawnY;
+
+    /**
+     * Whether each vehicle was alive when last drawn.
+     */
+    private boolean[] myDrawnAlive;
+
+    /**
+     * The direction each vehicle faced when last drawn.
+     */
+    private Direction[] myDrawnDirection;
+
+    /**
+     * The name of each vehicle, shown as its debug label.
+     */
+    private final List<String> myVehicleNames;
+
+    /**
+     * The debug label of each vehicle laid out at the current zoom, or null where it
+     * has not been laid out.
+     */
+    private GlyphVector[] myLabels;
+
+    /**
+     * The timestep last drawn in the update count.
+     */
+    private long myDrawnTimestep;
+
+    /**
+     * The update count laid out at the current zoom, or null if it has not been laid
+     * out for the current timestep.
+     */
+    private GlyphVector myTimestepLabel;
+
+    /**
+     * The timestep myTimestepLabel was laid out for.
+     */
+    private long myLabelTimestep;
+
+    /**
+     * Whether the color of the lights has changed since it was last drawn.
+     */
+    private boolean myLightChanged;
     
     /**
      * A flag indicating whether or not we are running in debug mode.
@@ -113,9 +331,55 @@ public final class RoadRagePanel extends JPanel implements
     private Color myLightColor;
         
     /**
-     * The vehicles to move and display. 
+     * The state of the vehicles to display, or null before the first tick. 
+     */
+    private TickView myView;
+
+    /**
+     * The state of the vehicles one tick before myView, or null if it is unknown.
+     */
+    private TickView myPreviousView;
+
+    /**
+     * The System.nanoTime at which myView arrived.
+     */
+    private long myArrival;
+
+    /**
+     * The number of nanoseconds between frames.
+     */
+    private final long myFrameNanos;
+
+    /**
+     * The number of nanoseconds between ticks, over which a move is drawn.
+     */
+    private long myTickNanos;
+
+    /**
+     * Whether something has changed since the last frame was painted.
+     */
+    private boolean myDirty;
+
+    /**
+     * Whether the last frame painted showed vehicles part way through a move.
+     */
+    private boolean myMoving;
+
+    /**
+     * The timer that paints each frame.
+     */
+    private final Timer myFrameTimer;
+
+    /**
+     * The circles of a LIGHT square and of a CROSSWALK square in the current color at
+     * the current zoom, or null if they must be drawn again.
+     */
+    private BufferedImage[] myLightSprites;
+
+    /**
+     * The images of the vehicles at each zoom level, or null until they are needed.
      */
-    private List<Vehicle> myVehicles;
+    private final SpriteCache[] mySprites;
 
     // Constructor
 
@@ -123,126 +387,846 @@ public final class RoadRagePanel extends JPanel implements
      * Construct a new Panel.
      * @param theWidth width of the 2D grid of Terrain that defines the map
      * @param theHeight height of the 2D grid of Terrain that defines the map
+     * @param theFramesPerSecond the number of frames to paint each second
+     * @param theVehicleNames the name of each vehicle, shown in debug mode
      */
-    public RoadRagePanel(final int theWidth, final int theHeight) {
+    public RoadRagePanel(final int theWidth, final int theHeight,
+                         final int theFramesPerSecond, final List<String> theVehicleNames) {
         super();
 
-        myVehicles = new ArrayList<>();
-        myGrid = new Terrain[0][0];
+        myGrid = TerrainGrid.of(new Terrain[0][0]);
+        findLights();
+        myRegions = new ArrayList<>();
+        myFrameBounds = new Rectangle();
+        myVehicleNames = List.copyOf(theVehicleNames);
+        resizeVehicles(0);
         setLightColor(Light.GREEN);
-        setPreferredSize(new Dimension(theWidth * SQUARE_SIZE,
-                                       theHeight * SQUARE_SIZE));
+        myMapWidth = theWidth;
+        myMapHeight = theHeight;
+        updatePreferredSize();
         setBackground(Color.GREEN);
         setFont(FONT);
+        myFrameNanos = NANOS_PER_SECOND / theFramesPerSecond;
+        myTickNanos = myFrameNanos;
+        myFrameTimer = new Timer(MILLIS_PER_SECOND / theFramesPerSecond,
+            theEvent -> nextFrame());
+        myFrameTimer.setCoalesce(true);
+        mySprites = new SpriteCache[ZOOM_SQUARE_SIZES.length];
+        mySprites[0] = new SpriteCache(SQUARE_SIZE);
+
+        final MouseAdapter mouse = new ViewMouseHandler();
+        addMouseListener(mouse);
+        addMouseMotionListener(mouse);
+        addMouseWheelListener(mouse);
     }
 
     // Instance Methods
 
+    /**
+     * Sets the rate at which ticks are expected, so that each move is drawn over the
+     * time between ticks.
+     *
+     * @param theTicksPerSecond the number of ticks run each second.
+     */
+    public void setTicksPerSecond(final int theTicksPerSecond) {
+        myTickNanos = NANOS_PER_SECOND / theTicksPerSecond;
+    }
+
+    /**
+     * Zooms in one level, keeping the center of the view in place.
+     */
+    public void zoomIn() {
+        setZoom(myZoom - 1, centerOfView());
+    }
+
+    /**
+     * Zooms out one level, keeping the center of the view in place.
+     */
+    public void zoomOut() {
+        setZoom(myZoom + 1, centerOfView());
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        final Dimension size = getPreferredSize();
+        return new Dimension(Math.min(size.width, MAX_VIEWPORT_WIDTH),
+                             Math.min(size.height, MAX_VIEWPORT_HEIGHT));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(final Rectangle theVisibleRect,
+                                          final int theOrientation, final int theDirection) {
+        return squareSize();
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(final Rectangle theVisibleRect,
+                                           final int theOrientation, final int theDirection) {
+        final int result;
+        if (theOrientation == SwingConstants.VERTICAL) {
+            result = theVisibleRect.height - squareSize();
+        } else {
+            result = theVisibleRect.width - squareSize();
+        }
+        return Math.max(squareSize(), result);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        myFrameTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        myFrameTimer.stop();
+        super.removeNotify();
+    }
+
     /**
      * Paints this panel on the screen with the specified Graphics object.
-     * 
+     *
      * @param theGraphics The Graphics object.
      */
     @SuppressWarnings("PublicMethodNotExposedInInterface")
     @Override
     public void paintComponent(final Graphics theGraphics) {
         super.paintComponent(theGraphics);
-        final Graphics2D g2 = (Graphics2D) theGraphics;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-                            RenderingHints.VALUE_ANTIALIAS_ON);
+        final Rectangle bounds = frameBounds();
+        if (!bounds.isEmpty()) {
+            BufferedImage frame = myFrame;
+            if (frame == null || !bounds.equals(myFrameBounds)) {
+                frame = drawFrame(bounds);
+            }
+            theGraphics.drawImage(frame, bounds.x, bounds.y, null);
+        }
+    }
+
+    /**
+     * Draws the whole city map and every vehicle in view into a new frame image.
+     *
+     * @param theBounds the part of the panel in view, in panel pixels.
+     * @return the new frame image.
+     */
+    private BufferedImage drawFrame(final Rectangle theBounds) {
+        if (myTerrain == null || !theBounds.equals(myFrameBounds)) {
+            myFrameBounds = theBounds;
+            myTerrain = drawTerrain();
+        }
+        myFrame = new BufferedImage(theBounds.width, theBounds.height,
+                                    BufferedImage.TYPE_INT_RGB);
+        final int count = myView == null ? 0 : myView.getVehicleCount();
+        if (count == myDrawnX.length) {
+            for (int i = 0; i < myShownCount; i++) {
+                myDrawnShown[myShown[i]] = false;
+            }
+            myShownCount = 0;
+        } else {
+            resizeVehicles(count);
+        }
+        placeVehicles();
+        myRegions.clear();
+        myLightChanged = false;
+        myDrawnTimestep = myTimestep;
+
+        final Graphics2D graphics = createFrameGraphics();
+        drawRegion(graphics, mapArea());
+        graphics.dispose();
+        return myFrame;
+    }
+
+    /**
+     * Draws the regions of the frame that have changed since the last frame, and
+     * repaints them.
+     */
+    private void updateFrame() {
+        if (myLightChanged) {
+            myLightChanged = false;
+            final Rectangle area = mapArea();
+            for (int i = 0; i < myLightX.length; i++) {
+                final Rectangle square = new Rectangle(myLightX[i] * SQUARE_SIZE,
+                                                       myLightY[i] * SQUARE_SIZE,
+                                                       SQUARE_SIZE, SQUARE_SIZE);
+                if (square.intersects(area)) {
+                    addRegion(square);
+                }
+            }
+        }
+        placeVehicles();
+        if (myDebugFlag && isDetailed() && myDrawnTimestep != myTimestep) {
+            myDrawnTimestep = myTimestep;
+            addRegion(new Rectangle(0, 0, HUD_WIDTH, FONT.getSize() + DEBUG_OFFSET));
+        }
+        if (myRegions.size() > MAX_REGIONS) {
+            final Rectangle union = myRegions.get(0);
+            for (final Rectangle region : myRegions) {
+                union.add(region);
+            }
+            myRegions.clear();
+            myRegions.add(union);
+        }
+
+        final int pixel = SQUARE_SIZE / squareSize();
+        final Graphics2D graphics = createFrameGraphics();
+        for (final Rectangle region : myRegions) {
+            drawRegion(graphics, region);
+            repaint(region.x / pixel, region.y / pixel,
+                    region.width / pixel, region.height / pixel);
+        }
+        graphics.dispose();
+        myRegions.clear();
+    }
+
+    /**
+     * Works out where to draw each vehicle in view, part way through its move if ticks
+     * are slower than frames, and adds the regions of the vehicles that changed. Only
+     * the vehicles drawn in the last frame and the vehicles now near the view are
+     * looked at.
+     */
+    private void placeVehicles() {
+        double progress = 1;
+        if (myPreviousView != null && myTickNanos > myFrameNanos) {
+            progress = Math.min(1, (double) (System.nanoTime() - myArrival) / myTickNanos);
+        }
+        myMoving = progress < 1;
+
+        final Rectangle area = mapArea();
+        int count = myShownCount;
+        System.arraycopy(myShown, 0, myCandidates, 0, count);
+        if (myVehicleGrid != null && myDrawnX.length > 0) {
+            // a vehicle part way through its move is up to one square from its square
+            count = myVehicleGrid.find(area.x / SQUARE_SIZE - 1, area.y / SQUARE_SIZE - 1,
+                                       (area.x + area.width) / SQUARE_SIZE + 1,
+                                       (area.y + area.height) / SQUARE_SIZE + 1,
+                                       myCandidates, count);
+        }
+
+        myShownCount = 0;
+        for (int c = 0; c < count; c++) {
+            final int i = myCandidates[c];
+            if (!myPlaced[i]) {
+                myPlaced[i] = true;
+                placeVehicle(i, progress, area);
+            }
+        }
+        for (int c = 0; c < count; c++) {
+            myPlaced[myCandidates[c]] = false;
+        }
+    }
+
+    /**
+     * Works out where to draw a vehicle, and adds its region if it changed.
+     *
+     * @param theIndex The index of the vehicle.
+     * @param theProgress How far through the tick the frame is, from 0 to 1.
+     * @param theArea The part of the map in view, in map pixels.
+     */
+    private void placeVehicle(final int theIndex, final double theProgress,
+                              final Rectangle theArea) {
+        int x = myView.getX(theIndex) * SQUARE_SIZE;
+        int y = myView.getY(theIndex) * SQUARE_SIZE;
+        final TickView previous = myPreviousView;
+        if (theProgress < 1 && previous != null && isOneSquareMove(previous, theIndex)) {
+            x += (int) ((previous.getX(theIndex) * SQUARE_SIZE - x) * (1 - theProgress));
+            y += (int) ((previous.getY(theIndex) * SQUARE_SIZE - y) * (1 - theProgress));
+        }
+        final boolean alive = myView.isAlive(theIndex);
+        final Direction direction = myView.getDirection(theIndex);
+        final boolean shown = theArea.intersects(x, y, vehicleWidth(), vehicleHeight());
+        final boolean wasShown = myDrawnShown[theIndex];
+        if (shown != wasShown || shown && (x != myDrawnX[theIndex] || y != myDrawnY[theIndex]
+                                           || alive != myDrawnAlive[theIndex]
+                                           || direction != myDrawnDirection[theIndex])) {
+            // a vehicle not shown before is shown now
+            final Rectangle region;
+            if (wasShown) {
+                region = new Rectangle(myDrawnX[theIndex], myDrawnY[theIndex],
+                                       vehicleWidth(), vehicleHeight());
+                if (shown) {
+                    region.add(new Rectangle(x, y, vehicleWidth(), vehicleHeight()));
+                }
+            } else {
+                region = new Rectangle(x, y, vehicleWidth(), vehicleHeight());
+            }
+            addRegion(region);
+        }
+        myDrawnX[theIndex] = x;
+        myDrawnY[theIndex] = y;
+        myDrawnAlive[theIndex] = alive;
+        myDrawnDirection[theIndex] = direction;
+        myDrawnShown[theIndex] = shown;
+        if (shown) {
+            myShown[myShownCount] = theIndex;
+            myShownCount++;
+        }
+    }
+
+    /**
+     * Adds a region of the frame to draw again, grown to whole pixels of the frame.
+     *
+     * @param theRegion The region, in map pixels.
+     */
+    private void addRegion(final Rectangle theRegion) {
+        final int pixel = SQUARE_SIZE / squareSize();
+        final int left = Math.floorDiv(theRegion.x, pixel) * pixel;
+        final int top = Math.floorDiv(theRegion.y, pixel) * pixel;
+        final int right = -Math.floorDiv(-(theRegion.x + theRegion.width), pixel) * pixel;
+        final int bottom = -Math.floorDiv(-(theRegion.y + theRegion.height), pixel) * pixel;
+        theRegion.setBounds(left, top, right - left, bottom - top);
+        myRegions.add(theRegion);
+    }
+
+    /**
+     * Returns the width in pixels a vehicle covers when drawn, including its debug
+     * label in debug mode, which can run past the right of its square.
+     *
+     * @return the width.
+     */
+    private int vehicleWidth() {
+        int result = SQUARE_SIZE;
+        if (myDebugFlag && isDetailed()) {
+            result *= 2;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the height in pixels a vehicle covers when drawn, including its debug
+     * label in debug mode, which can run past the bottom of its square.
+     *
+     * @return the height.
+     */
+    private int vehicleHeight() {
+        int result = SQUARE_SIZE;
+        if (myDebugFlag && isDetailed()) {
+            result += DEBUG_OFFSET / 2;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a Graphics2D object that draws into the frame image in map pixels.
+     *
+     * @return the Graphics2D object.
+     */
+    private Graphics2D createFrameGraphics() {
+        final Graphics2D result = myFrame.createGraphics();
+        if (isDetailed()) {
+            result.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                    RenderingHints.VALUE_ANTIALIAS_ON);
+        }
+        result.setFont(FONT);
+        result.translate(-myFrameBounds.x, -myFrameBounds.y);
+        result.scale((double) squareSize() / SQUARE_SIZE, (double) squareSize() / SQUARE_SIZE);
+        return result;
+    }
 
-        g2.setStroke(STROKE);
+    /**
+     * Draws everything that appears in a region of the frame.
+     *
+     * @param theGraphics The Graphics2D object that draws into the frame image.
+     * @param theRegion The region, in map pixels.
+     */
+    private void drawRegion(final Graphics2D theGraphics, final Rectangle theRegion) {
+        theGraphics.setClip(theRegion);
 
         // draw city map
 
-        drawMap(g2);
+        final AffineTransform transform = theGraphics.getTransform();
+        theGraphics.setTransform(IDENTITY);
+        theGraphics.drawImage(myTerrain, 0, 0, null);
+        theGraphics.setTransform(transform);
+        drawLights(theGraphics, theRegion);
+        if (myDebugFlag && isDetailed()) {
+            // the other coordinate labels are part of the terrain image
+            drawLightLabels(theGraphics, theRegion);
+        }
+
+        // draw the vehicles in the region, in index order
+        int count = 0;
+        if (myVehicleGrid != null && myDrawnX.length > 0) {
+            // a debug label can reach into the region from the square to the left
+            count = myVehicleGrid.find(theRegion.x / SQUARE_SIZE - 2,
+                                       theRegion.y / SQUARE_SIZE - 1,
+                                       (theRegion.x + theRegion.width) / SQUARE_SIZE + 1,
+                                       (theRegion.y + theRegion.height) / SQUARE_SIZE + 1,
+                                       myCandidates, 0);
+        }
+        Arrays.sort(myCandidates, 0, count);
+        for (int c = 0; c < count; c++) {
+            final int i = myCandidates[c];
+            if (myDrawnShown[i] && theRegion.intersects(myDrawnX[i], myDrawnY[i],
+                                                        vehicleWidth(), vehicleHeight())) {
+                drawVehicle(theGraphics, i);
+            }
+        }
+
+        if (myDebugFlag && isDetailed()) {
+            theGraphics.setColor(Color.WHITE);
+            theGraphics.drawGlyphVector(timestepLabel(theGraphics), DEBUG_OFFSET / 2,
+                                        FONT.getSize() + DEBUG_OFFSET / 2);
+        }
+    }
+
+    /**
+     * Draws a vehicle where it was placed: its sprite when zoomed in, and a block of
+     * color when zoomed out.
+     *
+     * @param theGraphics The Graphics2D object that draws into the frame image.
+     * @param theIndex The index of the vehicle.
+     */
+    private void drawVehicle(final Graphics2D theGraphics, final int theIndex) {
+        final int x = myDrawnX[theIndex];
+        final int y = myDrawnY[theIndex];
+        if (isDetailed()) {
+            SpriteCache sprites = mySprites[myZoom];
+            if (sprites == null) {
+                sprites = new SpriteCache(squareSize());
+                mySprites[myZoom] = sprites;
+            }
+            drawSprite(theGraphics, sprites.get(myView.getType(theIndex),
+                                                myDrawnAlive[theIndex]), x, y);
+            if (myDebugFlag) {
+                drawDebugInfo(theGraphics, theIndex, x, y);
+            }
+        } else {
+            if (myDrawnAlive[theIndex]) {
+                theGraphics.setPaint(vehicleColor(myView.getType(theIndex)));
+            } else {
+                theGraphics.setPaint(Color.DARK_GRAY);
+            }
+            theGraphics.fillRect(x, y, SQUARE_SIZE, SQUARE_SIZE);
+        }
+    }
+
+    /**
+     * Copies an image drawn at the current zoom into the frame, unscaled.
+     *
+     * @param theGraphics The Graphics2D object that draws into the frame image.
+     * @param theImage The image.
+     * @param theLeft The x-coordinate of the image, in map pixels.
+     * @param theTop The y-coordinate of the image, in map pixels.
+     */
+    private void drawSprite(final Graphics2D theGraphics, final Image theImage,
+                            final int theLeft, final int theTop) {
+        final AffineTransform transform = theGraphics.getTransform();
+        theGraphics.setTransform(IDENTITY);
+        theGraphics.drawImage(theImage,
+                              Math.floorDiv(theLeft * squareSize(), SQUARE_SIZE)
+                                  - myFrameBounds.x,
+                              Math.floorDiv(theTop * squareSize(), SQUARE_SIZE)
+                                  - myFrameBounds.y, null);
+        theGraphics.setTransform(transform);
+    }
 
-        // draw vehicles
-        for (final Vehicle v : myVehicles) {
-            final String imageFilename = "icons//" + v.getImageFileName();
-            //final String imageFilename = v.getImageFileName();
-            ImageIcon imgIcon = new ImageIcon(imageFilename);
+    /**
+     * Returns the color a kind of vehicle is drawn in when zoomed out.
+     *
+     * @param theType The kind of vehicle.
+     * @return the color.
+     */
+    private static Color vehicleColor(final VehicleType theType) {
+        return switch (theType) {
+            case ATV -> Color.ORANGE;
+            case BICYCLE -> Color.CYAN;
+            case CAR -> Color.RED;
+            case HUMAN -> Color.MAGENTA;
+            case TAXI -> Color.YELLOW;
+            case TRUCK -> Color.BLUE;
+        };
+    }
 
-            if (imgIcon.getImageLoadStatus() != MediaTracker.COMPLETE) {
-                imgIcon = new ImageIcon(getClass().getResource(imageFilename));
+    /**
+     * Changes the zoom level, keeping one point of the map at the same place in the
+     * view.
+     *
+     * @param theZoom The new zoom level, which is limited to the levels that exist.
+     * @param theAnchor The point to keep in place, in panel pixels.
+     */
+    private void setZoom(final int theZoom, final Point theAnchor) {
+        final int zoom = Math.max(0, Math.min(ZOOM_SQUARE_SIZES.length - 1, theZoom));
+        if (zoom != myZoom) {
+            final Rectangle visible = getVisibleRect();
+            final int oldSize = squareSize();
+            myZoom = zoom;
+            updatePreferredSize();
+            if (getParent() instanceof JViewport) {
+                final JViewport viewport = (JViewport) getParent();
+                final Dimension size = getPreferredSize();
+                final Dimension extent = viewport.getExtentSize();
+                viewport.setViewSize(size);
+                final int x = (int) ((long) theAnchor.x * squareSize() / oldSize)
+                    - (theAnchor.x - visible.x);
+                final int y = (int) ((long) theAnchor.y * squareSize() / oldSize)
+                    - (theAnchor.y - visible.y);
+                viewport.setViewPosition(
+                    new Point(Math.max(0, Math.min(size.width - extent.width, x)),
+                              Math.max(0, Math.min(size.height - extent.height, y))));
             }
+            myTerrain = null;
+            myLightSprites = null;
+            Arrays.fill(myLabels, null);
+            Arrays.fill(myLightLabels, null);
+            Arrays.fill(myLeftLabels, null);
+            myTimestepLabel = null;
+            myFrame = null;
+            repaint();
+        }
+    }
+
+    /**
+     * Returns the center of the part of the panel in view.
+     *
+     * @return the center, in panel pixels.
+     */
+    private Point centerOfView() {
+        final Rectangle visible = getVisibleRect();
+        return new Point((int) visible.getCenterX(), (int) visible.getCenterY());
+    }
+
+    /**
+     * Sets the preferred size of the panel to the size of the map at the current zoom.
+     */
+    private void updatePreferredSize() {
+        setPreferredSize(new Dimension(myMapWidth * squareSize(),
+                                       myMapHeight * squareSize()));
+        revalidate();
+    }
+
+    /**
+     * Returns the size in pixels of a square at the current zoom.
+     *
+     * @return the size of a square.
+     */
+    private int squareSize() {
+        return ZOOM_SQUARE_SIZES[myZoom];
+    }
+
+    /**
+     * Tests whether squares are large enough at the current zoom to draw in detail.
+     *
+     * @return true to draw lines, sprites and labels, false to draw blocks of color.
+     */
+    private boolean isDetailed() {
+        return squareSize() >= DETAIL_SQUARE_SIZE;
+    }
+
+    /**
+     * Returns the part of the map in view.
+     *
+     * @return the part of the panel in view that shows the map, in panel pixels.
+     */
+    private Rectangle frameBounds() {
+        return getVisibleRect().intersection(
+            new Rectangle(0, 0, myMapWidth * squareSize(), myMapHeight * squareSize()));
+    }
+
+    /**
+     * Returns the part of the map the frame image shows.
+     *
+     * @return the part of the map in view, in map pixels.
+     */
+    private Rectangle mapArea() {
+        final int pixel = SQUARE_SIZE / squareSize();
+        return new Rectangle(myFrameBounds.x * pixel, myFrameBounds.y * pixel,
+                             myFrameBounds.width * pixel, myFrameBounds.height * pixel);
+    }
 
-            final Image img = imgIcon.getImage();
-            g2.drawImage(img, v.getX() * SQUARE_SIZE, v.getY() * SQUARE_SIZE,
-                         SQUARE_SIZE, SQUARE_SIZE, this);
+    /**
+     * Makes room to record how each of a number of vehicles was drawn, with none of
+     * them drawn yet.
+     *
+     * @param theCount The number of vehicles.
+     */
+    private void resizeVehicles(final int theCount) {
+        myDrawnX = new int[theCount];
+        myDrawnY = new int[theCount];
+        myDrawnAlive = new boolean[theCount];
+        myDrawnDirection = new Direction[theCount];
+        myDrawnShown = new boolean[theCount];
+        myLabels = new GlyphVector[theCount];
+        myPlaced = new boolean[theCount];
+        myShown = new int[theCount];
+        myShownCount = 0;
+        // the vehicles drawn last frame, then the vehicles found near the view
+        myCandidates = new int[2 * theCount];
+    }
 
+    /**
+     * Draws the terrain in view, apart from the colors of the lights, into a new image
+     * the size of myFrameBounds.
+     *
+     * @return the image.
+     */
+    private BufferedImage drawTerrain() {
+        final BufferedImage result = new BufferedImage(myFrameBounds.width,
+                                                       myFrameBounds.height,
+                                                       BufferedImage.TYPE_INT_RGB);
+        final int size = squareSize();
+        if (isDetailed()) {
+            final Graphics2D graphics = result.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                      RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.translate(-myFrameBounds.x, -myFrameBounds.y);
+            graphics.scale((double) size / SQUARE_SIZE, (double) size / SQUARE_SIZE);
+            graphics.setPaint(getBackground());
+            graphics.fill(mapArea());
+            TerrainPainter.paint(graphics, myGrid,
+                                 myFrameBounds.x / size, myFrameBounds.y / size,
+                                 (myFrameBounds.x + myFrameBounds.width - 1) / size,
+                                 (myFrameBounds.y + myFrameBounds.height - 1) / size);
             if (myDebugFlag) {
-                drawDebugInfo(g2, v);
+                drawTerrainLabels(graphics);
+            }
+            graphics.dispose();
+        } else {
+            // one color per square, written straight into the pixels
+            final int[] colors = new int[Terrain.values().length];
+            for (final Terrain terrain : Terrain.values()) {
+                colors[terrain.ordinal()] = terrainColor(terrain).getRGB();
+            }
+            final int[] pixels =
+                ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+            final int background = getBackground().getRGB();
+            final int width = myFrameBounds.width;
+            for (int py = 0; py < myFrameBounds.height; py++) {
+                final int y = (myFrameBounds.y + py) / size;
+                for (int px = 0; px < width; px++) {
+                    final int x = (myFrameBounds.x + px) / size;
+                    if (isValidIndex(y, x)) {
+                        pixels[py * width + px] = colors[myGrid.getTerrain(x, y).ordinal()];
+                    } else {
+                        pixels[py * width + px] = background;
+                    }
+                }
             }
         }
+        return result;
+    }
 
-        if (myDebugFlag) {
-            g2.setColor(Color.WHITE);
-            g2.drawString("Update # " + myTimestep, DEBUG_OFFSET / 2,
-                          FONT.getSize() + DEBUG_OFFSET / 2);
+    /**
+     * Draws the coordinate labels of the squares in view into the terrain image,
+     * apart from those that the colors of the lights would cover, which are drawn
+     * over the lights by drawLightLabels.
+     *
+     * @param theGraphics The Graphics2D object that draws into the terrain image.
+     */
+    private void drawTerrainLabels(final Graphics2D theGraphics) {
+        theGraphics.setFont(FONT);
+        // a coordinate label can run into the square to the right
+        final int size = squareSize();
+        final int top = Math.max(0, myFrameBounds.y / size);
+        final int bottom = Math.min(myGrid.getHeight() - 1,
+                                    (myFrameBounds.y + myFrameBounds.height - 1) / size);
+        final int left = Math.max(0, myFrameBounds.x / size - 1);
+        final int right = (myFrameBounds.x + myFrameBounds.width - 1) / size;
+        for (int y = top; y <= bottom; y++) {
+            for (int x = left; x <= Math.min(right, myGrid.getWidth() - 1); x++) {
+                if (!isLight(y, x) && !isLight(y, x + 1)) {
+                    drawDebugInfo(theGraphics, x, y);
+                }
+            }
         }
     }
-    
 
     /**
-     * Draws the city map with the specified Graphics2D object.
-     * 
+     * Tests whether a square exists and is drawn with a light color over it.
+     *
+     * @param theY The y position.
+     * @param theX The x position.
+     * @return true if the square is a LIGHT or CROSSWALK, false otherwise.
+     */
+    private boolean isLight(final int theY, final int theX) {
+        return isValidIndex(theY, theX)
+            && (myGrid.getTerrain(theX, theY) == Terrain.LIGHT
+                || myGrid.getTerrain(theX, theY) == Terrain.CROSSWALK);
+    }
+
+    /**
+     * Returns the color a kind of terrain is drawn in when zoomed out.
+     *
+     * @param theTerrain The kind of terrain.
+     * @return the color.
+     */
+    private Color terrainColor(final Terrain theTerrain) {
+        return switch (theTerrain) {
+            case STREET, LIGHT, CROSSWALK -> Color.LIGHT_GRAY;
+            case WALL -> Color.BLACK;
+            case TRAIL -> Color.YELLOW.darker().darker();
+            case GRASS -> getBackground();
+        };
+    }
+
+    /**
+     * Records the squares of the LIGHT and CROSSWALK terrain in the grid, row by row.
+     */
+    private void findLights() {
+        int total = 0;
+        for (int y = 0; y < myGrid.getHeight(); y++) {
+            for (int x = 0; x < myGrid.getWidth(); x++) {
+                if (isLight(y, x)) {
+                    total++;
+                }
+            }
+        }
+        myLightX = new int[total];
+        myLightY = new int[total];
+        myCrosswalk = new boolean[total];
+        myLightRows = new int[myGrid.getHeight() + 1];
+        myLightLabels = new GlyphVector[total];
+        myLeftLabels = new GlyphVector[total];
+        int light = 0;
+        for (int y = 0; y < myGrid.getHeight(); y++) {
+            myLightRows[y] = light;
+            for (int x = 0; x < myGrid.getWidth(); x++) {
+                if (isLight(y, x)) {
+                    myLightX[light] = x;
+                    myLightY[light] = y;
+                    myCrosswalk[light] = myGrid.getTerrain(x, y) == Terrain.CROSSWALK;
+                    light++;
+                }
+            }
+        }
+        myLightRows[myGrid.getHeight()] = total;
+    }
+
+    /**
+     * Returns the index in myLightX and myLightY of the first square of the first row
+     * a region reaches.
+     *
+     * @param theRegion The region.
+     * @return the index of the first square that may be in the region.
+     */
+    private int firstLightIn(final Rectangle theRegion) {
+        final int row = Math.max(0, Math.min(myGrid.getHeight(),
+                                             theRegion.y / SQUARE_SIZE));
+        return myLightRows[row];
+    }
+
+    /**
+     * Returns the index in myLightX and myLightY just after the last square of the
+     * last row a region reaches.
+     *
+     * @param theRegion The region.
+     * @return the index after the last square that may be in the region.
+     */
+    private int endOfLightsIn(final Rectangle theRegion) {
+        final int row = Math.max(0, Math.min(myGrid.getHeight(),
+            (theRegion.y + theRegion.height - 1) / SQUARE_SIZE + 1));
+        return myLightRows[row];
+    }
+
+    /**
+     * Draws the colors of the lights in a region over the terrain.
+     *
      * @param theGraphics The Graphics2D object.
+     * @param theRegion The region.
      */
-    @SuppressWarnings("OverlyLongMethod")
-    private void drawMap(final Graphics2D theGraphics) {
-        for (int y = 0; y < myGrid.length; y++) {
-            final int topy = y * SQUARE_SIZE;
-
-            for (int x = 0; x < myGrid[y].length; x++) {
-                final int leftx = x * SQUARE_SIZE;
-
-                switch (myGrid[y][x]) {
-                    case STREET:
-                        theGraphics.setPaint(Color.LIGHT_GRAY);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        drawStreetLines(theGraphics, x, y);
-                        break;
-
-                    case WALL:
-                        theGraphics.setPaint(Color.BLACK);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        break;
-
-                    case TRAIL:
-                        theGraphics.setPaint(Color.YELLOW.darker().darker());
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        break;
-
-                    case LIGHT:
-                        // draw a circle of appropriate color
-                        theGraphics.setPaint(Color.LIGHT_GRAY);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        theGraphics.setPaint(myLightColor);
-                        theGraphics.fillOval(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        break;
-                        
-                    case CROSSWALK:
-                        theGraphics.setPaint(Color.LIGHT_GRAY);
-                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
-                        
-                        drawCrossWalkLines(theGraphics, x, y);
-                        
-                        // draw a small circle of appropriate color centered in the square
-                        theGraphics.setPaint(myLightColor);
-                        theGraphics.fillOval(leftx + (int)  (SQUARE_SIZE * CROSSWALK_SCALE),
-                                             topy  + (int) (SQUARE_SIZE * CROSSWALK_SCALE),
-                                             SQUARE_SIZE / 2, SQUARE_SIZE / 2);
-                        break;
-
-                    default:
+    private void drawLights(final Graphics2D theGraphics, final Rectangle theRegion) {
+        theGraphics.setPaint(myLightColor);
+        final int end = endOfLightsIn(theRegion);
+        for (int i = firstLightIn(theRegion); i < end; i++) {
+            final int leftx = myLightX[i] * SQUARE_SIZE;
+            final int topy = myLightY[i] * SQUARE_SIZE;
+            final boolean inRegion =
+                theRegion.intersects(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
+            if (inRegion && isDetailed()) {
+                if (myLightSprites == null) {
+                    myLightSprites = drawLightSprites();
                 }
+                drawSprite(theGraphics, myLightSprites[myCrosswalk[i] ? 1 : 0],
+                           leftx, topy);
+            } else if (inRegion) {
+                theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
+            }
+        }
+    }
 
-                drawDebugInfo(theGraphics, x, y);
+    /**
+     * Draws the coordinate labels that the colors of the lights in a region would
+     * cover: the labels of the lights and of the squares to their left, which can run
+     * into them. Each label is laid out once for the current zoom.
+     *
+     * @param theGraphics The Graphics2D object.
+     * @param theRegion The region.
+     */
+    private void drawLightLabels(final Graphics2D theGraphics, final Rectangle theRegion) {
+        theGraphics.setPaint(Color.BLACK);
+        final int end = endOfLightsIn(theRegion);
+        for (int i = firstLightIn(theRegion); i < end; i++) {
+            final int x = myLightX[i];
+            final int y = myLightY[i];
+            if (theRegion.intersects((x - 1) * SQUARE_SIZE, y * SQUARE_SIZE,
+                                     2 * SQUARE_SIZE, SQUARE_SIZE)) {
+                theGraphics.drawGlyphVector(
+                    coordinateLabel(theGraphics, myLightLabels, i, x, y),
+                    x * SQUARE_SIZE, y * SQUARE_SIZE + DEBUG_OFFSET);
+                if (x > 0 && !isLight(y, x - 1)) {
+                    theGraphics.drawGlyphVector(
+                        coordinateLabel(theGraphics, myLeftLabels, i, x - 1, y),
+                        (x - 1) * SQUARE_SIZE, y * SQUARE_SIZE + DEBUG_OFFSET);
+                }
             }
         }
     }
-    
+
+    /**
+     * Returns the coordinate label of a square, laid out the first time it is needed
+     * at the current zoom and kept in an array of labels.
+     *
+     * @param theGraphics The Graphics2D object the label is drawn with.
+     * @param theLabels The array the label is kept in.
+     * @param theIndex The index of the label in theLabels.
+     * @param theX The x-coordinate of the square.
+     * @param theY The y-coordinate of the square.
+     * @return the label's glyphs.
+     */
+    private GlyphVector coordinateLabel(final Graphics2D theGraphics,
+                                        final GlyphVector[] theLabels, final int theIndex,
+                                        final int theX, final int theY) {
+        GlyphVector result = theLabels[theIndex];
+        if (result == null) {
+            result = FONT.createGlyphVector(theGraphics.getFontRenderContext(),
+                                            "(" + theX + ", " + theY + ")");
+            theLabels[theIndex] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Draws the circles of a LIGHT square and of a CROSSWALK square in the current
+     * color at the current zoom.
+     *
+     * @return the images of the two circles, in that order.
+     */
+    private BufferedImage[] drawLightSprites() {
+        final BufferedImage light = new BufferedImage(squareSize(), squareSize(),
+                                                      BufferedImage.TYPE_INT_ARGB);
+        final BufferedImage crosswalk = new BufferedImage(squareSize(), squareSize(),
+                                                          BufferedImage.TYPE_INT_ARGB);
+        for (final BufferedImage image : new BufferedImage[] {light, crosswalk}) {
+            final Graphics2D graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+                                      RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.scale((double) squareSize() / SQUARE_SIZE,
+                           (double) squareSize() / SQUARE_SIZE);
+            graphics.setPaint(myLightColor);
+            TerrainPainter.paintLight(graphics, image == crosswalk, 0, 0);
+            graphics.dispose();
+        }
+        return new BufferedImage[] {light, crosswalk};
+    }
+
     /**
      * Draws debugging information, if necessary.
      * 
@@ -268,21 +1252,25 @@ public final class RoadRagePanel extends JPanel implements
      * Draws the debug information for a single Vehicle.
      * 
      * @param theGraphics The graphic context.
-     * @param theVehicle The Vehicle being drawn.
+     * @param theIndex The index of the Vehicle being drawn.
+     * @param theLeft The x-coordinate in pixels at which the Vehicle is drawn.
+     * @param theTop The y-coordinate in pixels at which the Vehicle is drawn.
      */
     @SuppressWarnings("OverlyLongMethod")
-    private void drawDebugInfo(final Graphics2D theGraphics, final Vehicle theVehicle) {
-        int x = theVehicle.getX() * SQUARE_SIZE;
-        int y = theVehicle.getY() * SQUARE_SIZE;
+    private void drawDebugInfo(final Graphics2D theGraphics, final int theIndex,
+                               final int theLeft, final int theTop) {
+        int x = theLeft;
+        int y = theTop;
 
         // draw numbers on each vehicle
+        final GlyphVector label = vehicleLabel(theGraphics, theIndex);
         theGraphics.setColor(Color.WHITE);
-        theGraphics.drawString(theVehicle.toString(), x, y + SQUARE_SIZE - 1);
+        theGraphics.drawGlyphVector(label, x, y + SQUARE_SIZE - 1);
         theGraphics.setColor(Color.BLACK);
-        theGraphics.drawString(theVehicle.toString(), x + 1, y + SQUARE_SIZE);
+        theGraphics.drawGlyphVector(label, x + 1, y + SQUARE_SIZE);
 
         // draw arrow on vehicle for its direction
-        final Direction dir = theVehicle.getDirection();
+        final Direction dir = myView.getDirection(theIndex);
         int dx = (SQUARE_SIZE - MARKER_SIZE) / 2;
         int dy = dx;
 
@@ -314,103 +1302,83 @@ public final class RoadRagePanel extends JPanel implements
     }
 
     /**
-     * Sets the paint color appropriately for the current lights.
-     * 
-     * @param theLight The Light to base the color on.
+     * Returns the debug label of a vehicle, laid out once for the current zoom and
+     * kept until the zoom changes.
+     *
+     * @param theGraphics The Graphics2D object the label is drawn with.
+     * @param theIndex The index of the vehicle.
+     * @return the label's glyphs.
      */
-    private void setLightColor(final Light theLight) {
-        switch (theLight) {
-            case GREEN:
-                myLightColor = Color.GREEN.darker();
-                break;
-
-            case RED:
-                myLightColor = Color.RED.darker();
-                break;
-
-            case YELLOW:
-                myLightColor = Color.YELLOW;
-                break;
-
-            default:
+    private GlyphVector vehicleLabel(final Graphics2D theGraphics, final int theIndex) {
+        GlyphVector result = myLabels[theIndex];
+        if (result == null) {
+            final String name;
+            if (theIndex < myVehicleNames.size()) {
+                name = myVehicleNames.get(theIndex);
+            } else {
+                name = myView.getType(theIndex) + " " + theIndex;
+            }
+            result = FONT.createGlyphVector(theGraphics.getFontRenderContext(), name);
+            myLabels[theIndex] = result;
         }
+        return result;
     }
-    
+
     /**
-     * Draws dotted lines on cross walks.
-     * 
-     * @param theGraphics The Graphics context to use for drawing.
-     * @param theX The x-coordinate of the cross walk.
-     * @param theY The y-coordinate of the cross walk.
+     * Returns the update count, laid out once for each timestep at the current zoom.
+     *
+     * @param theGraphics The Graphics2D object the label is drawn with.
+     * @return the label's glyphs.
      */
-    private void drawCrossWalkLines(final Graphics2D theGraphics,
-                                 final int theX, final int theY) {
-        
-        final Paint oldPaint = theGraphics.getPaint();
-        theGraphics.setPaint(Color.WHITE);
-
-        final int leftx = theX * SQUARE_SIZE;
-        final int topy = theY * SQUARE_SIZE;
-
-        final int rightx = leftx + SQUARE_SIZE;
-        final int bottomy = topy + SQUARE_SIZE;
-
-        if (isValidIndex(theY - 1, theX) && myGrid[theY - 1][theX] == Terrain.GRASS) {
-            // GRASS is above. Let's assume GRASS is also below.
-            // DRAW lines on left and right of light
-            theGraphics.drawLine(leftx  + (int) (SQUARE_SIZE * CROSSWALK_SCALE), topy,
-                                 leftx  + (int) (SQUARE_SIZE * CROSSWALK_SCALE), bottomy);
-            theGraphics.drawLine(rightx - (int) (SQUARE_SIZE * CROSSWALK_SCALE), topy,
-                                 rightx - (int) (SQUARE_SIZE * CROSSWALK_SCALE), bottomy);
+    private GlyphVector timestepLabel(final Graphics2D theGraphics) {
+        if (myTimestepLabel == null || myLabelTimestep != myTimestep) {
+            myTimestepLabel = FONT.createGlyphVector(theGraphics.getFontRenderContext(),
+                                                     "Update # " + myTimestep);
+            myLabelTimestep = myTimestep;
         }
-        
-
-        if (isValidIndex(theY, theX - 1) && myGrid[theY][theX - 1] == Terrain.GRASS) {
-            // GRASS is left. Let's assume GRASS is also right.
-            // DRAW lines above and below light
-            theGraphics.drawLine(leftx, topy + (int) (SQUARE_SIZE * CROSSWALK_SCALE),
-                                 rightx, topy + (int) (SQUARE_SIZE * CROSSWALK_SCALE));
-            theGraphics.drawLine(leftx, bottomy - (int) (SQUARE_SIZE * CROSSWALK_SCALE),
-                                 rightx, bottomy - (int) (SQUARE_SIZE * CROSSWALK_SCALE));
-        }
-
-        theGraphics.setPaint(oldPaint);
+        return myTimestepLabel;
     }
-    
+
     /**
-     * Draws dotted lines on streets.
-     * 
-     * @param theGraphics The Graphics context to use for drawing.
-     * @param theX The x-coordinate of the street.
-     * @param theY The y-coordinate of the street.
+     * Tests whether a vehicle moved to a neighboring square in the latest tick, and
+     * so can be drawn part way through its move.
+     *
+     * @param thePrevious The state of the vehicles one tick before myView.
+     * @param theIndex The index of the Vehicle.
+     * @return true if the Vehicle moved one square while alive, false otherwise.
      */
-    private void drawStreetLines(final Graphics2D theGraphics,
-                                 final int theX, final int theY) {
-        
-        final Paint oldPaint = theGraphics.getPaint();
-        theGraphics.setPaint(Color.YELLOW);
-
-        final int leftx = theX * SQUARE_SIZE;
-        final int topy = theY * SQUARE_SIZE;
-        final int centerx = leftx + SQUARE_SIZE / 2;
-        final int centery = topy + SQUARE_SIZE / 2;
-        final int rightx = leftx + SQUARE_SIZE;
-        final int bottomy = topy + SQUARE_SIZE;
+    private boolean isOneSquareMove(final TickView thePrevious, final int theIndex) {
+        return myView.isAlive(theIndex) && thePrevious.isAlive(theIndex)
+            && Math.abs(myView.getX(theIndex) - thePrevious.getX(theIndex))
+               + Math.abs(myView.getY(theIndex) - thePrevious.getY(theIndex)) == 1;
+    }
 
-        if (isValidIndex(theY - 1, theX) && myGrid[theY - 1][theX] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, centerx, topy); // above
-        }
-        if (isValidIndex(theY + 1, theX) && myGrid[theY + 1][theX] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, centerx, bottomy); // below
-        }
-        if (isValidIndex(theY, theX - 1) && myGrid[theY][theX - 1] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, leftx, centery); // left
-        }
-        if (isValidIndex(theY, theX + 1) && myGrid[theY][theX + 1] == Terrain.STREET) {
-            theGraphics.drawLine(centerx, centery, rightx, centery); // right
+    /**
+     * Paints a frame if anything has changed or vehicles are still moving.
+     */
+    private void nextFrame() {
+        if (myDirty || myMoving) {
+            myDirty = false;
+            if (myView != null && myView.getVehicleCount() != myDrawnX.length
+                || !frameBounds().equals(myFrameBounds)) {
+                myFrame = null;
+            }
+            if (myFrame == null) {
+                repaint();
+            } else {
+                updateFrame();
+            }
         }
+    }
 
-        theGraphics.setPaint(oldPaint);
+    /**
+     * Sets the paint color appropriately for the current lights.
+     * 
+     * @param theLight The Light to base the color on.
+     */
+    private void setLightColor(final Light theLight) {
+        myLightSprites = null;
+        myLightColor = TerrainPainter.lightColor(theLight);
     }
     
     /**
@@ -421,41 +1389,115 @@ public final class RoadRagePanel extends JPanel implements
      * @return true if the position exists on the map, false otherwise.
      */
     private boolean isValidIndex(final int theY, final int theX) {
-        return theY >= 0 && theY < myGrid.length
-            && theX >= 0 && theX < myGrid[theY].length;
+        return myGrid.contains(theX, theY);
     }
 
     @Override
-    public void propertyChange(final PropertyChangeEvent theEvent) {
-        switch (theEvent.getPropertyName()) {
-            case PROPERTY_GRID:
-                myGrid = (Terrain[][]) theEvent.getNewValue();
-                repaint();
-                break;
-            case PROPERTY_LIGHT:
-                setLightColor((Light) theEvent.getNewValue());
-                repaint();
-                break;
-            case PROPERTY_VEHICLES:
-                @SuppressWarnings("unchecked") 
-                final List<Vehicle> list = (List<Vehicle>) theEvent.getNewValue();
-                myVehicles = new ArrayList<>(list);
-                repaint();
-                break;
-            case PROPERTY_TIME:
-                myTimestep = (Long) theEvent.getNewValue();
-                repaint();
-                break;
-            default:
-                break;  
-            
+    public void onGrid(final TerrainGrid theGrid) {
+        myGrid = theGrid;
+        myMapHeight = theGrid.getHeight();
+        myMapWidth = theGrid.getWidth();
+        findLights();
+        updatePreferredSize();
+        myTerrain = null;
+        myFrame = null;
+        myDirty = true;
+    }
+
+    @Override
+    public void onLight(final Light theLight) {
+        setLightColor(theLight);
+        myLightChanged = true;
+        myDirty = true;
+    }
+
+    @Override
+    public void onTick(final long theTimestep, final TickView theView) {
+        // a move can only be drawn between two consecutive ticks
+        if (myView != null && myView.getTimestep() == theTimestep - 1
+            && myView.getVehicleCount() == theView.getVehicleCount()) {
+            myPreviousView = myView;
+        } else {
+            myPreviousView = null;
+        }
+        myTimestep = theTimestep;
+        myView = theView;
+        final int count = theView.getVehicleCount();
+        if (myVehicleGrid == null || !myVehicleGrid.fits(myMapWidth, myMapHeight, count)) {
+            myVehicleGrid = new VehicleGrid(myMapWidth, myMapHeight, count);
         }
+        myVehicleGrid.sort(theView);
+        myArrival = System.nanoTime();
+        myDirty = true;
     }
 
     @Override
     public void stateChanged(final ChangeEvent theEvent) {
         myDebugFlag = ((JToggleButton) theEvent.getSource()).isSelected();
-        repaint();
+        myTerrain = null;
+        myFrame = null;
+        myDirty = true;
+    }
+
+    /**
+     * Pans the view when the map is dragged, and zooms it when the mouse wheel is
+     * turned with the control key held down.
+     */
+    private final class ViewMouseHandler extends MouseAdapter {
+
+        /**
+         * The point on the screen where the current drag started, or null.
+         */
+        private Point myDragStart;
+
+        /**
+         * The position of the view when the current drag started.
+         */
+        private Point myViewStart;
+
+        @Override
+        public void mousePressed(final MouseEvent theEvent) {
+            if (getParent() instanceof JViewport) {
+                myDragStart = theEvent.getLocationOnScreen();
+                myViewStart = ((JViewport) getParent()).getViewPosition();
+            }
+        }
+
+        @Override
+        public void mouseDragged(final MouseEvent theEvent) {
+            if (myDragStart != null) {
+                final JViewport viewport = (JViewport) getParent();
+                final Dimension size = viewport.getViewSize();
+                final Dimension extent = viewport.getExtentSize();
+                final Point now = theEvent.getLocationOnScreen();
+                final int x = myViewStart.x - (now.x - myDragStart.x);
+                final int y = myViewStart.y - (now.y - myDragStart.y);
+                viewport.setViewPosition(
+                    new Point(Math.max(0, Math.min(size.width - extent.width, x)),
+                              Math.max(0, Math.min(size.height - extent.height, y))));
+            }
+        }
+
+        @Override
+        public void mouseReleased(final MouseEvent theEvent) {
+            myDragStart = null;
+        }
+
+        @Override
+        public void mouseWheelMoved(final MouseWheelEvent theEvent) {
+            if (theEvent.isControlDown()) {
+                setZoom(myZoom + theEvent.getWheelRotation(), theEvent.getPoint());
+            } else {
+                // listening for the wheel here keeps it from the scroll pane, so pass
+                // it on
+                final Container scrollPane = SwingUtilities.getAncestorOfClass(
+                    JScrollPane.class, RoadRagePanel.this);
+                if (scrollPane != null) {
+                    scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(
+                        RoadRagePanel.this, theEvent, scrollPane));
+                }
+            }
+        }
     }
     
 } // end class RoadRagePanel
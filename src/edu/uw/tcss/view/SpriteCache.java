@@ -0,0 +1,97 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.model.VehicleType;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.MediaTracker;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import javax.swing.ImageIcon;
+
+/**
+ * The images of every kind of vehicle, alive and dead, loaded once and scaled to the
+ * size they are drawn at. Looking up a sprite does no file I/O and builds no strings,
+ * so it is cheap enough to do for every vehicle on every frame.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class SpriteCache {
+
+    /**
+     * The directory the images are loaded from.
+     */
+    private static final String ICON_DIRECTORY = "icons//";
+
+    /**
+     * The images of living vehicles, indexed by VehicleType ordinal.
+     */
+    private final Image[] myAlive;
+
+    /**
+     * The images of dead vehicles, indexed by VehicleType ordinal.
+     */
+    private final Image[] myDead;
+
+    /**
+     * Loads and scales the images of every kind of vehicle.
+     *
+     * @param theSize the width and height in pixels to scale the images to.
+     */
+    SpriteCache(final int theSize) {
+        super();
+        final VehicleType[] types = VehicleType.values();
+        myAlive = new Image[types.length];
+        myDead = new Image[types.length];
+        for (final VehicleType type : types) {
+            myAlive[type.ordinal()] = load(type.getImageFileName(true), theSize);
+            myDead[type.ordinal()] = load(type.getImageFileName(false), theSize);
+        }
+    }
+
+    /**
+     * Returns the image of a vehicle.
+     *
+     * @param theType the kind of vehicle.
+     * @param theAlive whether the vehicle is alive.
+     * @return the image, scaled to the size of the cache.
+     */
+    Image get(final VehicleType theType, final boolean theAlive) {
+        final Image result;
+        if (theAlive) {
+            result = myAlive[theType.ordinal()];
+        } else {
+            result = myDead[theType.ordinal()];
+        }
+        return result;
+    }
+
+    /**
+     * Loads an image from the icon directory, or from the class path if it is not
+     * there, and scales it.
+     *
+     * @param theFileName the name of the image file.
+     * @param theSize the width and height in pixels to scale the image to.
+     * @return the scaled image.
+     */
+    private static Image load(final String theFileName, final int theSize) {
+        final String path = ICON_DIRECTORY + theFileName;
+        ImageIcon icon = new ImageIcon(path);
+        if (icon.getImageLoadStatus() != MediaTracker.COMPLETE) {
+            icon = new ImageIcon(SpriteCache.class.getResource(path));
+        }
+
+        final BufferedImage result =
+            new BufferedImage(theSize, theSize, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D graphics = result.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION,
+                                  RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(icon.getImage(), 0, 0, theSize, theSize, null);
+        graphics.dispose();
+        return result;
+    }
+}
@@ -0,0 +1,239 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Paint;
+
+/**
+ * Draws the terrain of a city map and the colors of its lights. Squares are drawn
+ * SQUARE_SIZE units wide; callers scale the Graphics2D object to draw them at other
+ * sizes. Used by every view of the map, so they all look the same.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class TerrainPainter {
+
+    /**
+     * The size in units of a side of one "square" on the grid.
+     */
+    static final int SQUARE_SIZE = 40;
+
+    /**
+     * The stroke used for painting.
+     */
+    private static final BasicStroke STROKE = new BasicStroke(3, BasicStroke.CAP_BUTT,
+                                                              BasicStroke.JOIN_MITER, 2,
+                                                              new float[] {2, 2, 2, 2}, 0);
+
+    /**
+     * The offset to use to position cross walk lines and to use for cross walk light size.
+     */
+    private static final double CROSSWALK_SCALE = .25;
+
+    /**
+     * Private constructor to prevent construction of instances.
+     */
+    private TerrainPainter() {
+        super();
+        // do nothing
+    }
+
+    /**
+     * Returns the color lights are drawn in while showing a Light.
+     *
+     * @param theLight The Light.
+     * @return the color.
+     */
+    static Color lightColor(final Light theLight) {
+        return switch (theLight) {
+            case GREEN -> Color.GREEN.darker();
+            case RED -> Color.RED.darker();
+            case YELLOW -> Color.YELLOW;
+        };
+    }
+
+    /**
+     * Draws the circle of a LIGHT or CROSSWALK square in the current paint.
+     *
+     * @param theGraphics The Graphics2D object.
+     * @param theCrosswalk Whether the square is a CROSSWALK rather than a LIGHT.
+     * @param theLeft The x-coordinate of the square.
+     * @param theTop The y-coordinate of the square.
+     */
+    static void paintLight(final Graphics2D theGraphics, final boolean theCrosswalk,
+                           final int theLeft, final int theTop) {
+        if (theCrosswalk) {
+            // draw a small circle of appropriate color centered in the square
+            theGraphics.fillOval(theLeft + (int) (SQUARE_SIZE * CROSSWALK_SCALE),
+                                 theTop + (int) (SQUARE_SIZE * CROSSWALK_SCALE),
+                                 SQUARE_SIZE / 2, SQUARE_SIZE / 2);
+        } else {
+            // draw a circle of appropriate color
+            theGraphics.fillOval(theLeft, theTop, SQUARE_SIZE, SQUARE_SIZE);
+        }
+    }
+
+    /**
+     * Draws the squares of the city map in an area, apart from the colors of the
+     * lights, with the specified Graphics2D object. The stroke of the Graphics2D
+     * object is changed.
+     * 
+     * @param theGraphics The Graphics2D object.
+     * @param theGrid The terrain grid.
+     * @param theLeft The leftmost column of the area.
+     * @param theTop The top row of the area.
+     * @param theRight The rightmost column of the area.
+     * @param theBottom The bottom row of the area.
+     */
+    @SuppressWarnings("MethodWithTooManyParameters")
+    static void paint(final Graphics2D theGraphics, final TerrainGrid theGrid,
+                      final int theLeft, final int theTop,
+                      final int theRight, final int theBottom) {
+        theGraphics.setStroke(STROKE);
+        for (int y = theTop; y <= Math.min(theBottom, theGrid.getHeight() - 1); y++) {
+            final int topy = y * SQUARE_SIZE;
+
+            for (int x = theLeft; x <= Math.min(theRight, theGrid.getWidth() - 1); x++) {
+                final int leftx = x * SQUARE_SIZE;
+
+                switch (theGrid.getTerrain(x, y)) {
+                    case STREET:
+                        theGraphics.setPaint(Color.LIGHT_GRAY);
+                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
+                        drawStreetLines(theGraphics, theGrid, x, y);
+                        break;
+
+                    case WALL:
+                        theGraphics.setPaint(Color.BLACK);
+                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
+                        break;
+
+                    case TRAIL:
+                        theGraphics.setPaint(Color.YELLOW.darker().darker());
+                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
+                        break;
+
+                    case LIGHT:
+                        // the circle is drawn by paintLight
+                        theGraphics.setPaint(Color.LIGHT_GRAY);
+                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
+                        break;
+                        
+                    case CROSSWALK:
+                        theGraphics.setPaint(Color.LIGHT_GRAY);
+                        theGraphics.fillRect(leftx, topy, SQUARE_SIZE, SQUARE_SIZE);
+                        
+                        drawCrossWalkLines(theGraphics, theGrid, x, y);
+                        break;
+
+                    default:
+                }
+            }
+        }
+    }
+    
+    /**
+     * Draws dotted lines on cross walks.
+     * 
+     * @param theGraphics The Graphics context to use for drawing.
+     * @param theGrid The terrain grid.
+     * @param theX The x-coordinate of the cross walk.
+     * @param theY The y-coordinate of the cross walk.
+     */
+    private static void drawCrossWalkLines(final Graphics2D theGraphics,
+                                           final TerrainGrid theGrid,
+                                           final int theX, final int theY) {
+        
+        final Paint oldPaint = theGraphics.getPaint();
+        theGraphics.setPaint(Color.WHITE);
+
+        final int leftx = theX * SQUARE_SIZE;
+        final int topy = theY * SQUARE_SIZE;
+
+        final int rightx = leftx + SQUARE_SIZE;
+        final int bottomy = topy + SQUARE_SIZE;
+
+        if (isTerrain(theGrid, theY - 1, theX, Terrain.GRASS)) {
+            // GRASS is above. Let's assume GRASS is also below.
+            // DRAW lines on left and right of light
+            theGraphics.drawLine(leftx  + (int) (SQUARE_SIZE * CROSSWALK_SCALE), topy,
+                                 leftx  + (int) (SQUARE_SIZE * CROSSWALK_SCALE), bottomy);
+            theGraphics.drawLine(rightx - (int) (SQUARE_SIZE * CROSSWALK_SCALE), topy,
+                                 rightx - (int) (SQUARE_SIZE * CROSSWALK_SCALE), bottomy);
+        }
+        
+
+        if (isTerrain(theGrid, theY, theX - 1, Terrain.GRASS)) {
+            // GRASS is left. Let's assume GRASS is also right.
+            // DRAW lines above and below light
+            theGraphics.drawLine(leftx, topy + (int) (SQUARE_SIZE * CROSSWALK_SCALE),
+                                 rightx, topy + (int) (SQUARE_SIZE * CROSSWALK_SCALE));
+            theGraphics.drawLine(leftx, bottomy - (int) (SQUARE_SIZE * CROSSWALK_SCALE),
+                                 rightx, bottomy - (int) (SQUARE_SIZE * CROSSWALK_SCALE));
+        }
+
+        theGraphics.setPaint(oldPaint);
+    }
+    
+    /**
+     * Draws dotted lines on streets.
+     * 
+     * @param theGraphics The Graphics context to use for drawing.
+     * @param theGrid The terrain grid.
+     * @param theX The x-coordinate of the street.
+     * @param theY The y-coordinate of the street.
+     */
+    private static void drawStreetLines(final Graphics2D theGraphics,
+                                        final TerrainGrid theGrid,
+                                        final int theX, final int theY) {
+        
+        final Paint oldPaint = theGraphics.getPaint();
+        theGraphics.setPaint(Color.YELLOW);
+
+        final int leftx = theX * SQUARE_SIZE;
+        final int topy = theY * SQUARE_SIZE;
+        final int centerx = leftx + SQUARE_SIZE / 2;
+        final int centery = topy + SQUARE_SIZE / 2;
+        final int rightx = leftx + SQUARE_SIZE;
+        final int bottomy = topy + SQUARE_SIZE;
+
+        if (isTerrain(theGrid, theY - 1, theX, Terrain.STREET)) {
+            theGraphics.drawLine(centerx, centery, centerx, topy); // above
+        }
+        if (isTerrain(theGrid, theY + 1, theX, Terrain.STREET)) {
+            theGraphics.drawLine(centerx, centery, centerx, bottomy); // below
+        }
+        if (isTerrain(theGrid, theY, theX - 1, Terrain.STREET)) {
+            theGraphics.drawLine(centerx, centery, leftx, centery); // left
+        }
+        if (isTerrain(theGrid, theY, theX + 1, Terrain.STREET)) {
+            theGraphics.drawLine(centerx, centery, rightx, centery); // right
+        }
+
+        theGraphics.setPaint(oldPaint);
+    }
+
+    /**
+     * Tests whether the square at the given x/y position exists on the map and has
+     * the given terrain.
+     *
+     * @param theGrid The terrain grid.
+     * @param theY The y position.
+     * @param theX The x position.
+     * @param theTerrain The terrain.
+     * @return true if the square exists and has the terrain, false otherwise.
+     */
+    private static boolean isTerrain(final TerrainGrid theGrid, final int theY,
+                                     final int theX, final Terrain theTerrain) {
+        return theGrid.contains(theX, theY) && theGrid.getTerrain(theX, theY) == theTerrain;
+    }
+}
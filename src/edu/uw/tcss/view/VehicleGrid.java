@@ -0,0 +1,175 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.view;
+
+import edu.uw.tcss.logic.TickView;
+import java.util.Arrays;
+
+/**
+ * The vehicles of a TickView sorted into square tiles of the map, so the vehicles in
+ * an area can be found without looking at every vehicle. Within a tile the vehicles
+ * are kept in index order. A grid is made for a map and a number of vehicles, and
+ * sorts the vehicles of each new view in place.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+final class VehicleGrid {
+
+    /**
+     * The width and height of a tile, in squares.
+     */
+    private static final int TILE_SIZE = 16;
+
+    /**
+     * The width of the map in squares.
+     */
+    private final int myWidth;
+
+    /**
+     * The height of the map in squares.
+     */
+    private final int myHeight;
+
+    /**
+     * The number of tiles across the map.
+     */
+    private final int myColumns;
+
+    /**
+     * The number of tiles down the map.
+     */
+    private final int myRows;
+
+    /**
+     * The position in myOrder of the first vehicle of each tile, with one extra entry
+     * for the end of the last tile.
+     */
+    private final int[] myStarts;
+
+    /**
+     * The position in myOrder of the next vehicle of each tile, while sorting.
+     */
+    private final int[] myNext;
+
+    /**
+     * The tile of each vehicle, while sorting.
+     */
+    private final int[] myTiles;
+
+    /**
+     * The vehicle indexes, tile by tile.
+     */
+    private final int[] myOrder;
+
+    /**
+     * Makes an empty grid for a map and a number of vehicles.
+     *
+     * @param theWidth the width of the map in squares.
+     * @param theHeight the height of the map in squares.
+     * @param theCount the number of vehicles.
+     */
+    VehicleGrid(final int theWidth, final int theHeight, final int theCount) {
+        super();
+        myWidth = theWidth;
+        myHeight = theHeight;
+        myColumns = Math.max(1, (theWidth + TILE_SIZE - 1) / TILE_SIZE);
+        myRows = Math.max(1, (theHeight + TILE_SIZE - 1) / TILE_SIZE);
+        myStarts = new int[myColumns * myRows + 1];
+        myNext = new int[myColumns * myRows + 1];
+        myTiles = new int[theCount];
+        myOrder = new int[theCount];
+    }
+
+    /**
+     * Tests whether this grid was made for a map and a number of vehicles.
+     *
+     * @param theWidth the width of the map in squares.
+     * @param theHeight the height of the map in squares.
+     * @param theCount the number of vehicles.
+     * @return true if the grid can sort views of that map and vehicles.
+     */
+    boolean fits(final int theWidth, final int theHeight, final int theCount) {
+        return myWidth == theWidth && myHeight == theHeight && myOrder.length == theCount;
+    }
+
+    /**
+     * Sorts the vehicles of a view into tiles, replacing the vehicles sorted before.
+     * The view must have the number of vehicles the grid was made for.
+     *
+     * @param theView the view.
+     */
+    void sort(final TickView theView) {
+        final int count = myOrder.length;
+        Arrays.fill(myStarts, 0);
+        for (int i = 0; i < count; i++) {
+            myTiles[i] = tileOf(theView.getX(i), theView.getY(i));
+            myStarts[myTiles[i] + 1]++;
+        }
+        for (int tile = 0; tile < myColumns * myRows; tile++) {
+            myStarts[tile + 1] += myStarts[tile];
+        }
+        System.arraycopy(myStarts, 0, myNext, 0, myStarts.length);
+        for (int i = 0; i < count; i++) {
+            myOrder[myNext[myTiles[i]]++] = i;
+        }
+    }
+
+    /**
+     * Finds the vehicles in every tile that overlaps an area of squares. The result
+     * may include vehicles just outside the area, so callers must still compare
+     * positions.
+     *
+     * @param theLeft the leftmost column of the area.
+     * @param theTop the top row of the area.
+     * @param theRight the rightmost column of the area.
+     * @param theBottom the bottom row of the area.
+     * @param theResult the array to put the vehicle indexes in, with room after
+     *        theStart for every vehicle.
+     * @param theStart the position in theResult to put the first vehicle index.
+     * @return the position in theResult after the last vehicle index put there.
+     */
+    @SuppressWarnings("MethodWithTooManyParameters")
+    int find(final int theLeft, final int theTop, final int theRight, final int theBottom,
+             final int[] theResult, final int theStart) {
+        final int left = clamp(theLeft / TILE_SIZE, myColumns);
+        final int right = clamp(theRight / TILE_SIZE, myColumns);
+        final int top = clamp(theTop / TILE_SIZE, myRows);
+        final int bottom = clamp(theBottom / TILE_SIZE, myRows);
+        int result = theStart;
+        for (int row = top; row <= bottom; row++) {
+            // the tiles of a row are next to each other in myOrder
+            final int start = myStarts[row * myColumns + left];
+            final int end = myStarts[row * myColumns + right + 1];
+            System.arraycopy(myOrder, start, theResult, result, end - start);
+            result += end - start;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the tile holding a square, treating squares off the map as being in the
+     * nearest tile.
+     *
+     * @param theX the x-coordinate of the square.
+     * @param theY the y-coordinate of the square.
+     * @return the tile number.
+     */
+    private int tileOf(final int theX, final int theY) {
+        return clamp(theY / TILE_SIZE, myRows) * myColumns
+            + clamp(theX / TILE_SIZE, myColumns);
+    }
+
+    /**
+     * Limits a tile coordinate to the tiles that exist.
+     *
+     * @param theTile the tile coordinate.
+     * @param theCount the number of tiles in that direction.
+     * @return the nearest tile coordinate from 0 to theCount - 1.
+     */
+    private static int clamp(final int theTile, final int theCount) {
+        return Math.max(0, Math.min(theCount - 1, theTile));
+    }
+}
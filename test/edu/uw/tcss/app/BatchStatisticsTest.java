@@ -0,0 +1,102 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.uw.tcss.logic.BatchStatistics;
+import edu.uw.tcss.logic.RunStatistics;
+import edu.uw.tcss.logic.RunStatistics.Measure;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class BatchStatistics, with made-up run results.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class BatchStatisticsTest {
+
+    /**
+     * The largest difference allowed between an expected and a computed statistic.
+     */
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * A large count, for testing the precision of the statistics.
+     */
+    private static final long BILLION = 1_000_000_000L;
+
+    /**
+     * Test that statistics over no runs are all zero.
+     */
+    @Test
+    public void testNoRuns() {
+        final BatchStatistics batch = new BatchStatistics();
+        assertEquals(0, batch.getRuns(), "No runs have been added");
+        assertEquals(0, batch.getMean(Measure.MOVES), TOLERANCE, "Mean of no runs");
+        assertEquals(0, batch.getStandardDeviation(Measure.MOVES), TOLERANCE,
+                     "Standard deviation of no runs");
+    }
+
+    /**
+     * Test the mean, standard deviation, minimum and maximum of known values.
+     */
+    @Test
+    public void testKnownValues() {
+        final BatchStatistics batch = batch(2, 4, 4, 4, 5, 5, 7, 9);
+        assertEquals(8, batch.getRuns(), "Eight runs have been added");
+        assertEquals(5, batch.getMean(Measure.MOVES), TOLERANCE, "Wrong mean");
+        assertEquals(Math.sqrt(32.0 / 7), batch.getStandardDeviation(Measure.MOVES),
+                     TOLERANCE, "Wrong sample standard deviation");
+        assertEquals(2, batch.getMin(Measure.MOVES), "Wrong minimum");
+        assertEquals(9, batch.getMax(Measure.MOVES), "Wrong maximum");
+        assertEquals(0, batch.getStandardDeviation(Measure.DEATHS), TOLERANCE,
+                     "A constant measure should not vary");
+    }
+
+    /**
+     * Test that the variance of large values close together keeps its precision, as
+     * it would not if computed from their sum of squares.
+     */
+    @Test
+    public void testLargeValues() {
+        final BatchStatistics batch = batch(BILLION + 4, BILLION + 7, BILLION + 13,
+                                            BILLION + 16);
+        assertEquals(BILLION + 10, batch.getMean(Measure.MOVES), TOLERANCE,
+                     "Wrong mean of large values");
+        assertEquals(Math.sqrt(30), batch.getStandardDeviation(Measure.MOVES), TOLERANCE,
+                     "Wrong sample standard deviation of large values");
+    }
+
+    /**
+     * Test that run results must have one value for each measure.
+     */
+    @Test
+    public void testWrongValueCount() {
+        assertThrows(IllegalArgumentException.class, () -> new RunStatistics(0, 0, 1, 2),
+                     "Too few values should be rejected");
+    }
+
+    /**
+     * Builds statistics over runs with the given number of moves and one of each
+     * other measure.
+     *
+     * @param theMoves the number of moves in each run.
+     * @return the statistics.
+     */
+    private static BatchStatistics batch(final long... theMoves) {
+        final BatchStatistics result = new BatchStatistics();
+        for (final long moves : theMoves) {
+            final long[] values = new long[Measure.values().length];
+            Arrays.fill(values, 1);
+            values[Measure.MOVES.ordinal()] = moves;
+            result.add(new RunStatistics(0, 0, values));
+        }
+        return result;
+    }
+}
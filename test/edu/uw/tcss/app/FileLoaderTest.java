@@ -0,0 +1,394 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.io.FileLoader;
+import edu.uw.tcss.io.MapFormatException;
+import edu.uw.tcss.io.TiledTerrainGrid;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Unit tests for reading city map files with class FileLoader.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class FileLoaderTest {
+
+    /**
+     * A small well-formed map file with a seed line.
+     */
+    private static final String MAP = """
+        2 3
+        -|+
+        X.#
+        2
+        C 1 0 E |
+        H 0 1 N X
+        SEED 305
+        """;
+
+    /**
+     * The directory the test map files are written to.
+     */
+    @TempDir
+    private Path myDirectory;
+
+    /**
+     * Test that the grid, the vehicles and the seed of a map file are read.
+     *
+     * @throws IOException if the map cannot be read.
+     */
+    @Test
+    public void testReadMap() throws IOException {
+        final CityMap map = FileLoader.readMap(write(MAP));
+        assertArrayEquals(new Terrain[][] {
+            {Terrain.GRASS, Terrain.STREET, Terrain.LIGHT},
+            {Terrain.WALL, Terrain.TRAIL, Terrain.CROSSWALK}}, map.getGrid(),
+                          "The grid should be read row by row");
+        final List<Vehicle> vehicles = map.createVehicles();
+        assertEquals(2, vehicles.size(), "Both vehicles should be read");
+        assertVehicle(vehicles.get(0), VehicleType.CAR, 1, 0, Direction.EAST);
+        assertVehicle(vehicles.get(1), VehicleType.HUMAN, 0, 1, Direction.NORTH);
+        assertEquals(305L, map.getSeed().orElseThrow(), "The seed should be read");
+    }
+
+    /**
+     * Test that lines ending in CR LF are read, and that the seed line is optional.
+     *
+     * @throws IOException if the map cannot be read.
+     */
+    @Test
+    public void testCarriageReturnsAndNoSeed() throws IOException {
+        final String text = MAP.substring(0, MAP.indexOf("SEED")).replace("\n", "\r\n");
+        final CityMap map = FileLoader.readMap(write(text));
+        assertEquals(2, map.getVehicleCount(), "Both vehicles should be read");
+        assertEquals(Terrain.LIGHT, map.getGrid()[0][2],
+                     "A carriage return should not be read as terrain");
+        assertFalse(map.getSeed().isPresent(), "There should be no seed");
+    }
+
+    /**
+     * Test that an unknown terrain letter is reported at its line and column.
+     */
+    @Test
+    public void testBadTerrain() {
+        assertError(MAP.replace("X.#", "X?#"), 3, 2);
+    }
+
+    /**
+     * Test that a grid row that is too short is reported at its end.
+     */
+    @Test
+    public void testShortRow() {
+        assertError(MAP.replace("X.#", "X."), 3, 3);
+    }
+
+    /**
+     * Test that an unknown vehicle letter is reported at its line and column.
+     */
+    @Test
+    public void testBadVehicle() {
+        assertError(MAP.replace("H 0 1 N X", "Q 0 1 N X"), 6, 1);
+    }
+
+    /**
+     * Test that an unknown direction letter is reported at its line and column.
+     */
+    @Test
+    public void testBadDirection() {
+        assertError(MAP.replace("C 1 0 E", "C 1 0 Z"), 5, 7);
+    }
+
+    /**
+     * Test that a vehicle placed off the map is reported at its coordinate.
+     */
+    @Test
+    public void testVehicleOffMap() {
+        assertError(MAP.replace("C 1 0 E", "C 3 0 E"), 5, 3);
+    }
+
+    /**
+     * Test that a file that ends before all of its vehicles is reported.
+     */
+    @Test
+    public void testMissingVehicle() {
+        assertError(MAP.substring(0, MAP.indexOf("H 0 1")), 6, 1);
+    }
+
+    /**
+     * Test that text that is not a seed line after the vehicles is reported.
+     */
+    @Test
+    public void testTrailingText() {
+        assertError(MAP.replace("SEED 305", "SEEDS 305"), 7, 5);
+    }
+
+    /**
+     * Test that a map written in the binary format and then in the text format reads
+     * back the same as the original.
+     *
+     * @throws IOException if a map cannot be read or written.
+     */
+    @Test
+    public void testConvertRoundTrip() throws IOException {
+        final CityMap original = FileLoader.readMap(write(MAP));
+        final File binary = myDirectory.resolve("map" + FileLoader.BINARY_EXTENSION).toFile();
+        FileLoader.writeMap(original, binary);
+        final File text = myDirectory.resolve("copy.txt").toFile();
+        FileLoader.writeMap(FileLoader.readMap(binary), text);
+
+        assertEquals(MAP, Files.readString(text.toPath(), StandardCharsets.US_ASCII),
+                     "The text map should be written as it was read");
+        assertSameMap(original, FileLoader.readMap(binary));
+    }
+
+    /**
+     * Test that a text map is cached, that the cache is used while the map is
+     * unchanged, and that it is not used once the map changes.
+     *
+     * @throws IOException if a map cannot be read.
+     */
+    @Test
+    public void testCache() throws IOException {
+        final File file = write(MAP);
+        final CityMap original = FileLoader.readMap(file);
+        final File cache = FileLoader.cacheOf(file);
+        assertTrue(cache.isFile(), "The text map should be cached");
+        assertSameMap(original, FileLoader.readMap(file));
+
+        write(MAP.replace("SEED 305", "SEED 306"));
+        assertEquals(306L, FileLoader.readMap(file).getSeed().orElseThrow(),
+                     "A changed text map should be parsed again");
+    }
+
+    /**
+     * Test that a damaged cache is replaced rather than read.
+     *
+     * @throws IOException if a map cannot be read.
+     */
+    @Test
+    public void testDamagedCache() throws IOException {
+        final File file = write(MAP);
+        final CityMap original = FileLoader.readMap(file);
+        final Path cache = FileLoader.cacheOf(file).toPath();
+        final byte[] bytes = Files.readAllBytes(cache);
+        Files.write(cache, Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertSameMap(original, FileLoader.readMap(file));
+        assertArrayEquals(bytes, Files.readAllBytes(cache), "The cache should be rewritten");
+    }
+
+    /**
+     * Test that a memory-mapped binary map reads the same as the original, and that
+     * its grid rejects squares off the map.
+     *
+     * @throws IOException if a map cannot be read or written.
+     */
+    @Test
+    public void testMapBinary() throws IOException {
+        final CityMap original = FileLoader.readMap(write(MAP));
+        final File binary = myDirectory.resolve("map" + FileLoader.BINARY_EXTENSION).toFile();
+        FileLoader.writeMap(original, binary);
+
+        final CityMap mapped = FileLoader.mapMap(binary);
+        assertSameMap(original, mapped);
+        assertThrows(IndexOutOfBoundsException.class,
+            () -> mapped.getTerrain().getTerrain(original.getWidth(), 0),
+                     "A square off the map should be rejected");
+    }
+
+    /**
+     * Test that a tiled binary map reads back every square of a map spanning several
+     * tiles, loading each tile once when read a tile at a time and evicting a tile
+     * when full.
+     *
+     * @throws IOException if a map cannot be written.
+     */
+    @Test
+    public void testTileBinary() throws IOException {
+        final int width = 2 * TiledTerrainGrid.TILE_SIZE + 1;
+        final int height = TiledTerrainGrid.TILE_SIZE + 6;
+        final Terrain[][] grid = pattern(width, height);
+        try (TiledTerrainGrid tiled = tile(grid, 2)) {
+            assertEquals(0, tiled.getTileCount(), "No tile should be loaded up front");
+            final int size = TiledTerrainGrid.TILE_SIZE;
+            for (int top = 0; top < height; top += size) {
+                for (int left = 0; left < width; left += size) {
+                    for (int y = top; y < Math.min(top + size, height); y++) {
+                        for (int x = left; x < Math.min(left + size, width); x++) {
+                            assertEquals(grid[y][x], tiled.getTerrain(x, y),
+                                         "Wrong square at " + x + ", " + y);
+                        }
+                    }
+                }
+            }
+            assertEquals(6, tiled.getMisses(), "Each tile should be loaded once");
+            assertEquals(4, tiled.getEvictions(), "All but two tiles should be evicted");
+            assertEquals((long) width * height - 6, tiled.getHits(), "Wrong number of hits");
+
+            assertEquals(grid[0][0], tiled.getTerrain(0, 0), "An evicted tile should reload");
+            assertEquals(7, tiled.getMisses(), "An evicted tile should miss");
+            assertEquals(2, tiled.getTileCount(), "No more than two tiles should be held");
+            assertThrows(IndexOutOfBoundsException.class, () -> tiled.getTerrain(width, 0),
+                         "A square off the map should be rejected");
+        }
+    }
+
+    /**
+     * Test that threads reading a tiled binary map at once, while tiles are evicted
+     * and reloaded, all read the right squares.
+     *
+     * @throws IOException if a map cannot be written.
+     */
+    @Test
+    public void testTileBinaryConcurrently() throws IOException {
+        final int width = 5 * TiledTerrainGrid.TILE_SIZE - 3;
+        final int height = 3 * TiledTerrainGrid.TILE_SIZE + 1;
+        final Terrain[][] grid = pattern(width, height);
+        try (TiledTerrainGrid tiled = tile(grid, 3)) {
+            IntStream.range(0, width).parallel().forEach(theX -> {
+                for (int y = 0; y < height; y++) {
+                    assertEquals(grid[y][theX], tiled.getTerrain(theX, y),
+                                 "Wrong square at " + theX + ", " + y);
+                }
+            });
+            assertEquals((long) width * height, tiled.getHits() + tiled.getMisses(),
+                         "Every square read should be a hit or a miss");
+            assertTrue(tiled.getTileCount() <= 3, "No more than three tiles should be held");
+        }
+    }
+
+    /**
+     * Test that a truncated binary map is rejected.
+     *
+     * @throws IOException if a map cannot be written.
+     */
+    @Test
+    public void testTruncatedBinary() throws IOException {
+        final File binary = myDirectory.resolve("map" + FileLoader.BINARY_EXTENSION).toFile();
+        FileLoader.writeMap(FileLoader.readMap(write(MAP)), binary);
+        final byte[] bytes = Files.readAllBytes(binary.toPath());
+        Files.write(binary.toPath(), Arrays.copyOf(bytes, bytes.length - 1));
+
+        assertThrows(IOException.class, () -> FileLoader.readMap(binary),
+                     "A truncated binary map should be rejected");
+    }
+
+    /**
+     * Builds a grid that holds every Terrain in a pattern with no repeating tile.
+     *
+     * @param theWidth the number of columns.
+     * @param theHeight the number of rows.
+     * @return the grid.
+     */
+    private static Terrain[][] pattern(final int theWidth, final int theHeight) {
+        final Terrain[] terrains = Terrain.values();
+        final Terrain[][] result = new Terrain[theHeight][theWidth];
+        for (int y = 0; y < theHeight; y++) {
+            for (int x = 0; x < theWidth; x++) {
+                result[y][x] = terrains[(x * 7 + y * 3) % terrains.length];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes a grid with no vehicles as a binary map and loads it a tile at a time.
+     *
+     * @param theGrid the grid.
+     * @param theCapacity the most tiles to hold in memory.
+     * @return the tiled grid, which the caller must close.
+     * @throws IOException if the map cannot be written or read.
+     */
+    private TiledTerrainGrid tile(final Terrain[][] theGrid, final int theCapacity)
+        throws IOException {
+        final File binary = myDirectory.resolve("map" + FileLoader.BINARY_EXTENSION).toFile();
+        FileLoader.writeMap(new CityMap(theGrid, List.of()), binary);
+        return (TiledTerrainGrid) FileLoader.tileMap(binary, theCapacity).getTerrain();
+    }
+
+    /**
+     * Asserts that two maps have the same grid, vehicles and seed.
+     *
+     * @param theExpected the expected map.
+     * @param theActual the actual map.
+     */
+    private static void assertSameMap(final CityMap theExpected, final CityMap theActual) {
+        assertArrayEquals(theExpected.getGrid(), theActual.getGrid(), "Wrong grid");
+        assertEquals(theExpected.getVehicleCount(), theActual.getVehicleCount(),
+                     "Wrong number of vehicles");
+        for (int i = 0; i < theExpected.getVehicleCount(); i++) {
+            assertEquals(theExpected.getType(i), theActual.getType(i), "Wrong vehicle type");
+            assertEquals(theExpected.getX(i), theActual.getX(i), "Wrong x-coordinate");
+            assertEquals(theExpected.getY(i), theActual.getY(i), "Wrong y-coordinate");
+            assertEquals(theExpected.getDirection(i), theActual.getDirection(i),
+                         "Wrong direction");
+        }
+        assertEquals(theExpected.getSeed(), theActual.getSeed(), "Wrong seed");
+    }
+
+    /**
+     * Asserts that a vehicle has the expected type and starting state.
+     *
+     * @param theVehicle the vehicle.
+     * @param theType the expected type.
+     * @param theX the expected x-coordinate.
+     * @param theY the expected y-coordinate.
+     * @param theDirection the expected direction.
+     */
+    @SuppressWarnings("MethodWithTooManyParameters")
+    private static void assertVehicle(final Vehicle theVehicle, final VehicleType theType,
+                                      final int theX, final int theY,
+                                      final Direction theDirection) {
+        assertEquals(theType, VehicleType.of(theVehicle), "Wrong vehicle type");
+        assertEquals(theX, theVehicle.getX(), "Wrong x-coordinate");
+        assertEquals(theY, theVehicle.getY(), "Wrong y-coordinate");
+        assertEquals(theDirection, theVehicle.getDirection(), "Wrong direction");
+    }
+
+    /**
+     * Asserts that reading a map file fails at a line and column.
+     *
+     * @param theText the contents of the map file.
+     * @param theLine the line at which the problem should be reported.
+     * @param theColumn the column at which the problem should be reported.
+     */
+    private void assertError(final String theText, final int theLine, final int theColumn) {
+        final MapFormatException error = assertThrows(MapFormatException.class,
+            () -> FileLoader.readMap(write(theText)), "The map should be rejected");
+        assertEquals(theLine, error.getLine(), "Wrong line: " + error.getMessage());
+        assertEquals(theColumn, error.getColumn(), "Wrong column: " + error.getMessage());
+    }
+
+    /**
+     * Writes a map file into the test directory.
+     *
+     * @param theText the contents of the file.
+     * @return the file.
+     * @throws IOException if the file cannot be written.
+     */
+    private File write(final String theText) throws IOException {
+        final Path result = myDirectory.resolve("map.txt");
+        Files.writeString(result, theText, StandardCharsets.US_ASCII);
+        return result.toFile();
+    }
+}
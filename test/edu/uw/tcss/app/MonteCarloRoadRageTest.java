@@ -0,0 +1,84 @@
+/*
+ * TCSS 305 - Road Rage
+ */
+
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.uw.tcss.io.CityMap;
+import edu.uw.tcss.logic.BatchStatistics;
+import edu.uw.tcss.model.Atv;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Human;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.Vehicle;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class MonteCarloRoadRage.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class MonteCarloRoadRageTest {
+
+    /**
+     * A field of grass and streets for vehicles that choose at random.
+     */
+    private static final Terrain[][] GRID = {
+        {Terrain.WALL, Terrain.WALL, Terrain.WALL, Terrain.WALL, Terrain.WALL},
+        {Terrain.WALL, Terrain.GRASS, Terrain.STREET, Terrain.GRASS, Terrain.WALL},
+        {Terrain.WALL, Terrain.STREET, Terrain.STREET, Terrain.STREET, Terrain.WALL},
+        {Terrain.WALL, Terrain.GRASS, Terrain.STREET, Terrain.GRASS, Terrain.WALL},
+        {Terrain.WALL, Terrain.WALL, Terrain.WALL, Terrain.WALL, Terrain.WALL},
+    };
+
+    /**
+     * The number of runs in each batch.
+     */
+    private static final int RUNS = 40;
+
+    /**
+     * The number of ticks in each run.
+     */
+    private static final long TICKS = 200;
+
+    /**
+     * The seed from which every run's seed is drawn.
+     */
+    private static final long SEED = 305L;
+
+    /**
+     * Test that a batch with a fixed seed gives the same statistics every time, on any
+     * number of workers.
+     *
+     * @throws Exception if a run fails.
+     */
+    @Test
+    public void testFixedSeedRepeats() throws Exception {
+        final BatchStatistics first = MonteCarloRoadRage.runAll(map(), RUNS, TICKS, 1, SEED);
+        final BatchStatistics again = MonteCarloRoadRage.runAll(map(), RUNS, TICKS, 1, SEED);
+        final BatchStatistics parallel =
+            MonteCarloRoadRage.runAll(map(), RUNS, TICKS, 4, SEED);
+        assertEquals(RUNS, first.getRuns(), "Every run should be counted");
+        assertEquals(first.toString(), again.toString(),
+                     "The same seed should give the same statistics");
+        assertEquals(first.toString(), parallel.toString(),
+                     "The number of workers should not change the statistics");
+    }
+
+    /**
+     * Builds the test map, with vehicles that choose their directions at random.
+     *
+     * @return the map.
+     */
+    private static CityMap map() {
+        final List<Vehicle> vehicles = List.of(new Human(1, 1, Direction.EAST),
+                                               new Human(3, 3, Direction.WEST),
+                                               new Atv(2, 1, Direction.SOUTH),
+                                               new Atv(2, 3, Direction.NORTH));
+        return new CityMap(GRID, vehicles);
+    }
+}
@@ -0,0 +1,75 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.uw.tcss.logic.NeighborMap;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import java.util.EnumMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class NeighborMap.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class NeighborMapTest {
+
+    /**
+     * A 3 by 3 grid with a different Terrain on each side of the center.
+     */
+    private static final Terrain[][] GRID = {
+        {Terrain.WALL, Terrain.STREET, Terrain.WALL},
+        {Terrain.GRASS, Terrain.LIGHT, Terrain.TRAIL},
+        {Terrain.WALL, Terrain.CROSSWALK, Terrain.WALL},
+    };
+
+    /**
+     * Test that the map holds the Terrain on each side of the center square.
+     */
+    @Test
+    public void testCenter() {
+        final Map<Direction, Terrain> expected = new EnumMap<>(Direction.class);
+        expected.put(Direction.NORTH, Terrain.STREET);
+        expected.put(Direction.WEST, Terrain.GRASS);
+        expected.put(Direction.SOUTH, Terrain.CROSSWALK);
+        expected.put(Direction.EAST, Terrain.TRAIL);
+
+        assertEquals(expected, new NeighborMap(GRID).moveTo(1, 1),
+            "NeighborMap does not match the neighbors of the center square!");
+    }
+
+    /**
+     * Test that Directions leading off the grid are not keys, after the map moves.
+     */
+    @Test
+    public void testCornerAfterMove() {
+        final NeighborMap neighbors = new NeighborMap(GRID);
+        assertEquals(Terrain.STREET, neighbors.moveTo(1, 1).get(Direction.NORTH),
+            "NeighborMap did not look up NORTH at the center!");
+
+        neighbors.moveTo(0, 0);
+        assertNull(neighbors.get(Direction.NORTH), "NORTH of the corner is off the grid!");
+        assertFalse(neighbors.containsKey(Direction.WEST),
+            "WEST of the corner is off the grid!");
+        assertEquals(Terrain.STREET, neighbors.get(Direction.EAST),
+            "NeighborMap did not look up EAST of the corner!");
+        assertEquals(2, neighbors.size(), "The corner should have two neighbors!");
+    }
+
+    /**
+     * Test that the map cannot be changed.
+     */
+    @Test
+    public void testReadOnly() {
+        final NeighborMap neighbors = new NeighborMap(GRID).moveTo(1, 1);
+        assertThrows(UnsupportedOperationException.class,
+            () -> neighbors.put(Direction.NORTH, Terrain.WALL),
+            "NeighborMap should be read-only!");
+    }
+}
@@ -0,0 +1,74 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.uw.tcss.model.PackedTerrainGrid;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.TerrainGrid;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class PackedTerrainGrid.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class PackedTerrainGridTest {
+
+    /**
+     * A 2 by 3 grid holding every Terrain.
+     */
+    private static final Terrain[][] GRID = {
+        {Terrain.GRASS, Terrain.STREET, Terrain.LIGHT},
+        {Terrain.WALL, Terrain.TRAIL, Terrain.CROSSWALK},
+    };
+
+    /**
+     * Test that a packed grid reads back the squares it was made from.
+     */
+    @Test
+    public void testSquares() {
+        final TerrainGrid grid = TerrainGrid.of(GRID);
+        assertEquals(3, grid.getWidth(), "Wrong width");
+        assertEquals(2, grid.getHeight(), "Wrong height");
+        assertEquals(Terrain.STREET, grid.getTerrain(1, 0), "Wrong square in the first row");
+        assertEquals(Terrain.WALL, grid.getTerrain(0, 1), "Wrong square in the second row");
+        assertArrayEquals(GRID, grid.toArray(), "The grid should copy back to the array");
+    }
+
+    /**
+     * Test that squares off the grid are not contained and cannot be read, even where
+     * the row-major index would fall inside the array.
+     */
+    @Test
+    public void testOffGrid() {
+        final TerrainGrid grid = TerrainGrid.of(GRID);
+        assertTrue(grid.contains(2, 1), "The last square is on the grid");
+        assertFalse(grid.contains(3, 0), "Past the end of a row is off the grid");
+        assertFalse(grid.contains(0, -1), "Above the grid is off the grid");
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getTerrain(3, 0),
+                     "Past the end of a row should not read the next row");
+        assertThrows(IndexOutOfBoundsException.class, () -> grid.getTerrain(0, 2),
+                     "Below the grid should not be read");
+    }
+
+    /**
+     * Test that ragged grids, short arrays and unknown ordinals are rejected.
+     */
+    @Test
+    public void testRejected() {
+        assertThrows(IllegalArgumentException.class,
+            () -> TerrainGrid.of(new Terrain[][] {{Terrain.GRASS}, {}}),
+                     "A ragged grid should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> new PackedTerrainGrid(2, 2, new byte[3]),
+                     "A short array should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> new PackedTerrainGrid(1, 1, new byte[] {(byte) Terrain.values().length}),
+                     "An unknown ordinal should be rejected");
+    }
+}
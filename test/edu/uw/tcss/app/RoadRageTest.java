@@ -0,0 +1,633 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.uw.tcss.logic.AbstractRoadRage;
+import edu.uw.tcss.logic.AsyncListener;
+import edu.uw.tcss.logic.CollisionDetection;
+import edu.uw.tcss.logic.PackedRoadRage;
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.logic.RunStatistics;
+import edu.uw.tcss.logic.RunStatistics.Measure;
+import edu.uw.tcss.logic.SimulationListener;
+import edu.uw.tcss.logic.TickView;
+import edu.uw.tcss.logic.VehicleDelta;
+import edu.uw.tcss.logic.VehicleDelta.Change;
+import edu.uw.tcss.model.AbstractVehicle;
+import edu.uw.tcss.model.Atv;
+import edu.uw.tcss.model.Bicycle;
+import edu.uw.tcss.model.Car;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Human;
+import edu.uw.tcss.model.Light;
+import edu.uw.tcss.model.Taxi;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.Truck;
+import edu.uw.tcss.model.Vehicle;
+import edu.uw.tcss.model.VehicleType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class RoadRage.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class RoadRageTest {
+
+    /**
+     * The number of ticks to run when comparing two simulations.
+     */
+    private static final int TICKS = 300;
+
+    /**
+     * The master seed used by tests of vehicles that make random choices.
+     */
+    private static final long SEED = 305L;
+
+    /**
+     * The number of ticks between light changes.
+     */
+    private static final int LIGHT_TICKS = 15;
+
+    /**
+     * A small city with a loop of streets, lights, crosswalks and a trail.
+     */
+    private static final String[] CITY = {
+        "XXXXXXXXXX",
+        "X||+|||+|X",
+        "X|--#--|.X",
+        "X+--|--+.X",
+        "X||||#|||X",
+        "XXXXXXXXXX",
+    };
+
+    /**
+     * The least number of vehicles in a crowd, enough that a double-buffered tick is
+     * split into several tasks.
+     */
+    private static final int CROWD_VEHICLES = 5000;
+
+    /**
+     * The number of copies of the test city, side by side, that hold CROWD_VEHICLES
+     * of the deterministic vehicles.
+     */
+    private static final int CROWD_BLOCKS = CROWD_VEHICLES / vehicles(0).size() + 1;
+
+    /**
+     * Test that the cell index finds the same collisions as the pairwise loop.
+     */
+    @Test
+    public void testCellIndexMatchesPairwise() {
+        final RoadRage pairwise = new RoadRage(grid(), vehicles());
+        pairwise.setCollisionDetection(CollisionDetection.PAIRWISE);
+        final RoadRage indexed = new RoadRage(grid(), vehicles());
+        indexed.setCollisionDetection(CollisionDetection.CELL_INDEX);
+
+        assertSameTicks(pairwise, indexed, "Cell index diverged from pairwise collisions");
+    }
+
+    /**
+     * Test that the packed engine produces the same ticks as the object engine.
+     */
+    @Test
+    public void testPackedMatchesRoadRage() {
+        assertSameTicks(new RoadRage(grid(), vehicles()),
+            new PackedRoadRage(grid(), vehicles()), "PackedRoadRage diverged from RoadRage");
+    }
+
+    /**
+     * Test that double-buffered ticks give the same results on any number of workers,
+     * with enough vehicles that each tick is split into several tasks.
+     */
+    @Test
+    public void testParallelIdenticalAcrossThreadCounts() {
+        try (PackedRoadRage single = new PackedRoadRage(grid(CROWD_BLOCKS), crowd(false));
+             PackedRoadRage many = new PackedRoadRage(grid(CROWD_BLOCKS), crowd(false))) {
+            single.setParallelism(1);
+            many.setParallelism(4);
+            assertSameTicks(single, many, "Parallel ticks depend on the number of workers");
+        }
+    }
+
+    /**
+     * Test that seeded vehicles that make random choices repeat the same run, on
+     * either engine and on any number of workers.
+     */
+    @Test
+    public void testSeededRunsRepeat() {
+        final RoadRage first = new RoadRage(grid(), randomVehicles());
+        first.setSeed(SEED);
+        final PackedRoadRage second = new PackedRoadRage(grid(), randomVehicles());
+        second.setSeed(SEED);
+        assertSameTicks(first, second, "Seeded engines diverged");
+
+        try (PackedRoadRage single = new PackedRoadRage(grid(CROWD_BLOCKS), crowd(true));
+             PackedRoadRage many = new PackedRoadRage(grid(CROWD_BLOCKS), crowd(true))) {
+            single.setParallelism(1);
+            single.setSeed(SEED);
+            many.setParallelism(4);
+            many.setSeed(SEED);
+            assertSameTicks(single, many,
+                            "Seeded parallel ticks depend on the number of workers");
+        }
+    }
+
+    /**
+     * Test that a bulk advance reaches the same state as single steps and reports it
+     * once, with a summary of the run.
+     */
+    @Test
+    public void testBulkAdvanceCoalescesEvents() {
+        final RoadRage stepped = new RoadRage(grid(), randomVehicles());
+        final List<Vehicle> expected = new ArrayList<>();
+        stepped.addPropertyChangeListener(RoadRage.PROPERTY_VEHICLES,
+            theEvent -> copy(theEvent.getNewValue(), expected));
+        stepped.setSeed(SEED);
+        stepped.start();
+        for (int tick = 0; tick < TICKS; tick++) {
+            stepped.advance();
+        }
+
+        final RoadRage bulk = new RoadRage(grid(), randomVehicles());
+        bulk.setSeed(SEED);
+        bulk.start();
+        final List<String> events = new ArrayList<>();
+        final List<Vehicle> actual = new ArrayList<>();
+        final List<Object> summaries = new ArrayList<>();
+        bulk.addPropertyChangeListener(theEvent -> events.add(theEvent.getPropertyName()));
+        bulk.addPropertyChangeListener(RoadRage.PROPERTY_VEHICLES,
+            theEvent -> copy(theEvent.getNewValue(), actual));
+        bulk.addPropertyChangeListener(RoadRage.PROPERTY_SUMMARY,
+            theEvent -> summaries.add(theEvent.getNewValue()));
+        bulk.advance(TICKS);
+
+        assertEquals(describe(expected), describe(actual),
+                     "Bulk advance diverged from single steps");
+        assertEquals(List.of(RoadRage.PROPERTY_TIME, RoadRage.PROPERTY_LIGHT,
+                             RoadRage.PROPERTY_VEHICLES), events,
+                     "Bulk advance should report its final state once");
+        final RunStatistics summary = (RunStatistics) summaries.get(0);
+        assertEquals(TICKS, summary.getTicks(), "Summary has the wrong tick count");
+        assertEquals(stepped.getMoveCount(), summary.get(Measure.MOVES),
+                     "Summary has the wrong move count");
+    }
+
+    /**
+     * Test that PropertyChangeListeners see the properties in the order the simulation
+     * has always fired them, and that a listener of every property is not sent deltas
+     * or summaries, nor makes the simulation record them.
+     */
+    @Test
+    public void testPropertyChangeOrder() {
+        final RoadRage roadRage = new RoadRage(grid(), vehicles());
+        final List<String> events = new ArrayList<>();
+        roadRage.addPropertyChangeListener(theEvent -> events.add(theEvent.getPropertyName()));
+        roadRage.start();
+        assertEquals(List.of(RoadRage.PROPERTY_LIGHT, RoadRage.PROPERTY_GRID,
+                             RoadRage.PROPERTY_VEHICLES), events,
+                     "Reset should fire the light, the grid and then the vehicles");
+        roadRage.advance(LIGHT_TICKS - 1);
+        events.clear();
+        roadRage.advance();
+        assertEquals(List.of(RoadRage.PROPERTY_TIME, RoadRage.PROPERTY_LIGHT,
+                             RoadRage.PROPERTY_VEHICLES), events,
+                     "A tick should fire the time step, the light and then the vehicles");
+    }
+
+    /**
+     * Test that a vehicle of a kind the simulation does not know is built, stored with
+     * a fallback type, keeps its own image file name and is run by either engine.
+     */
+    @Test
+    public void testUnknownVehicleKind() {
+        final List<Vehicle> expected = vehicles();
+        expected.add(new Scooter(2, 1, Direction.EAST));
+        final List<Vehicle> actual = vehicles();
+        actual.add(new Scooter(2, 1, Direction.EAST));
+        assertEquals(VehicleType.CAR, VehicleType.of(actual.get(actual.size() - 1)),
+                     "An unknown kind should fall back to a car");
+        assertEquals("scooter.gif", actual.get(actual.size() - 1).getImageFileName(),
+                     "An unknown kind should keep the image file named after its class");
+
+        assertSameTicks(new RoadRage(grid(), expected), new PackedRoadRage(grid(), actual),
+                        "An unknown kind diverged between engines");
+    }
+
+    /**
+     * Test that a bulk advance only hands a summary to listeners that want one.
+     */
+    @Test
+    public void testSummaryOnlyWhenWanted() {
+        final RoadRage roadRage = new RoadRage(grid(), randomVehicles());
+        final List<RunStatistics> unwanted = new ArrayList<>();
+        final List<RunStatistics> wanted = new ArrayList<>();
+        roadRage.addSimulationListener(new SimulationListener() {
+            @Override
+            public void onSummary(final RunStatistics theSummary) {
+                unwanted.add(theSummary);
+            }
+        });
+        roadRage.addSimulationListener(new SimulationListener() {
+            @Override
+            public void onSummary(final RunStatistics theSummary) {
+                wanted.add(theSummary);
+            }
+
+            @Override
+            public boolean wantsSummary() {
+                return true;
+            }
+        });
+        roadRage.start();
+        roadRage.advance(TICKS);
+
+        assertTrue(unwanted.isEmpty(), "A listener that wants no summary got one");
+        assertEquals(1, wanted.size(), "A listener that wants a summary should get one");
+        assertEquals(TICKS, wanted.get(0).getTicks(), "Summary has the wrong tick count");
+    }
+
+    /**
+     * Test that a SimulationListener is called once per tick with a view that agrees
+     * with the published vehicles, and on every change of the lights.
+     */
+    @Test
+    public void testSimulationListenerSeesEveryTick() {
+        final PackedRoadRage roadRage = new PackedRoadRage(grid(), randomVehicles());
+        final List<Vehicle> published = new ArrayList<>();
+        roadRage.addPropertyChangeListener(RoadRage.PROPERTY_VEHICLES,
+            theEvent -> copy(theEvent.getNewValue(), published));
+        final List<Long> ticks = new ArrayList<>();
+        final List<Light> lights = new ArrayList<>();
+        final List<String> views = new ArrayList<>();
+        roadRage.addSimulationListener(new SimulationListener() {
+            @Override
+            public void onLight(final Light theLight) {
+                lights.add(theLight);
+            }
+
+            @Override
+            public void onTick(final long theTimestep, final TickView theView) {
+                ticks.add(theTimestep);
+                final StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < theView.getVehicleCount(); i++) {
+                    sb.append(theView.getX(i)).append(',').append(theView.getY(i))
+                        .append(',').append(theView.getDirection(i)).append(',')
+                        .append(theView.isAlive(i)).append(';');
+                }
+                views.add(sb.toString());
+            }
+        });
+        roadRage.setSeed(SEED);
+        roadRage.start();
+
+        for (int tick = 1; tick <= TICKS; tick++) {
+            roadRage.advance();
+            assertEquals(describe(published), views.get(views.size() - 1),
+                         "TickView disagrees with the published vehicles at tick " + tick);
+        }
+        assertEquals(TICKS + 1, ticks.size(), "onTick should be called once per tick");
+        assertEquals(TICKS, ticks.get(TICKS), "onTick has the wrong time step");
+        assertEquals(TICKS / LIGHT_TICKS + 1, lights.size(),
+                     "onLight should be called on reset and every light change");
+    }
+
+    /**
+     * Test that an AsyncListener delivers only the latest sampled tick, as an
+     * immutable snapshot, however far the simulation has run ahead.
+     */
+    @Test
+    public void testAsyncListenerDeliversLatest() {
+        final PackedRoadRage roadRage = new PackedRoadRage(grid(), randomVehicles());
+        final Deque<Runnable> tasks = new ArrayDeque<>();
+        final List<TickView> delivered = new ArrayList<>();
+        final AsyncListener async = new AsyncListener(new SimulationListener() {
+            @Override
+            public void onTick(final long theTimestep, final TickView theView) {
+                delivered.add(theView);
+            }
+        }, tasks::add, 2);
+        roadRage.addSimulationListener(async);
+        final List<Vehicle> published = new ArrayList<>();
+        roadRage.addPropertyChangeListener(RoadRage.PROPERTY_VEHICLES,
+            theEvent -> copy(theEvent.getNewValue(), published));
+        roadRage.setSeed(SEED);
+        roadRage.start();
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            roadRage.advance();
+        }
+        final String expected = describe(published);
+        roadRage.advance();
+        while (!tasks.isEmpty()) {
+            tasks.removeFirst().run();
+        }
+
+        assertEquals(1, delivered.size(), "Only the latest sample should be delivered");
+        final TickView latest = delivered.get(0);
+        assertEquals(TICKS, latest.getTimestep(), "Only even ticks should be sampled");
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < latest.getVehicleCount(); i++) {
+            sb.append(latest.getX(i)).append(',').append(latest.getY(i)).append(',')
+                .append(latest.getDirection(i)).append(',').append(latest.isAlive(i))
+                .append(';');
+        }
+        assertEquals(expected, sb.toString(), "Snapshot changed after it was taken");
+        assertEquals(TICKS / 2, async.getDroppedCount(), "Wrong number of dropped samples");
+    }
+
+    /**
+     * Test that a delivery queued before a reset and run after it does not hand the
+     * target a tick of the new grid before the target's onGrid.
+     */
+    @Test
+    public void testAsyncListenerOrdersResets() {
+        final PackedRoadRage roadRage = new PackedRoadRage(grid(), randomVehicles());
+        final Deque<Runnable> tasks = new ArrayDeque<>();
+        final List<String> events = new ArrayList<>();
+        roadRage.addSimulationListener(new AsyncListener(new SimulationListener() {
+            @Override
+            public void onGrid(final Terrain[][] theGrid) {
+                events.add("grid");
+            }
+
+            @Override
+            public void onTick(final long theTimestep, final TickView theView) {
+                events.add("tick " + theTimestep);
+            }
+        }, tasks::add, 1));
+        roadRage.start();
+        while (!tasks.isEmpty()) {
+            tasks.removeFirst().run();
+        }
+        roadRage.advance();
+        // the delivery of tick 1 is still queued when the simulation is reset
+        roadRage.reset();
+        while (!tasks.isEmpty()) {
+            tasks.removeFirst().run();
+        }
+
+        assertEquals(List.of("grid", "tick 0", "grid", "tick 0"), events,
+                     "Ticks must follow the onGrid of their reset");
+    }
+
+    /**
+     * Test that replaying each tick's VehicleDelta reproduces the published vehicles,
+     * on either engine.
+     */
+    @Test
+    public void testDeltasReplayTicks() {
+        final RoadRage pairwise = new RoadRage(grid(), randomVehicles());
+        pairwise.setCollisionDetection(CollisionDetection.PAIRWISE);
+        assertDeltasReplay(pairwise);
+        assertDeltasReplay(new RoadRage(grid(), randomVehicles()));
+        assertDeltasReplay(new PackedRoadRage(grid(), randomVehicles()));
+        try (PackedRoadRage parallel = new PackedRoadRage(grid(), randomVehicles())) {
+            parallel.setParallelism(2);
+            assertDeltasReplay(parallel);
+        }
+    }
+
+    /**
+     * Runs a simulation, applying each tick's VehicleDelta to a copy of the vehicles'
+     * positions and lives, and checks the copy against the published vehicles.
+     *
+     * @param theRoadRage the simulation under test.
+     */
+    private static void assertDeltasReplay(final AbstractRoadRage theRoadRage) {
+        final List<Vehicle> published = new ArrayList<>();
+        final List<VehicleDelta> deltas = new ArrayList<>();
+        theRoadRage.addPropertyChangeListener(RoadRage.PROPERTY_VEHICLES,
+            theEvent -> copy(theEvent.getNewValue(), published));
+        theRoadRage.addPropertyChangeListener(RoadRage.PROPERTY_DELTA,
+            theEvent -> deltas.add((VehicleDelta) theEvent.getNewValue()));
+        theRoadRage.setSeed(SEED);
+        theRoadRage.start();
+        assertTrue(deltas.get(0).isRefresh(), "Reset should publish a refresh delta");
+
+        final int count = published.size();
+        final int[] x = new int[count];
+        final int[] y = new int[count];
+        final boolean[] alive = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            x[i] = published.get(i).getX();
+            y[i] = published.get(i).getY();
+            alive[i] = published.get(i).isAlive();
+        }
+        for (int tick = 1; tick <= TICKS; tick++) {
+            deltas.clear();
+            theRoadRage.advance();
+            final VehicleDelta delta = deltas.get(0);
+            assertEquals(tick, delta.getTimestep(), "Delta has the wrong time step");
+            for (int e = 0; e < delta.size(); e++) {
+                final int i = delta.getIndex(e);
+                assertEquals(x[i] + "," + y[i], delta.getOldX(e) + "," + delta.getOldY(e),
+                             "Delta has the wrong old square at tick " + tick);
+                x[i] = delta.getNewX(e);
+                y[i] = delta.getNewY(e);
+                if (delta.getChange(e) == Change.DIED) {
+                    alive[i] = false;
+                } else if (delta.getChange(e) == Change.REVIVED) {
+                    alive[i] = true;
+                }
+            }
+            for (int i = 0; i < count; i++) {
+                final Vehicle v = published.get(i);
+                assertEquals(v.getX() + "," + v.getY() + "," + v.isAlive(),
+                             x[i] + "," + y[i] + "," + alive[i],
+                             "Replayed vehicle " + i + " diverged at tick " + tick);
+            }
+        }
+    }
+
+    /**
+     * Runs two simulations side by side and checks that their vehicles agree after
+     * every tick.
+     *
+     * @param theExpected the reference simulation.
+     * @param theActual the simulation under test.
+     * @param theMessage the message to report on a difference.
+     */
+    private static void assertSameTicks(final AbstractRoadRage theExpected,
+                                        final AbstractRoadRage theActual,
+                                        final String theMessage) {
+        final List<Vehicle> expected = new ArrayList<>();
+        final List<Vehicle> actual = new ArrayList<>();
+        theExpected.addPropertyChangeListener(RoadRage.PROPERTY_VEHICLES,
+            theEvent -> copy(theEvent.getNewValue(), expected));
+        theActual.addPropertyChangeListener(RoadRage.PROPERTY_VEHICLES,
+            theEvent -> copy(theEvent.getNewValue(), actual));
+        theExpected.start();
+        theActual.start();
+
+        for (int tick = 0; tick < TICKS; tick++) {
+            theExpected.advance();
+            theActual.advance();
+            assertEquals(describe(expected), describe(actual), theMessage + " at tick " + tick);
+        }
+    }
+
+    /**
+     * A vehicle of a kind the simulation does not know, which drives east on streets.
+     */
+    private static final class Scooter extends AbstractVehicle {
+
+        /**
+         * Creates a scooter.
+         *
+         * @param theX the x-coordinate.
+         * @param theY the y-coordinate.
+         * @param theDirection the direction.
+         */
+        Scooter(final int theX, final int theY, final Direction theDirection) {
+            super(theX, theY, theDirection, 1);
+        }
+
+        @Override
+        public boolean canPass(final Terrain theTerrain, final Light theLight) {
+            return theTerrain == Terrain.STREET;
+        }
+
+        @Override
+        public Direction chooseDirection(final Map<Direction, Terrain> theNeighbors) {
+            Direction result = getDirection().reverse();
+            if (theNeighbors.get(getDirection()) == Terrain.STREET) {
+                result = getDirection();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Builds the terrain grid for the test city.
+     *
+     * @return the grid.
+     */
+    private static Terrain[][] grid() {
+        return grid(1);
+    }
+
+    /**
+     * Builds the terrain grid for copies of the test city side by side. The walls at
+     * the edge of each copy keep the vehicles of one copy out of the others.
+     *
+     * @param theBlocks the number of copies.
+     * @return the grid.
+     */
+    private static Terrain[][] grid(final int theBlocks) {
+        final int width = CITY[0].length();
+        final Terrain[][] grid = new Terrain[CITY.length][width * theBlocks];
+        for (int row = 0; row < CITY.length; row++) {
+            for (int column = 0; column < grid[row].length; column++) {
+                grid[row][column] = Terrain.valueOf(CITY[row].charAt(column % width));
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Builds vehicles that do not use randomness, placed so that they meet.
+     *
+     * @return the vehicles.
+     */
+    private static List<Vehicle> vehicles() {
+        return vehicles(0);
+    }
+
+    /**
+     * Builds vehicles that do not use randomness, placed so that they meet, in the
+     * copy of the test city starting at a column.
+     *
+     * @param theLeft the first column of the copy.
+     * @return the vehicles.
+     */
+    private static List<Vehicle> vehicles(final int theLeft) {
+        final List<Vehicle> result = new ArrayList<>();
+        result.add(new Car(theLeft + 1, 1, Direction.EAST));
+        result.add(new Car(theLeft + 8, 4, Direction.WEST));
+        result.add(new Taxi(theLeft + 1, 4, Direction.NORTH));
+        result.add(new Taxi(theLeft + 5, 1, Direction.WEST));
+        result.add(new Bicycle(theLeft + 8, 1, Direction.SOUTH));
+        result.add(new Bicycle(theLeft + 4, 4, Direction.EAST));
+        result.add(new Car(theLeft + 7, 3, Direction.NORTH));
+        return result;
+    }
+
+    /**
+     * Builds the test vehicles in each of CROWD_BLOCKS copies of the test city.
+     *
+     * @param theRandom whether to include vehicles that make random choices.
+     * @return the vehicles.
+     */
+    private static List<Vehicle> crowd(final boolean theRandom) {
+        final List<Vehicle> result = new ArrayList<>();
+        for (int block = 0; block < CROWD_BLOCKS; block++) {
+            final int left = block * CITY[0].length();
+            if (theRandom) {
+                result.addAll(randomVehicles(left));
+            } else {
+                result.addAll(vehicles(left));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Builds the deterministic vehicles plus vehicles that make random choices.
+     *
+     * @return the vehicles.
+     */
+    private static List<Vehicle> randomVehicles() {
+        return randomVehicles(0);
+    }
+
+    /**
+     * Builds the deterministic vehicles plus vehicles that make random choices, in
+     * the copy of the test city starting at a column.
+     *
+     * @param theLeft the first column of the copy.
+     * @return the vehicles.
+     */
+    private static List<Vehicle> randomVehicles(final int theLeft) {
+        final List<Vehicle> result = vehicles(theLeft);
+        result.add(new Truck(theLeft + 3, 1, Direction.EAST));
+        result.add(new Truck(theLeft + 6, 4, Direction.WEST));
+        result.add(new Atv(theLeft + 2, 4, Direction.NORTH));
+        result.add(new Human(theLeft + 2, 2, Direction.SOUTH));
+        result.add(new Human(theLeft + 6, 3, Direction.NORTH));
+        return result;
+    }
+
+    /**
+     * Replaces the contents of a list with a published vehicle list.
+     *
+     * @param theValue the published value.
+     * @param theTarget the list to fill.
+     */
+    @SuppressWarnings("unchecked")
+    private static void copy(final Object theValue, final List<Vehicle> theTarget) {
+        theTarget.clear();
+        theTarget.addAll((List<Vehicle>) theValue);
+    }
+
+    /**
+     * Describes the observable state of every vehicle.
+     *
+     * @param theVehicles the vehicles.
+     * @return the description.
+     */
+    private static String describe(final List<Vehicle> theVehicles) {
+        final StringBuilder sb = new StringBuilder();
+        for (final Vehicle v : theVehicles) {
+            sb.append(v.getX()).append(',').append(v.getY()).append(',')
+                .append(v.getDirection()).append(',').append(v.isAlive()).append(';');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,170 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.uw.tcss.logic.RoadRage;
+import edu.uw.tcss.logic.SimulationListener;
+import edu.uw.tcss.logic.SimulationThread;
+import edu.uw.tcss.logic.TickView;
+import edu.uw.tcss.model.Car;
+import edu.uw.tcss.model.Direction;
+import edu.uw.tcss.model.Terrain;
+import edu.uw.tcss.model.Vehicle;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class SimulationThread.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class SimulationThreadTest {
+
+    /**
+     * A loop of street for a car to drive around.
+     */
+    private static final Terrain[][] GRID = {
+        {Terrain.WALL, Terrain.WALL, Terrain.WALL, Terrain.WALL},
+        {Terrain.WALL, Terrain.STREET, Terrain.STREET, Terrain.WALL},
+        {Terrain.WALL, Terrain.STREET, Terrain.STREET, Terrain.WALL},
+        {Terrain.WALL, Terrain.WALL, Terrain.WALL, Terrain.WALL},
+    };
+
+    /**
+     * A tick rate fast enough to finish the tests quickly.
+     */
+    private static final int TICKS_PER_SECOND = 1000;
+
+    /**
+     * The number of ticks to wait for while running.
+     */
+    private static final int RUN_TICKS = 50;
+
+    /**
+     * The number of seconds to wait for the simulation thread.
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * Test that steps and resets are carried out in order, between ticks.
+     *
+     * @throws Exception if the simulation thread fails.
+     */
+    @Test
+    public void testStepAndReset() throws Exception {
+        final SimulationThread simulation = newSimulation();
+        simulation.reset();
+        simulation.step();
+        simulation.step();
+        simulation.step();
+        assertEquals(3, snapshotTime(simulation), "Three steps should run three ticks");
+
+        simulation.reset();
+        assertEquals(0, snapshotTime(simulation), "Reset should go back to tick 0");
+        simulation.shutdown();
+    }
+
+    /**
+     * Test that a started simulation runs ticks until it is stopped.
+     *
+     * @throws Exception if the simulation thread fails.
+     */
+    @Test
+    public void testStartAndStop() throws Exception {
+        final SimulationThread simulation = newSimulation();
+        final CountDownLatch ticks = new CountDownLatch(RUN_TICKS);
+        simulation.addListener(new SimulationListener() {
+            @Override
+            public void onTick(final long theTimestep, final TickView theView) {
+                ticks.countDown();
+            }
+        });
+        simulation.reset();
+        simulation.start();
+        assertTrue(ticks.await(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                   "A started simulation should run ticks");
+
+        simulation.stop();
+        final long stopped = snapshotTime(simulation);
+        Thread.sleep(RUN_TICKS);
+        assertEquals(stopped, snapshotTime(simulation),
+                     "A stopped simulation should not run ticks");
+        simulation.shutdown();
+    }
+
+    /**
+     * Test that an exception thrown during a tick is reported and does not end the
+     * simulation thread, and that a snapshot asked for after the thread has ended fails
+     * instead of waiting forever.
+     *
+     * @throws Exception if the simulation thread fails.
+     */
+    @Test
+    public void testTickExceptionReported() throws Exception {
+        final SimulationThread simulation = newSimulation();
+        final Queue<Throwable> reported = new ConcurrentLinkedQueue<>();
+        simulation.setExceptionHandler((theThread, theException) -> {
+            reported.add(theException);
+        });
+        final SimulationListener failing = new SimulationListener() {
+            @Override
+            public void onTick(final long theTimestep, final TickView theView) {
+                throw new IllegalStateException("tick " + theTimestep);
+            }
+        };
+        simulation.reset();
+        assertEquals(0, snapshotTime(simulation), "Reset should go back to tick 0");
+        simulation.addListener(failing);
+        simulation.step();
+        // wait for the failing tick before removing its listener
+        snapshotTime(simulation);
+        simulation.removeListener(failing);
+        simulation.reset();
+        simulation.step();
+        assertEquals(1, snapshotTime(simulation),
+                     "The simulation thread should keep running after an exception");
+        assertEquals(1, reported.size(), "The exception should be reported once");
+        assertTrue(reported.peek() instanceof IllegalStateException,
+                   "The exception thrown by the listener should be reported");
+
+        simulation.shutdown();
+        final ExecutionException failure = assertThrows(ExecutionException.class,
+            () -> simulation.snapshot().get(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+            "A snapshot after shutdown should fail");
+        assertTrue(failure.getCause() instanceof IllegalStateException,
+                   "A snapshot after shutdown should fail because the thread has ended");
+    }
+
+    /**
+     * Creates a simulation thread for one car on the test grid.
+     *
+     * @return the simulation thread.
+     */
+    private static SimulationThread newSimulation() {
+        final List<Vehicle> vehicles = List.of(new Car(1, 1, Direction.EAST));
+        return new SimulationThread(new RoadRage(GRID, vehicles), TICKS_PER_SECOND);
+    }
+
+    /**
+     * Waits for a snapshot and returns its time step.
+     *
+     * @param theSimulation the simulation thread.
+     * @return the time step of the snapshot.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws ExecutionException if the snapshot fails.
+     * @throws TimeoutException if the snapshot takes too long.
+     */
+    private static long snapshotTime(final SimulationThread theSimulation)
+        throws InterruptedException, ExecutionException, TimeoutException {
+        return theSimulation.snapshot().get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getTimestep();
+    }
+}
@@ -0,0 +1,124 @@
+package edu.uw.tcss.app;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.uw.tcss.logic.TickScheduler;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for class TickScheduler, with made-up System.nanoTime values.
+ *
+ * @author Saeed Esparza
+ * @version Autumn 2024
+ */
+public class TickSchedulerTest {
+
+    /**
+     * A tick rate with a period of one millisecond.
+     */
+    private static final int TICKS_PER_SECOND = 1000;
+
+    /**
+     * The number of nanoseconds in a millisecond, one tick period.
+     */
+    private static final long PERIOD = 1_000_000L;
+
+    /**
+     * The number of nanoseconds in a second.
+     */
+    private static final long SECOND = 1_000_000_000L;
+
+    /**
+     * The time the schedules in the tests start.
+     */
+    private static final long START = 123_456_789L;
+
+    /**
+     * Test that one tick is due at the start of each period.
+     */
+    @Test
+    public void testTicksComeDueEachPeriod() {
+        final TickScheduler scheduler = newScheduler();
+        assertEquals(1, scheduler.takeDueTicks(START), "The first tick is due at once");
+        assertEquals(0, scheduler.takeDueTicks(START + PERIOD - 1),
+                     "No tick is due before the period is over");
+        assertEquals(PERIOD - 1, scheduler.nanosUntilDue(START + 1),
+                     "The next tick is due one period after the first");
+        assertEquals(1, scheduler.takeDueTicks(START + PERIOD),
+                     "The second tick is due after one period");
+    }
+
+    /**
+     * Test that a late wake-up is given every tick due since, and does not move the
+     * ticks after it.
+     */
+    @Test
+    public void testLateWakeUpDoesNotDrift() {
+        final TickScheduler scheduler = newScheduler();
+        final long late = START + 10 * PERIOD + PERIOD / 2;
+        assertEquals(11, scheduler.takeDueTicks(late),
+                     "Every tick due by the wake-up should be run");
+        assertEquals(PERIOD / 2, scheduler.nanosUntilDue(late),
+                     "The next tick should stay on the original schedule");
+        assertEquals(0, scheduler.getMissedTicks(), "A short delay should miss nothing");
+    }
+
+    /**
+     * Test that a backlog of more than a quarter second is skipped and counted.
+     */
+    @Test
+    public void testLongStallSkipsTicks() {
+        final TickScheduler scheduler = newScheduler();
+        scheduler.takeDueTicks(START);
+        final long stalled = START + SECOND;
+        final long limit = TICKS_PER_SECOND / 4;
+        assertEquals(limit, scheduler.takeDueTicks(stalled),
+                     "Only a quarter second of ticks should be run");
+        assertEquals(TICKS_PER_SECOND - limit, scheduler.getMissedTicks(),
+                     "The rest of the backlog should be counted as missed");
+        assertEquals(0, scheduler.takeDueTicks(stalled),
+                     "The skipped ticks should not come due again");
+        assertEquals(1, scheduler.takeDueTicks(stalled + PERIOD),
+                     "The schedule should carry on from the stall");
+    }
+
+    /**
+     * Test that starting again moves the schedule to the new start time.
+     */
+    @Test
+    public void testStartAgain() {
+        final TickScheduler scheduler = newScheduler();
+        scheduler.takeDueTicks(START);
+        scheduler.setTicksPerSecond(TICKS_PER_SECOND / 2);
+        final long restart = START + SECOND;
+        scheduler.start(restart);
+        assertEquals(1, scheduler.takeDueTicks(restart), "The first tick is due at once");
+        assertEquals(2 * PERIOD, scheduler.nanosUntilDue(restart),
+                     "The next tick should follow the new rate");
+    }
+
+    /**
+     * Test that rates out of range are rejected.
+     */
+    @Test
+    public void testRateOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new TickScheduler(TickScheduler.MIN_TICKS_PER_SECOND - 1),
+                     "A rate below the minimum should be rejected");
+        assertThrows(IllegalArgumentException.class,
+            () -> newScheduler().setTicksPerSecond(TickScheduler.MAX_TICKS_PER_SECOND + 1),
+                     "A rate above the maximum should be rejected");
+    }
+
+    /**
+     * Creates a scheduler at the test rate, started at the test start time.
+     *
+     * @return the scheduler.
+     */
+    private static TickScheduler newScheduler() {
+        final TickScheduler scheduler = new TickScheduler(TICKS_PER_SECOND);
+        scheduler.start(START);
+        return scheduler;
+    }
+}